@@ -0,0 +1,36 @@
+package kafara.uur.runningdiary;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Represents synthetic diaries of the benchmarks.
+ * - the activities of the 10 years to a fixed day, generated with the default distributions
+ * - deterministic, the same count gives the same diary
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class BenchmarkDiaries {
+
+    /** Last day of the diaries */
+    static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    private BenchmarkDiaries() {}
+
+    /**
+     * @param count Count of activities
+     * @return      Activities in random date order
+     */
+    static List<Run> generate(int count) {
+        return generator(count).generate(count);
+    }
+
+    /**
+     * @param seed  Seed
+     * @return      Generator of the diaries
+     */
+    static DiaryGenerator generator(long seed) {
+        return new DiaryGenerator(seed).setDateSpan(TODAY.minusYears(10), TODAY);
+    }
+
+}
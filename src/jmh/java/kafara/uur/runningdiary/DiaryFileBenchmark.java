@@ -0,0 +1,54 @@
+package kafara.uur.runningdiary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the save file writes and reads.
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DiaryFileBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int runsCount;
+
+    private List<Run> runs;
+    /** Written by the read benchmark */
+    private Path savedFile;
+    /** Overwritten by the write benchmark */
+    private Path writtenFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        runs = BenchmarkDiaries.generate(runsCount);
+        savedFile = Files.createTempFile("runningdiary", ".dat");
+        writtenFile = Files.createTempFile("runningdiary", ".dat");
+        DiaryFile.write(savedFile, runs);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(savedFile);
+        Files.deleteIfExists(writtenFile);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        DiaryFile.write(writtenFile, runs);
+    }
+
+    @Benchmark
+    public List<Run> read() throws IOException {
+        return DiaryFile.read(savedFile);
+    }
+
+}
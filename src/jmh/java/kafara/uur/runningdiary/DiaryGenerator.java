@@ -0,0 +1,276 @@
+package kafara.uur.runningdiary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Represents a generator of synthetic diaries.
+ * - segments count, HR, cadence and elevation distributions, type mix and date span are configurable
+ * - deterministic for a seed
+ * - written in the save file format, the diary can be opened by the application
+ *   gradle generateDiary -Pargs="<count> <path> [--from=YYYY-MM-DD] [--to=YYYY-MM-DD] [--segments=1-5] [--seed=n]"
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class DiaryGenerator {
+
+    private final Random random;
+
+    /** Date span of the activities, including */
+    private LocalDate from, to;
+    /** Maximal count of segments of an activity */
+    public static final int MAX_SEGMENTS = 100;
+    /** Maximal duration of an activity [s], the duration of an activity is a time of day */
+    public static final int MAX_DURATION = 86399;
+
+    /** Count of segments of an activity, including */
+    private int minSegments = 1, maxSegments = 5;
+    /** Segment distance [km] */
+    private double minDistance = 0.4, maxDistance = 5.4;
+    /** Segment pace [s/km] */
+    private int minPace = 240, maxPace = 420;
+    /** Segment HR [bpm], normal */
+    private double hrMean = 150, hrDeviation = 15;
+    /** Part of activities without HR */
+    private double noHrRatio = 0.1;
+    /** Segment cadence [spm], normal */
+    private double cadenceMean = 172, cadenceDeviation = 8;
+    /** Segment elevation [m], exponential */
+    private double elevationMean = 30;
+    /** Part of labeled activities */
+    private double labeledRatio = 0.25;
+    /** Cumulative weights of the types */
+    private final double[] typeWeights = new double[Run.Type.values().length];
+
+    /**
+     * Creates a generator of the activities of the last 10 years, mostly easy runs.
+     * @param seed  Seed
+     */
+    public DiaryGenerator(long seed) {
+        this.random = new Random(seed);
+        this.to = LocalDate.now();
+        this.from = to.minusYears(10);
+        setTypeMix(Map.of(
+                Run.Type.EASY_RUN, 5.0, Run.Type.LONG_RUN, 2.0, Run.Type.STEADY_RUN, 2.0,
+                Run.Type.INTERVAL_RUN, 1.0, Run.Type.HILLS, 0.5, Run.Type.FARTLEK, 0.5, Run.Type.RACE, 0.2
+        ));
+    }
+
+    /**
+     * @param from  First day of the activities
+     * @param to    Last day of the activities
+     * @return      This generator
+     */
+    public DiaryGenerator setDateSpan(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Date span must not be empty.");
+        }
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    /**
+     * @param min   Minimal count of segments of an activity, at least 1
+     * @param max   Maximal count of segments of an activity, at most MAX_SEGMENTS
+     * @return      This generator
+     */
+    public DiaryGenerator setSegments(int min, int max) {
+        if (min<1 || max<min || max>MAX_SEGMENTS) {
+            throw new IllegalArgumentException(String.format("Segments count must be a range from 1 to %d.", MAX_SEGMENTS));
+        }
+        this.minSegments = min;
+        this.maxSegments = max;
+        return this;
+    }
+
+    /**
+     * @param minDistance   Minimal segment distance [km]
+     * @param maxDistance   Maximal segment distance [km]
+     * @param minPace       Minimal segment pace [s/km]
+     * @param maxPace       Maximal segment pace [s/km]
+     * @return              This generator
+     */
+    public DiaryGenerator setSegmentShape(double minDistance, double maxDistance, int minPace, int maxPace) {
+        this.minDistance = minDistance;
+        this.maxDistance = maxDistance;
+        this.minPace = minPace;
+        this.maxPace = maxPace;
+        return this;
+    }
+
+    /**
+     * @param mean          Mean segment HR [bpm]
+     * @param deviation     Standard deviation of segment HR
+     * @param noHrRatio     Part of activities without HR, 0-1
+     * @return              This generator
+     */
+    public DiaryGenerator setHr(double mean, double deviation, double noHrRatio) {
+        this.hrMean = mean;
+        this.hrDeviation = deviation;
+        this.noHrRatio = noHrRatio;
+        return this;
+    }
+
+    /**
+     * @param mean          Mean segment cadence [spm]
+     * @param deviation     Standard deviation of segment cadence
+     * @return              This generator
+     */
+    public DiaryGenerator setCadence(double mean, double deviation) {
+        this.cadenceMean = mean;
+        this.cadenceDeviation = deviation;
+        return this;
+    }
+
+    /**
+     * @param mean  Mean segment elevation [m]
+     * @return      This generator
+     */
+    public DiaryGenerator setElevation(double mean) {
+        this.elevationMean = mean;
+        return this;
+    }
+
+    /**
+     * @param weights   Relative weights of the types, missing types are not generated
+     * @return          This generator
+     */
+    public DiaryGenerator setTypeMix(Map<Run.Type, Double> weights) {
+        double sum = 0;
+        for (Run.Type type : Run.Type.values()) {
+            sum += weights.getOrDefault(type, 0.0);
+            typeWeights[type.ordinal()] = sum;
+        }
+        if (sum<=0) {
+            throw new IllegalArgumentException("At least one type must be generated.");
+        }
+        return this;
+    }
+
+    /**
+     * @param count Count of activities
+     * @return      Activities in random date order
+     */
+    public List<Run> generate(int count) {
+        List<Run> runs = new ArrayList<>(count);
+        for (int i=0; i<count; i++) {
+            runs.add(generate());
+        }
+        return runs;
+    }
+
+    /**
+     * Generates an activity.
+     * - the segments end when the activity reaches MAX_DURATION, the last one is shortened
+     * @return  Activity
+     */
+    public Run generate() {
+        int segmentsCount = minSegments + random.nextInt(maxSegments-minSegments+1);
+        boolean hr = random.nextDouble()>=noHrRatio;
+        List<Run.Segment> segments = new ArrayList<>(segmentsCount);
+        long duration = 0;
+        for (int i=0; i<segmentsCount && duration<MAX_DURATION; i++) {
+            double distance = Math.round((minDistance + (maxDistance-minDistance)*random.nextDouble())*100)/100.0;
+            int pace = minPace + random.nextInt(maxPace-minPace+1);
+            long seconds = (long) (distance*pace);
+            if (seconds>MAX_DURATION-duration) {
+                seconds = MAX_DURATION-duration;
+                distance = Math.max(Math.floor(100.0*seconds/pace)/100.0, 0.01);
+            }
+            duration += seconds;
+            segments.add(new Run.Segment(
+                    LocalTime.ofSecondOfDay(seconds),
+                    distance,
+                    hr ? (int) Math.max(Math.round(hrMean + hrDeviation*random.nextGaussian()), 40) : -1,
+                    (int) Math.max(Math.round(cadenceMean + cadenceDeviation*random.nextGaussian()), 0),
+                    (int) Math.round(-elevationMean*Math.log(1-random.nextDouble()))
+            ));
+        }
+        long days = to.toEpochDay()-from.toEpochDay()+1;
+        Run.Terrain[] terrains = Run.Terrain.values();
+        return new Run(
+                (random.nextDouble()<labeledRatio) ? "Run "+random.nextInt(1000) : null,
+                nextType(),
+                from.plusDays((long) (random.nextDouble()*days)),
+                segments,
+                terrains[random.nextInt(terrains.length)],
+                (random.nextInt(5)==0) ? -1 : 1+random.nextInt(10),
+                null
+        );
+    }
+
+    /**
+     * Edits the activity as the activity tab does, a new activity replaces the edited one.
+     * @param run   Run activity
+     * @return      Edited copy of the activity, the segment distances are scaled and the evaluation changed
+     */
+    public Run edit(Run run) {
+        double scale = 0.9 + 0.2*random.nextDouble();
+        List<Run.Segment> segments = new ArrayList<>();
+        for (Run.Segment segment : run.getSegments()) {
+            Run.Segment edited = new Run.Segment(segment);
+            edited.distanceProperty().set(Math.round(segment.getDistance()*scale*100)/100.0);
+            segments.add(edited);
+        }
+        return new Run(
+                run.getLabel(), run.getType(), run.getDate(), segments, run.getTerrain(),
+                1+random.nextInt(10), run.getNote()
+        );
+    }
+
+    private Run.Type nextType() {
+        double r = random.nextDouble()*typeWeights[typeWeights.length-1];
+        for (Run.Type type : Run.Type.values()) {
+            if (r<typeWeights[type.ordinal()]) {
+                return type;
+            }
+        }
+        return Run.Type.values()[typeWeights.length-1];
+    }
+
+    /**
+     * Writes a synthetic diary to the save file.
+     * @param args  count path [--from=YYYY-MM-DD] [--to=YYYY-MM-DD] [--segments=min-max] [--seed=n]
+     * @throws IOException
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length<2) {
+            System.err.println("Usage: DiaryGenerator <count> <path> [--from=YYYY-MM-DD] [--to=YYYY-MM-DD] [--segments=min-max] [--seed=n]");
+            System.exit(2);
+        }
+        int count = Integer.parseInt(args[0]);
+        Path path = Paths.get(args[1]);
+        Map<String, String> options = parseOptions(Arrays.copyOfRange(args, 2, args.length));
+        DiaryGenerator generator = new DiaryGenerator(Long.parseLong(options.getOrDefault("seed", "0")));
+        LocalDate to = LocalDate.parse(options.getOrDefault("to", LocalDate.now().toString()));
+        LocalDate from = LocalDate.parse(options.getOrDefault("from", to.minusYears(10).toString()));
+        generator.setDateSpan(from, to);
+        if (options.containsKey("segments")) {
+            String[] range = options.get("segments").split("-");
+            generator.setSegments(Integer.parseInt(range[0]), Integer.parseInt(range[range.length-1]));
+        }
+        DiaryFile.write(path, generator.generate(count));
+        System.out.printf("%d activities written to %s%n", count, path);
+    }
+
+    /**
+     * @param args  --key=value arguments
+     * @return      Values by key
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (! arg.startsWith("--") || ! arg.contains("=")) {
+                throw new IllegalArgumentException("Unknown argument: "+arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=')+1));
+        }
+        return options;
+    }
+
+}
@@ -0,0 +1,41 @@
+package kafara.uur.runningdiary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks grouping of the activities into the history tree by year, month (and type).
+ * - the groups are not expanded, as in the application only the groups are created up front
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HistoryGroupingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int runsCount;
+
+    @Param({"false", "true"})
+    public boolean byType;
+
+    private List<Run> runs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        runs = BenchmarkDiaries.generate(runsCount);
+    }
+
+    @Benchmark
+    public HistoryGroupItem group() {
+        HistoryGroupItem rootGI = new HistoryGroupItem(0, null);
+        for (Run run : runs) {
+            rootGI.add(run, byType);
+        }
+        return rootGI;
+    }
+
+}
@@ -0,0 +1,207 @@
+package kafara.uur.runningdiary;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Represents a headless load harness of activity mutations.
+ * - a synthetic diary with the engines of the application attached (sets of all and recent activities, indexes,
+ *   training load, records, distributions, zones, yearly distance, metrics)
+ * - adds, edits (replaced in place, as the activity tab) and deletes activities at a set rate
+ * - reports latency percentiles per mutation, service time (the mutation) and response time (from its schedule)
+ *   gradle mutationLoad -Pargs="[--runs=100000] [--mutations=10000] [--rate=200] [--mix=60,30,10] [--seed=0]"
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class MutationLoadHarness {
+
+    private static final int RECENT_DAYS = 6;
+
+    /** Diary generator */
+    private final DiaryGenerator generator;
+    private final Random random;
+    /** All recorded activities with the engines attached */
+    private final DiaryList allRuns = new DiaryList();
+    /** Recorded activities, picked for edits and deletes */
+    private final List<Run> live = new ArrayList<>();
+    /** Kept, the engines are only referenced by the listeners */
+    private final List<Object> engines = new ArrayList<>();
+
+    public MutationLoadHarness(long seed) {
+        this.generator = new DiaryGenerator(seed);
+        this.random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        engines.add(new RunsSet(allRuns));
+        engines.add(new RunsSet(allRuns, today.minusDays(RECENT_DAYS), today));
+        engines.add(new RunsIndex(allRuns));
+        engines.add(new SearchIndex(allRuns));
+        engines.add(new TrainingLoad(allRuns));
+        engines.add(new PersonalRecords(allRuns));
+        engines.add(new SegmentDistributions(allRuns));
+        engines.add(new TimeInZones(allRuns, TrainingZones.DEFAULT));
+        engines.add(new YearlyDistance(allRuns, new DiaryChangePublisher(allRuns)));
+        Metrics.registerDiary(allRuns);
+    }
+
+    /**
+     * Loads the initial diary.
+     * @param count Count of activities
+     * @return      Time of the load [ns]
+     */
+    public long load(int count) {
+        List<Run> runs = generator.generate(count);
+        long start = System.nanoTime();
+        allRuns.addAll(runs);
+        long time = System.nanoTime()-start;
+        live.addAll(runs);
+        return time;
+    }
+
+    /**
+     * Applies the mutations at the rate.
+     * @param mutations Count of mutations
+     * @param rate      Mutations per second, 0 as fast as possible
+     * @param mix       Relative weights of adds, edits and deletes
+     * @return          Latencies by mutation
+     */
+    public Map<Mutation, Latencies> run(int mutations, double rate, int[] mix) {
+        Map<Mutation, Latencies> latencies = new EnumMap<>(Mutation.class);
+        for (Mutation mutation : Mutation.values()) {
+            latencies.put(mutation, new Latencies(mutations));
+        }
+        int weights = mix[0]+mix[1]+mix[2];
+        long interval = (rate>0) ? (long) (1e9/rate) : 0;
+        long scheduled = System.nanoTime();
+        for (int i=0; i<mutations; i++) {
+            scheduled += interval;
+            long wait = scheduled-System.nanoTime();
+            if (wait>0) {
+                LockSupport.parkNanos(wait);
+            }
+            int r = random.nextInt(weights);
+            Mutation mutation = (r<mix[0] || live.isEmpty()) ? Mutation.ADD : (r<mix[0]+mix[1]) ? Mutation.EDIT : Mutation.DELETE;
+            long start = System.nanoTime();
+            apply(mutation);
+            long end = System.nanoTime();
+            latencies.get(mutation).add(end-start, end-((interval>0) ? scheduled : start));
+        }
+        return latencies;
+    }
+
+    private void apply(Mutation mutation) {
+        switch (mutation) {
+            case ADD: {
+                Run run = generator.generate();
+                allRuns.add(run);
+                live.add(run);
+                break;
+            }
+            case EDIT: {
+                int i = random.nextInt(live.size());
+                Run run = live.get(i);
+                Run edited = generator.edit(run);
+                allRuns.set(allRuns.indexOf(run), edited);
+                live.set(i, edited);
+                break;
+            }
+            case DELETE: {
+                int i = random.nextInt(live.size());
+                Run run = live.get(i);
+                allRuns.remove(run);
+                live.set(i, live.get(live.size()-1));
+                live.remove(live.size()-1);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Runs the harness and prints the latencies.
+     * @param args  [--runs=n] [--mutations=n] [--rate=per-second] [--mix=add,edit,delete] [--seed=n]
+     */
+    public static void main(String[] args) {
+        Map<String, String> options = DiaryGenerator.parseOptions(args);
+        int runs = Integer.parseInt(options.getOrDefault("runs", "100000"));
+        int mutations = Integer.parseInt(options.getOrDefault("mutations", "10000"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        String[] mixParts = options.getOrDefault("mix", "60,30,10").split(",");
+        int[] mix = new int[3];
+        for (int i=0; i<mix.length; i++) {
+            mix[i] = Integer.parseInt(mixParts[i].trim());
+        }
+        long seed = Long.parseLong(options.getOrDefault("seed", "0"));
+
+        MutationLoadHarness harness = new MutationLoadHarness(seed);
+        System.out.printf("Loaded %d activities in %.1f ms%n", runs, harness.load(runs)/1e6);
+        System.out.printf(
+                "Applying %d mutations at %s, mix add/edit/delete %d/%d/%d%n",
+                mutations, (rate>0) ? rate+"/s" : "full speed", mix[0], mix[1], mix[2]
+        );
+        Map<Mutation, Latencies> latencies = harness.run(mutations, rate, mix);
+        System.out.printf(
+                "%-8s %8s  %-8s %9s %9s %9s %9s %9s%n",
+                "", "count", "[ms]", "p50", "p90", "p99", "p99.9", "max"
+        );
+        for (Mutation mutation : Mutation.values()) {
+            Latencies l = latencies.get(mutation);
+            l.print(mutation.toString(), "service", l.service);
+            l.print("", "response", l.response);
+        }
+    }
+
+    /**
+     * Represents a mutation of the activities.
+     */
+    public static enum Mutation {
+        ADD, EDIT, DELETE
+    }
+
+    /**
+     * Represents the recorded latencies of a mutation.
+     */
+    public static class Latencies {
+
+        /** Times of the mutations [ns] */
+        private long[] service;
+        /** Times from the schedules to the ends of the mutations [ns] */
+        private long[] response;
+        private int count = 0;
+
+        private Latencies(int capacity) {
+            service = new long[capacity];
+            response = new long[capacity];
+        }
+
+        private void add(long serviceNanos, long responseNanos) {
+            service[count] = serviceNanos;
+            response[count] = responseNanos;
+            count++;
+        }
+
+        /**
+         * @param quantile  Quantile, 0-1
+         * @param sorted    Sorted latencies
+         * @return          Latency of the quantile [ms]
+         */
+        private double percentile(double quantile, long[] sorted) {
+            if (count==0) {
+                return 0;
+            }
+            int i = (int) Math.min(Math.ceil(quantile*count)-1, count-1);
+            return sorted[Math.max(i, 0)]/1e6;
+        }
+
+        private void print(String mutation, String kind, long[] latencies) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.printf(
+                    "%-8s %8s  %-8s %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    mutation, mutation.isEmpty() ? "" : ""+count, kind,
+                    percentile(0.50, sorted), percentile(0.90, sorted), percentile(0.99, sorted),
+                    percentile(0.999, sorted), percentile(1, sorted)
+            );
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package kafara.uur.runningdiary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the values computed from the segments, over all activities of a diary.
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RunBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int runsCount;
+
+    private List<Run> runs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        runs = BenchmarkDiaries.generate(runsCount);
+    }
+
+    @Benchmark
+    public long getHR() {
+        long sum = 0;
+        for (Run run : runs) {
+            sum += run.getHR();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double getDistance() {
+        double sum = 0;
+        for (Run run : runs) {
+            sum += run.getDistance();
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,67 @@
+package kafara.uur.runningdiary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the sets of activities, their construction and the update with a change of all activities.
+ * - the update adds and removes an activity with the sets of all and recent activities attached (as the application)
+ * - a set is constructed over a fresh list of all activities, so that the sets constructed before are not attached
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RunsSetBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int runsCount;
+
+    private List<Run> runs;
+    /** All activities with the sets attached */
+    private DiaryList allRuns;
+    /** Added and removed activity */
+    private Run run;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        runs = BenchmarkDiaries.generate(runsCount);
+        allRuns = new DiaryList();
+        allRuns.addAll(runs);
+        new RunsSet(allRuns);
+        new RunsSet(allRuns, BenchmarkDiaries.TODAY.minusDays(6), BenchmarkDiaries.TODAY);
+        run = BenchmarkDiaries.generator(0).generate();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RunsSet construct(FreshRuns freshRuns) {
+        return new RunsSet(freshRuns.allRuns);
+    }
+
+    @Benchmark
+    public int addAndRemove() {
+        allRuns.add(run);
+        allRuns.remove(allRuns.size()-1);
+        return allRuns.size();
+    }
+
+    /**
+     * Represents all activities with no set attached, created for every invocation.
+     */
+    @State(Scope.Thread)
+    public static class FreshRuns {
+
+        private DiaryList allRuns;
+
+        @Setup(Level.Invocation)
+        public void setUp(RunsSetBenchmark benchmark) {
+            allRuns = new DiaryList();
+            allRuns.addAll(benchmark.runs);
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package kafara.uur.runningdiary;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the bucket aggregation of the statistics charts.
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StatisticsBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int runsCount;
+
+    @Param({"DAYS30", "MONTHS12"})
+    public String timeframe;
+
+    private List<Run> runs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        runs = BenchmarkDiaries.generate(runsCount);
+    }
+
+    @Benchmark
+    public ChartDataset timeframeDataset() {
+        return StatisticsTab.computeDataset(
+                runs, StatisticsTab.Timeframe.valueOf(timeframe), StatisticsTab.Data.DISTANCE, BenchmarkDiaries.TODAY
+        );
+    }
+
+    @Benchmark
+    public ChartDataset rangeDataset() {
+        return StatisticsTab.computeRangeDataset(
+                runs, StatisticsTab.Data.DISTANCE, BenchmarkDiaries.TODAY.minusYears(10), BenchmarkDiaries.TODAY
+        );
+    }
+
+}
@@ -0,0 +1,137 @@
+package kafara.uur.runningdiary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents the autosave of the recorded activities to the save file.
+ * - subscribed to the diary changes, keeps its own copy of the activities, written on its own thread
+ * - writes at most once per interval, the changes made meanwhile are coalesced and saved by the next write
+ * - written to a temporary file first, the save file is replaced at once
+ * - closing waits for the write in progress, no write replaces the save file after the autosave is closed
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class Autosave implements Flow.Subscriber<DiaryChange>, AutoCloseable {
+
+    /** Default minimal time between writes [s] */
+    public static final long DEFAULT_INTERVAL = 10;
+
+    /** Time of the writes */
+    private static final LatencyTimer WRITE_TIMER = Metrics.timer("Autosave.write");
+
+    /** Path to save file */
+    private final Path path;
+    /** Minimal time between writes [s] */
+    private final long interval;
+    /** Recorded activities as of the last change, update thread only */
+    private final Set<Run> runs;
+    /** Runs the writes and requests the next change after the interval */
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "autosave");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile Flow.Subscription subscription;
+    /** Held while the save file is written, guards closed */
+    private final Object writeLock = new Object();
+    /** Determines whether the autosave is closed, no write is started then */
+    private boolean closed = false;
+
+    public Autosave(Path path, Collection<Run> runs, DiaryChangePublisher changes) {
+        this(path, runs, changes, DEFAULT_INTERVAL);
+    }
+
+    /**
+     * @param path      Path to save file
+     * @param runs      Recorded activities
+     * @param changes   Changes of the recorded activities following the activities
+     * @param interval  Minimal time between writes [s]
+     */
+    public Autosave(Path path, Collection<Run> runs, DiaryChangePublisher changes, long interval) {
+        this.path = path;
+        this.interval = interval;
+        this.runs = new LinkedHashSet<>(runs);
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        changes.subscribe(this, executor);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(DiaryChange change) {
+        runs.removeAll(change.getRemoved());
+        for (Map.Entry<Run, Run> entry : change.getReplaced().entrySet()) {
+            runs.remove(entry.getKey());
+            runs.add(entry.getValue());
+        }
+        runs.addAll(change.getAdded());
+        synchronized (writeLock) {
+            if (closed) {
+                return;
+            }
+            long start = System.nanoTime();
+            try {
+                Path temporary = path.resolveSibling(path.getFileName()+".tmp");
+                DiaryFile.write(temporary, runs);
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                report(e); // saved by the next write or when the application stops
+            } finally {
+                WRITE_TIMER.recordSince(start);
+            }
+        }
+        if (! executor.isShutdown()) {
+            executor.schedule(() -> subscription.request(1), interval, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        report(throwable);
+        executor.shutdown();
+    }
+
+    @Override
+    public void onComplete() {
+        executor.shutdown();
+    }
+
+    /**
+     * Reports the failure to the handler of the autosave thread.
+     * @param throwable Failure
+     */
+    private static void report(Throwable throwable) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, throwable);
+    }
+
+    /**
+     * Stops the autosave.
+     * - returns after the write in progress is finished, the save file may be written by the caller then
+     */
+    @Override
+    public void close() {
+        if (subscription!=null) {
+            subscription.cancel();
+        }
+        executor.shutdown();
+        synchronized (writeLock) {
+            closed = true;
+        }
+    }
+
+}
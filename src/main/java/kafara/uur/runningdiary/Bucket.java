@@ -0,0 +1,140 @@
+package kafara.uur.runningdiary;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Represents a size of statistics buckets (days aggregated into one chart value).
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public enum Bucket {
+    DAY, WEEK, MONTH, YEAR;
+
+    /**
+     * Chooses the smallest bucket size dividing the date range into at most max buckets.
+     * @param from  From
+     * @param to    To
+     * @param max   Maximal buckets count
+     * @return      Bucket size
+     */
+    public static Bucket of(LocalDate from, LocalDate to, int max) {
+        for (Bucket bucket : values()) {
+            if (bucket.count(from, to) <= max) {
+                return bucket;
+            }
+        }
+        return YEAR;
+    }
+
+    /**
+     * Returns the first day of the bucket containing the date.
+     * @param date  Date
+     * @return      First day of the bucket
+     */
+    public LocalDate start(LocalDate date) {
+        switch (this) {
+            case DAY:
+                return date;
+            case WEEK:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return date.withDayOfMonth(1);
+            case YEAR:
+                return date.withDayOfYear(1);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the first day of the i-th bucket after the bucket beginning with the date.
+     * @param start First day of a bucket
+     * @param i     Buckets to be skipped
+     * @return      First day of the bucket
+     */
+    public LocalDate plus(LocalDate start, long i) {
+        switch (this) {
+            case DAY:
+                return start.plusDays(i);
+            case WEEK:
+                return start.plusWeeks(i);
+            case MONTH:
+                return start.plusMonths(i);
+            case YEAR:
+                return start.plusYears(i);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the index of the bucket containing the date.
+     * @param start First day of the first bucket
+     * @param date  Date
+     * @return      Bucket index, negative if the date precedes the first bucket
+     */
+    public long index(LocalDate start, LocalDate date) {
+        switch (this) {
+            case DAY:
+                return date.toEpochDay() - start.toEpochDay();
+            case WEEK:
+                return Math.floorDiv(date.toEpochDay() - start.toEpochDay(), 7);
+            case MONTH:
+                return 12L*(date.getYear()-start.getYear()) + date.getMonthValue()-start.getMonthValue();
+            case YEAR:
+                return date.getYear()-start.getYear();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns count of the buckets covering the date range from-to.
+     * @param from  From
+     * @param to    To
+     * @return      Buckets count
+     */
+    public long count(LocalDate from, LocalDate to) {
+        return index(start(from), to) + 1;
+    }
+
+    /**
+     * Formats the bucket beginning with the date.
+     * @param start First day of the bucket
+     * @return      Bucket label
+     */
+    public String format(LocalDate start) {
+        switch (this) {
+            case DAY:
+                return start.format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM));
+            case WEEK:
+                return String.format(
+                        "%s - %s",
+                        start.format(DateTimeFormatter.ofLocalizedDate(FormatStyle.SHORT)),
+                        start.plus(6, ChronoUnit.DAYS).format(DateTimeFormatter.ofLocalizedDate(FormatStyle.SHORT))
+                );
+            case MONTH:
+                return start.format(DateTimeFormatter.ofPattern("LLLL yyyy"));
+            case YEAR:
+                return ""+start.getYear();
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        switch (this) {
+            case DAY:
+                return "Days";
+            case WEEK:
+                return "Weeks";
+            case MONTH:
+                return "Months";
+            case YEAR:
+                return "Years";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,153 @@
+package kafara.uur.runningdiary;
+
+import javafx.scene.control.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Represents the context menu of the selected activities.
+ * - sets type or terrain, shifts date or deletes all the selected activities at once
+ * - a bulk operation is a single change of (background-)list and a single undoable command
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class BulkEditMenu extends ContextMenu {
+
+    /** Maximal age of a shifted activity [years] */
+    private static final int MAX_AGE_YEARS = 100;
+
+    /** Undoable changes of all recorded activities */
+    private final DiaryHistory history;
+    /** Selected activities */
+    private final Supplier<List<Run>> selectedRuns;
+
+    /**
+     * @param history       Undoable changes of all recorded activities
+     * @param selectedRuns  Selected activities
+     */
+    public BulkEditMenu(DiaryHistory history, Supplier<List<Run>> selectedRuns) {
+        this.history = history;
+        this.selectedRuns = selectedRuns;
+        Menu typeMN = new Menu("Set _Type");
+        {
+            for (Run.Type type : Run.Type.values()) {
+                MenuItem typeMI = new MenuItem(type.toString());
+                typeMI.setOnAction(event -> edit(run -> copy(run, type, run.getDate(), run.getTerrain())));
+                typeMN.getItems().add(typeMI);
+            }
+        }
+        Menu terrainMN = new Menu("Set Te_rrain");
+        {
+            for (Run.Terrain terrain : Run.Terrain.values()) {
+                MenuItem terrainMI = new MenuItem(terrain.toString());
+                terrainMI.setOnAction(event -> edit(run -> copy(run, run.getType(), run.getDate(), terrain)));
+                terrainMN.getItems().add(terrainMI);
+            }
+        }
+        MenuItem shiftDateMI = new MenuItem("_Shift Date...");
+        {
+            shiftDateMI.setOnAction(event -> shiftDate());
+        }
+        MenuItem deleteMI = new MenuItem("_Delete...");
+        {
+            deleteMI.setOnAction(event -> delete());
+        }
+        getItems().addAll(typeMN, terrainMN, shiftDateMI, new SeparatorMenuItem(), deleteMI);
+        setOnShowing(event -> {
+            boolean empty = selectedRuns.get().isEmpty();
+            getItems().forEach(item -> item.setDisable(empty));
+        });
+    }
+
+    /**
+     * Replaces the selected activities with their edited copies.
+     * @param editor    Creates the edited copy of an activity
+     */
+    private void edit(UnaryOperator<Run> editor) {
+        Map<Run, Run> replacements = new HashMap<>();
+        for (Run run : selectedRuns.get()) {
+            replacements.put(run, editor.apply(run));
+        }
+        history.replaceAll(replacements);
+    }
+
+    private void shiftDate() {
+        TextInputDialog dialog = new TextInputDialog("1");
+        dialog.setTitle("Shift Date");
+        dialog.setHeaderText(String.format("Shift the date of %d activities", selectedRuns.get().size()));
+        dialog.setContentText("Days (negative to shift back):");
+        Optional<String> result = dialog.showAndWait();
+        if (result.isEmpty()) {
+            return;
+        }
+        long days;
+        try {
+            days = Long.parseLong(result.get().trim());
+        } catch (NumberFormatException e) {
+            showInvalidInput("Days must be a whole number.");
+            return;
+        }
+        if (days==0) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate earliest = today.minusYears(MAX_AGE_YEARS);
+        if (Math.abs(days)>today.toEpochDay()-earliest.toEpochDay()) {
+            showInvalidInput(String.format("Activities can be shifted by at most %d years.", MAX_AGE_YEARS));
+            return;
+        }
+        for (Run run : selectedRuns.get()) {
+            LocalDate date = run.getDate().plusDays(days);
+            if (date.isAfter(today)) {
+                showInvalidInput("Recorded activity cannot happen in future.");
+                return;
+            }
+            if (date.isBefore(earliest)) {
+                showInvalidInput(String.format("Recorded activity cannot happen more than %d years ago.", MAX_AGE_YEARS));
+                return;
+            }
+        }
+        edit(run -> copy(run, run.getType(), run.getDate().plusDays(days), run.getTerrain()));
+    }
+
+    private static void showInvalidInput(String message) {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setHeaderText("Invalid Input");
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+
+    private void delete() {
+        List<Run> runs = selectedRuns.get();
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setHeaderText("Are you sure you want to delete the selected activities?");
+        alert.setContentText(String.format(
+                "%d activities will be deleted. The deletion can be undone in the Edit menu.", runs.size()
+        ));
+        alert.getButtonTypes().clear();
+        alert.getButtonTypes().addAll(ButtonType.YES, ButtonType.NO);
+        Optional<ButtonType> buttonType = alert.showAndWait();
+        if (buttonType.isPresent() && buttonType.get()==ButtonType.YES) {
+            history.deleteAll(runs);
+        }
+    }
+
+    /**
+     * Copies the activity with the fields changed.
+     * - the copy gets its own segments list, the segments themselves are shared, recorded segments are not modified
+     * @return  Edited copy of the activity
+     */
+    private static Run copy(Run run, Run.Type type, LocalDate date, Run.Terrain terrain) {
+        return new Run(
+                run.getLabel(), type, date, new ArrayList<>(run.getSegments()), terrain, run.getEvaluation(), run.getNote()
+        );
+    }
+
+}
@@ -0,0 +1,251 @@
+package kafara.uur.runningdiary;
+
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.time.format.TextStyle;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.DoubleFunction;
+
+/**
+ * Represents a calendar heatmap of daily values.
+ * - a year is a block of week columns and weekday rows, the latest year on top
+ * - drawn on a canvas, only the years in the viewport are drawn
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class CalendarHeatmap extends Region {
+
+    /** Day cell size and spacing */
+    private static final double CELL = 12, GAP = 2;
+    /** Margins of a year block */
+    private static final double LEFT = 40, HEADER = 36, FOOTER = 16;
+    /** Height of a year block */
+    private static final double YEAR_HEIGHT = HEADER + 7*(CELL+GAP) + FOOTER;
+    /** Intensity levels from no activity */
+    private static final Color[] LEVELS = {
+            Color.web("#ebedf0"), Color.web("#9be9a8"), Color.web("#40c463"),
+            Color.web("#30a14e"), Color.web("#216e39")
+    };
+
+    private final Canvas canvas = new Canvas();
+    private final ScrollBar scrollBar = new ScrollBar();
+    private final Tooltip tooltip = new Tooltip();
+
+    /** Values by day */
+    private DailyValues dailyValues;
+    /** Formats the values */
+    private DoubleFunction<String> format;
+    /** Called with the clicked day */
+    private final Consumer<LocalDate> onDayClicked;
+
+    /** Shown years */
+    private int firstYear, lastYear;
+
+    /**
+     * Creates an empty heatmap.
+     * @param onDayClicked  Called with the clicked day
+     */
+    public CalendarHeatmap(Consumer<LocalDate> onDayClicked) {
+        this.onDayClicked = onDayClicked;
+        setPrefSize(LEFT + 54*(CELL+GAP) + 32, 3*YEAR_HEIGHT);
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.setMin(0);
+        scrollBar.valueProperty().addListener(observable -> draw());
+        getChildren().addAll(canvas, scrollBar);
+        setOnScroll(event -> scrollBar.setValue(
+                Math.min(Math.max(scrollBar.getValue()-event.getDeltaY(), 0), scrollBar.getMax())
+        ));
+        setOnMouseMoved(this::onMouseMoved);
+        setOnMouseExited(event -> tooltip.hide());
+        setOnMouseClicked(event -> {
+            LocalDate day = getDay(event.getX(), event.getY());
+            if (event.getButton()==MouseButton.PRIMARY && day!=null) {
+                onDayClicked.accept(day);
+            }
+        });
+    }
+
+    /**
+     * Sets the shown values and redraws the heatmap.
+     * @param dailyValues   Values by day
+     * @param format        Formats the values
+     */
+    public void setValues(DailyValues dailyValues, DoubleFunction<String> format) {
+        this.dailyValues = dailyValues;
+        this.format = format;
+        refresh();
+    }
+
+    /**
+     * Updates the shown years and redraws the heatmap.
+     */
+    public void refresh() {
+        LocalDate today = LocalDate.now();
+        LocalDate first = (dailyValues!=null) ? dailyValues.getFirstDate() : null;
+        LocalDate last = (dailyValues!=null) ? dailyValues.getLastDate() : null;
+        firstYear = (first!=null) ? Math.min(first.getYear(), today.getYear()) : today.getYear();
+        lastYear = (last!=null) ? Math.max(last.getYear(), today.getYear()) : today.getYear();
+        updateScrollBar();
+        draw();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double scrollBarWidth = scrollBar.prefWidth(-1);
+        scrollBar.resizeRelocate(getWidth()-scrollBarWidth, 0, scrollBarWidth, getHeight());
+        if (canvas.getWidth()!=getWidth()-scrollBarWidth || canvas.getHeight()!=getHeight()) {
+            canvas.setWidth(Math.max(getWidth()-scrollBarWidth, 0));
+            canvas.setHeight(getHeight());
+            updateScrollBar();
+            draw();
+        }
+    }
+
+    private void updateScrollBar() {
+        double contentHeight = (lastYear-firstYear+1)*YEAR_HEIGHT;
+        scrollBar.setMax(Math.max(contentHeight-canvas.getHeight(), 0));
+        scrollBar.setVisibleAmount(canvas.getHeight());
+        scrollBar.setUnitIncrement(CELL+GAP);
+        scrollBar.setBlockIncrement(YEAR_HEIGHT);
+        if (scrollBar.getValue()>scrollBar.getMax()) {
+            scrollBar.setValue(scrollBar.getMax());
+        }
+    }
+
+    /**
+     * Draws the years in the viewport.
+     */
+    private void draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (dailyValues==null) {
+            return;
+        }
+        double offset = scrollBar.getValue();
+        int firstShown = (int) (offset/YEAR_HEIGHT);
+        int lastShown = (int) ((offset+canvas.getHeight())/YEAR_HEIGHT);
+        double max = dailyValues.getMax();
+        for (int block=firstShown; block<=lastShown && lastYear-block>=firstYear; block++) {
+            drawYear(gc, lastYear-block, block*YEAR_HEIGHT-offset, max);
+        }
+    }
+
+    private void drawYear(GraphicsContext gc, int year, double top, double max) {
+        gc.setFill(Color.BLACK);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setTextAlign(TextAlignment.LEFT);
+        gc.setFont(Font.font(14));
+        gc.fillText(""+year, 0, top+10);
+        gc.setFont(Font.font(10));
+        for (Month month : Month.values()) {
+            LocalDate monthStart = LocalDate.of(year, month, 1);
+            gc.fillText(
+                    month.getDisplayName(TextStyle.SHORT, Locale.getDefault()),
+                    LEFT + getWeek(monthStart)*(CELL+GAP), top+HEADER-8
+            );
+        }
+        gc.setTextAlign(TextAlignment.RIGHT);
+        for (DayOfWeek dayOfWeek : new DayOfWeek[] {DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.FRIDAY}) {
+            gc.fillText(
+                    dayOfWeek.getDisplayName(TextStyle.SHORT, Locale.getDefault()),
+                    LEFT-6, top+HEADER+(dayOfWeek.getValue()-1)*(CELL+GAP)+CELL/2
+            );
+        }
+        for (LocalDate day=LocalDate.of(year, 1, 1); day.getYear()==year; day=day.plusDays(1)) {
+            double value = dailyValues.get(day);
+            gc.setFill(LEVELS[getLevel(value, max)]);
+            gc.fillRect(
+                    LEFT + getWeek(day)*(CELL+GAP),
+                    top + HEADER + (day.getDayOfWeek().getValue()-1)*(CELL+GAP),
+                    CELL, CELL
+            );
+        }
+    }
+
+    /**
+     * @param value Day value
+     * @param max   Maximal day value
+     * @return      Intensity level, 0 if there is no activity
+     */
+    private static int getLevel(double value, double max) {
+        if (value<=0 || max<=0) {
+            return 0;
+        }
+        return Math.min(1 + (int) (value/max*(LEVELS.length-1)), LEVELS.length-1);
+    }
+
+    /**
+     * @param day   Day
+     * @return      Week column of the day in its year, weeks start on Monday
+     */
+    private static int getWeek(LocalDate day) {
+        int firstDayOfWeek = LocalDate.of(day.getYear(), 1, 1).getDayOfWeek().getValue()-1;
+        return (day.getDayOfYear()-1+firstDayOfWeek)/7;
+    }
+
+    /**
+     * Finds the day at the position.
+     * @param x X
+     * @param y Y
+     * @return  Day, null if there is no day cell
+     */
+    private LocalDate getDay(double x, double y) {
+        double contentY = y+scrollBar.getValue();
+        int year = lastYear - (int) (contentY/YEAR_HEIGHT);
+        if (year<firstYear || x<LEFT) {
+            return null;
+        }
+        double blockY = contentY % YEAR_HEIGHT - HEADER;
+        if (blockY<0) {
+            return null;
+        }
+        int week = (int) ((x-LEFT)/(CELL+GAP));
+        int dayOfWeek = (int) (blockY/(CELL+GAP));
+        if (dayOfWeek>6) {
+            return null;
+        }
+        int firstDayOfWeek = LocalDate.of(year, 1, 1).getDayOfWeek().getValue()-1;
+        int dayOfYear = week*7 + dayOfWeek - firstDayOfWeek + 1;
+        if (dayOfYear<1 || dayOfYear>LocalDate.of(year, 1, 1).lengthOfYear()) {
+            return null;
+        }
+        return LocalDate.ofYearDay(year, dayOfYear);
+    }
+
+    private void onMouseMoved(MouseEvent event) {
+        LocalDate day = (dailyValues!=null) ? getDay(event.getX(), event.getY()) : null;
+        if (day==null) {
+            tooltip.hide();
+            return;
+        }
+        tooltip.setText(String.format(
+                "%s\n%s",
+                day.format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)),
+                format.apply(dailyValues.get(day))
+        ));
+        if (tooltip.isShowing()) {
+            tooltip.setAnchorX(event.getScreenX()+12);
+            tooltip.setAnchorY(event.getScreenY()+12);
+        } else {
+            tooltip.show(this, event.getScreenX()+12, event.getScreenY()+12);
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package kafara.uur.runningdiary;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.Tab;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Represents the application "Calendar"-Tab.
+ * - a calendar heatmap of daily distance or training load, a click opens the activities of the day
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class CalendarTab extends Tab {
+
+    /** All recorded activities */
+    private final ObservableList<Run> allRuns;
+    /** Distance by day */
+    private final DailyValues dailyDistance;
+    /** Training load by day */
+    private final DailyValues dailyLoad;
+    /** Opens the activity */
+    private final Consumer<Run> openRun;
+
+    private ChoiceBox<Data> dataCB;
+    private CalendarHeatmap heatmap;
+
+    public CalendarTab(ObservableList<Run> allRuns, Consumer<Run> openRun) {
+        this.allRuns = allRuns;
+        this.openRun = openRun;
+        this.dailyDistance = new DailyValues(allRuns, Run::getDistance);
+        this.dailyLoad = new DailyValues(allRuns, TrainingLoad::getLoad);
+        setText("Calendar");
+        setClosable(false);
+        BorderPane borderPane = new BorderPane();
+        {
+            VBox vBox = new VBox(16);
+            {
+                vBox.setPadding(new Insets(24));
+            }
+            {
+                HBox hBox = new HBox(8);
+                {
+                    hBox.setAlignment(Pos.CENTER_LEFT);
+                    dataCB = new ChoiceBox<>(FXCollections.observableArrayList(Data.values()));
+                    dataCB.setValue(Data.DISTANCE);
+                    dataCB.setOnAction(event -> updateHeatmap());
+                    hBox.getChildren().addAll(new Label("Data"), dataCB);
+                }
+                heatmap = new CalendarHeatmap(this::openRuns);
+                VBox.setVgrow(heatmap, Priority.ALWAYS);
+                vBox.getChildren().addAll(RunningDiary.getTabTitleLabel("Calendar"), hBox, heatmap);
+            }
+            borderPane.setCenter(vBox);
+        }
+        setContent(borderPane);
+        dailyDistance.versionProperty().addListener(observable -> {
+            if (dataCB.getValue()==Data.DISTANCE) {
+                heatmap.refresh();
+            }
+        });
+        dailyLoad.versionProperty().addListener(observable -> {
+            if (dataCB.getValue()==Data.LOAD) {
+                heatmap.refresh();
+            }
+        });
+        updateHeatmap();
+    }
+
+    private void updateHeatmap() {
+        if (dataCB.getValue()==Data.LOAD) {
+            heatmap.setValues(dailyLoad, load -> String.format("%.0f TRIMP", load));
+        } else {
+            heatmap.setValues(dailyDistance, km -> String.format("%.2f km", km));
+        }
+    }
+
+    /**
+     * Opens the activities of the day.
+     * @param day   Day
+     */
+    private void openRuns(LocalDate day) {
+        allRuns.stream()
+                .filter(run -> run.getDate().equals(day))
+                .toList()
+                .forEach(openRun);
+    }
+
+    /**
+     * Represents data shown in the heatmap.
+     */
+    private static enum Data {
+        DISTANCE, LOAD;
+
+        @Override
+        public String toString() {
+            switch (this) {
+                case DISTANCE:
+                    return "Distance";
+                case LOAD:
+                    return "Training Load";
+            }
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,428 @@
+package kafara.uur.runningdiary;
+
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Tooltip;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+import java.util.function.DoubleFunction;
+
+/**
+ * Represents a chart drawn on a canvas.
+ * - bars, lines or a heatmap of the chart data without a node per value
+ * - a single tooltip, the hovered value is found from the mouse position
+ * - hovering redraws only the columns of the previously and newly hovered values
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class CanvasChart extends Region {
+
+    /** Plot margins */
+    private static final double LEFT = 64, RIGHT = 16, TOP = 48, BOTTOM = 48;
+    /** Minimal distance of the x axis labels */
+    private static final double LABEL_SPACING = 96;
+    /** Series colors (default chart colors) */
+    private static final Color[] COLORS = {
+            Color.web("#f3622d"), Color.web("#fba71b"), Color.web("#57b757"),
+            Color.web("#41a9c9"), Color.web("#4258c9"), Color.web("#9a42c8"),
+            Color.web("#c84164"), Color.web("#888888")
+    };
+    private static final Color GRID_COLOR = Color.web("#e0e0e0");
+    private static final Color HOVER_COLOR = Color.web("#000000", 0.12);
+
+    private final Canvas canvas = new Canvas();
+    private final Tooltip tooltip = new Tooltip();
+
+    private Kind kind = Kind.BAR;
+    private ChartDataset dataset;
+    private String title = "";
+    private String yAxisLabel = "";
+    /** Formats the values */
+    private DoubleFunction<String> format = value -> String.format("%.2f", value);
+
+    /** Value axis range */
+    private double min, max, tickStep;
+    /** Downsampled line points by series, computed for the plot width */
+    private int[][] lineIndices;
+    /** Hovered value, -1 if none */
+    private int hovered = -1;
+    /** Hovered heatmap series, -1 if none */
+    private int hoveredSeries = -1;
+
+    public CanvasChart() {
+        getStyleClass().add("canvas-chart");
+        setPrefSize(500, 400);
+        setMinSize(200, 150);
+        getChildren().add(canvas);
+        setOnMouseMoved(this::onMouseMoved);
+        setOnMouseExited(event -> {
+            setHovered(-1, -1);
+            tooltip.hide();
+        });
+    }
+
+    /**
+     * Sets the chart data and redraws the chart.
+     * @param kind          Kind of the chart
+     * @param dataset       Chart data
+     * @param title         Chart title
+     * @param yAxisLabel    Label of the value axis
+     * @param format        Formats the values
+     */
+    public void setData(Kind kind, ChartDataset dataset, String title, String yAxisLabel, DoubleFunction<String> format) {
+        this.kind = kind;
+        this.dataset = dataset;
+        this.title = (title!=null) ? title : "";
+        this.yAxisLabel = (yAxisLabel!=null) ? yAxisLabel : "";
+        this.format = format;
+        lineIndices = null;
+        hovered = -1;
+        hoveredSeries = -1;
+        tooltip.hide();
+        computeRange();
+        draw();
+    }
+
+    @Override
+    protected void layoutChildren() {
+        if (canvas.getWidth()!=getWidth() || canvas.getHeight()!=getHeight()) {
+            canvas.setWidth(getWidth());
+            canvas.setHeight(getHeight());
+            lineIndices = null;
+            draw();
+        }
+    }
+
+    /**
+     * Computes the value axis range with rounded ticks.
+     */
+    private void computeRange() {
+        min = 0;
+        max = 0;
+        if (dataset==null) {
+            max = 1;
+            tickStep = 1;
+            return;
+        }
+        for (int i=0; i<dataset.size(); i++) {
+            double stacked = 0;
+            for (int s=0; s<dataset.getSeriesCount(); s++) {
+                double value = dataset.getValue(s, i);
+                stacked += value;
+                min = Math.min(min, value);
+                max = Math.max(max, (kind==Kind.BAR) ? stacked : value);
+            }
+        }
+        if (kind==Kind.HEATMAP) {
+            tickStep = 1;
+            return;
+        }
+        if (max<=min) {
+            max = min+1;
+        }
+        double rawStep = (max-min)/5;
+        double magnitude = Math.pow(10, Math.floor(Math.log10(rawStep)));
+        double normalized = rawStep/magnitude;
+        tickStep = ((normalized<=1) ? 1 : (normalized<=2) ? 2 : (normalized<=5) ? 5 : 10) * magnitude;
+        min = Math.floor(min/tickStep)*tickStep;
+        max = Math.ceil(max/tickStep)*tickStep;
+    }
+
+    private double getPlotWidth() {
+        return Math.max(canvas.getWidth()-LEFT-RIGHT, 1);
+    }
+
+    private double getPlotHeight() {
+        return Math.max(canvas.getHeight()-TOP-BOTTOM, 1);
+    }
+
+    /**
+     * @param i Value
+     * @return  Left edge of the column of the value
+     */
+    private double getColumnX(int i) {
+        return LEFT + i*getPlotWidth()/dataset.size();
+    }
+
+    /**
+     * @param value Value
+     * @return      Vertical position of the value
+     */
+    private double getY(double value) {
+        return TOP + getPlotHeight()*(1 - (value-min)/(max-min));
+    }
+
+    /**
+     * Draws the whole chart.
+     */
+    private void draw() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        if (dataset==null || dataset.size()==0 || canvas.getWidth()<=LEFT+RIGHT || canvas.getHeight()<=TOP+BOTTOM) {
+            return;
+        }
+        if (kind==Kind.LINE && lineIndices==null) {
+            int width = (int) Math.max(getPlotWidth(), 3);
+            lineIndices = new int[dataset.getSeriesCount()][];
+            for (int s=0; s<lineIndices.length; s++) {
+                lineIndices[s] = dataset.downsample(s, width);
+            }
+        }
+        drawPlot(LEFT, LEFT+getPlotWidth());
+        drawAxes(gc);
+    }
+
+    /**
+     * Draws the title, the axes and the legend.
+     * @param gc    Graphics context
+     */
+    private void drawAxes(GraphicsContext gc) {
+        double plotWidth = getPlotWidth();
+        double plotHeight = getPlotHeight();
+        gc.setFill(Color.BLACK);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setFont(Font.font(16));
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.fillText(title, LEFT+plotWidth/2, TOP/2);
+        gc.setFont(Font.font(11));
+        gc.setTextAlign(TextAlignment.RIGHT);
+        if (kind==Kind.HEATMAP) {
+            double rowHeight = plotHeight/dataset.getSeriesCount();
+            for (int s=0; s<dataset.getSeriesCount(); s++) {
+                gc.fillText(getSeriesName(s), LEFT-6, TOP+plotHeight-(s+0.5)*rowHeight);
+            }
+        } else {
+            for (double tick=min; tick<=max+tickStep/2; tick+=tickStep) {
+                gc.fillText(format.apply(tick), LEFT-6, getY(tick));
+            }
+            gc.save();
+            gc.translate(12, TOP+plotHeight/2);
+            gc.rotate(-90);
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.fillText(yAxisLabel, 0, 0);
+            gc.restore();
+        }
+        gc.setTextAlign(TextAlignment.CENTER);
+        int step = (int) Math.ceil(dataset.size()*LABEL_SPACING/plotWidth);
+        for (int i=0; i<dataset.size(); i+=step) {
+            gc.fillText(dataset.getCategory(i), (getColumnX(i)+getColumnX(i+1))/2, TOP+plotHeight+12);
+        }
+        if (dataset.getXAxisLabel()!=null) {
+            gc.fillText(dataset.getXAxisLabel(), LEFT+plotWidth/2, TOP+plotHeight+32);
+        }
+        gc.setStroke(Color.GRAY);
+        gc.setLineWidth(1);
+        gc.strokeLine(LEFT, TOP+plotHeight+0.5, LEFT+plotWidth, TOP+plotHeight+0.5);
+        gc.strokeLine(LEFT-0.5, TOP, LEFT-0.5, TOP+plotHeight);
+        if (kind!=Kind.HEATMAP && dataset.getSeriesCount()>1) {
+            gc.setTextAlign(TextAlignment.LEFT);
+            double x = LEFT;
+            for (int s=0; s<dataset.getSeriesCount(); s++) {
+                gc.setFill(getColor(s));
+                gc.fillRect(x, TOP-14, 10, 10);
+                gc.setFill(Color.BLACK);
+                gc.fillText(getSeriesName(s), x+14, TOP-9);
+                x += 24 + 7*getSeriesName(s).length();
+            }
+        }
+    }
+
+    /**
+     * Draws the part of the plot between the horizontal positions.
+     * - the rest of the chart is not touched
+     * @param x0    From
+     * @param x1    To
+     */
+    private void drawPlot(double x0, double x1) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double plotWidth = getPlotWidth();
+        double plotHeight = getPlotHeight();
+        x0 = Math.max(x0, LEFT);
+        x1 = Math.min(x1, LEFT+plotWidth);
+        if (x0>=x1) {
+            return;
+        }
+        int n = dataset.size();
+        int first = Math.max((int) Math.floor((x0-LEFT)*n/plotWidth)-1, 0);
+        int last = Math.min((int) Math.ceil((x1-LEFT)*n/plotWidth)+1, n-1);
+        gc.save();
+        gc.beginPath();
+        gc.rect(x0, TOP, x1-x0, plotHeight);
+        gc.clip();
+        gc.setFill(Color.WHITE);
+        gc.fillRect(x0, TOP, x1-x0, plotHeight);
+        if (kind!=Kind.HEATMAP) {
+            gc.setStroke(GRID_COLOR);
+            gc.setLineWidth(1);
+            for (double tick=min; tick<=max+tickStep/2; tick+=tickStep) {
+                double y = Math.floor(getY(tick))+0.5;
+                gc.strokeLine(x0, y, x1, y);
+            }
+        }
+        switch (kind) {
+            case BAR:
+                drawBars(gc, first, last);
+                break;
+            case LINE:
+                drawLines(gc, first, last);
+                break;
+            case HEATMAP:
+                drawHeatmap(gc, first, last);
+                break;
+        }
+        if (hovered>=first && hovered<=last) {
+            gc.setFill(HOVER_COLOR);
+            gc.fillRect(getColumnX(hovered), TOP, Math.max(getColumnX(hovered+1)-getColumnX(hovered), 1), plotHeight);
+        }
+        gc.restore();
+    }
+
+    private void drawBars(GraphicsContext gc, int first, int last) {
+        for (int i=first; i<=last; i++) {
+            double x = getColumnX(i);
+            double width = getColumnX(i+1)-x;
+            double gap = (width>4) ? width*0.15 : 0;
+            double stacked = 0;
+            for (int s=0; s<dataset.getSeriesCount(); s++) {
+                double value = dataset.getValue(s, i);
+                if (value<=0) {
+                    continue;
+                }
+                double y0 = getY(stacked);
+                stacked += value;
+                double y1 = getY(stacked);
+                gc.setFill(getColor(s));
+                gc.fillRect(x+gap, y1, Math.max(width-2*gap, 1), y0-y1);
+            }
+        }
+    }
+
+    private void drawLines(GraphicsContext gc, int first, int last) {
+        gc.setLineWidth(2);
+        for (int s=0; s<dataset.getSeriesCount(); s++) {
+            gc.setStroke(getColor(s));
+            gc.beginPath();
+            boolean started = false;
+            int[] indices = lineIndices[s];
+            int from = Arrays.binarySearch(indices, first);
+            from = Math.max(((from<0) ? -from-1 : from)-1, 0); // the point before connects into the range
+            for (int j=from; j<indices.length; j++) {
+                double x = (getColumnX(indices[j])+getColumnX(indices[j]+1))/2;
+                double y = getY(dataset.getValue(s, indices[j]));
+                if (started) {
+                    gc.lineTo(x, y);
+                } else {
+                    gc.moveTo(x, y);
+                    started = true;
+                }
+                if (indices[j]>last) {
+                    break;
+                }
+            }
+            gc.stroke();
+        }
+    }
+
+    private void drawHeatmap(GraphicsContext gc, int first, int last) {
+        double rowHeight = getPlotHeight()/dataset.getSeriesCount();
+        for (int i=first; i<=last; i++) {
+            double x = getColumnX(i);
+            double width = getColumnX(i+1)-x;
+            for (int s=0; s<dataset.getSeriesCount(); s++) {
+                double intensity = (max>0) ? Math.max(dataset.getValue(s, i), 0)/max : 0;
+                gc.setFill(Color.WHITE.interpolate(COLORS[0], intensity));
+                gc.fillRect(x, TOP+getPlotHeight()-(s+1)*rowHeight, Math.max(width, 1), rowHeight);
+            }
+        }
+    }
+
+    /**
+     * Finds the hovered value and shows its tooltip.
+     * @param event Mouse event
+     */
+    private void onMouseMoved(MouseEvent event) {
+        if (dataset==null || dataset.size()==0) {
+            return;
+        }
+        double plotWidth = getPlotWidth();
+        double plotHeight = getPlotHeight();
+        if (event.getX()<LEFT || event.getX()>=LEFT+plotWidth || event.getY()<TOP || event.getY()>=TOP+plotHeight) {
+            setHovered(-1, -1);
+            tooltip.hide();
+            return;
+        }
+        int i = Math.min((int) ((event.getX()-LEFT)*dataset.size()/plotWidth), dataset.size()-1);
+        int series = (kind==Kind.HEATMAP) ?
+                Math.min((int) ((TOP+plotHeight-event.getY())*dataset.getSeriesCount()/plotHeight), dataset.getSeriesCount()-1) :
+                -1;
+        setHovered(i, series);
+        tooltip.setText(getTooltipText(i, series));
+        if (tooltip.isShowing()) {
+            tooltip.setAnchorX(event.getScreenX()+12);
+            tooltip.setAnchorY(event.getScreenY()+12);
+        } else {
+            tooltip.show(this, event.getScreenX()+12, event.getScreenY()+12);
+        }
+    }
+
+    /**
+     * Changes the hovered value, redraws only the affected columns.
+     * @param i         Hovered value, -1 if none
+     * @param series    Hovered heatmap series, -1 if none
+     */
+    private void setHovered(int i, int series) {
+        if (i==hovered && series==hoveredSeries) {
+            return;
+        }
+        int previous = hovered;
+        hovered = i;
+        hoveredSeries = series;
+        if (dataset==null || canvas.getWidth()<=LEFT+RIGHT || canvas.getHeight()<=TOP+BOTTOM) {
+            return;
+        }
+        if (previous!=-1 && previous!=i) {
+            drawPlot(Math.floor(getColumnX(previous))-1, Math.ceil(getColumnX(previous+1))+1);
+        }
+        if (i!=-1) {
+            drawPlot(Math.floor(getColumnX(i))-1, Math.ceil(getColumnX(i+1))+1);
+        }
+    }
+
+    private String getTooltipText(int i, int series) {
+        StringBuilder text = new StringBuilder(dataset.getCategory(i));
+        for (int s=0; s<dataset.getSeriesCount(); s++) {
+            if (series!=-1 && s!=series) {
+                continue;
+            }
+            text.append('\n');
+            if (dataset.getSeriesName(s)!=null) {
+                text.append(dataset.getSeriesName(s)).append(": ");
+            }
+            text.append(format.apply(dataset.getValue(s, i)));
+        }
+        return text.toString();
+    }
+
+    private String getSeriesName(int series) {
+        String name = dataset.getSeriesName(series);
+        return (name!=null) ? name : "";
+    }
+
+    private static Color getColor(int series) {
+        return COLORS[series%COLORS.length];
+    }
+
+    /**
+     * Represents a kind of the chart.
+     */
+    public static enum Kind {
+        BAR, LINE, HEATMAP
+    }
+
+}
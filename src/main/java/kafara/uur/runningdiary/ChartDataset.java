@@ -0,0 +1,135 @@
+package kafara.uur.runningdiary;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Represents computed chart data.
+ * - immutable, can be computed outside the FX thread and applied on it afterwards
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class ChartDataset {
+
+    /** Data depend on activities from ... */
+    private final LocalDate from;
+    /** Data depend on activities to ... */
+    private final LocalDate to;
+    /** Label of the category axis */
+    private final String xAxisLabel;
+    /** Data categories (bars, pie slices) */
+    private final String[] categories;
+    /** Positions of the categories on a numeric axis (epoch days), null if categorical only */
+    private final double[] xValues;
+    /** Series names, null if there is a single unnamed series */
+    private final String[] seriesNames;
+    /** Values of the categories by series */
+    private final double[][] values;
+
+    /**
+     * Creates chart data computed from the activities in date range from-to.
+     * @param from          From
+     * @param to            To
+     * @param xAxisLabel    Label of the category axis
+     * @param categories    Data categories
+     * @param values        Values of the categories
+     */
+    public ChartDataset(LocalDate from, LocalDate to, String xAxisLabel, String[] categories, double[] values) {
+        this(from, to, xAxisLabel, categories, null, null, new double[][] {values});
+    }
+
+    /**
+     * Creates chart data positioned on a numeric axis computed from the activities in date range from-to.
+     * @param from          From
+     * @param to            To
+     * @param xAxisLabel    Label of the axis
+     * @param categories    Data categories
+     * @param xValues       Positions of the categories, ascending, null if categorical only
+     * @param seriesNames   Series names, null if there is a single unnamed series
+     * @param values        Values of the categories by series
+     */
+    public ChartDataset(LocalDate from, LocalDate to, String xAxisLabel, String[] categories, double[] xValues, String[] seriesNames, double[][] values) {
+        this.from = from;
+        this.to = to;
+        this.xAxisLabel = xAxisLabel;
+        this.categories = categories;
+        this.xValues = xValues;
+        this.seriesNames = seriesNames;
+        this.values = values;
+    }
+
+    /**
+     * Determines whether the data depend on activities of the date.
+     * @param date  Date
+     * @return      True, if the date is in the data date range, else false
+     */
+    public boolean contains(LocalDate date) {
+        return date.compareTo(from)>=0 && date.compareTo(to)<=0;
+    }
+
+    /**
+     * Determines whether the data have the same categories.
+     * @param dataset   Other data, may be null
+     * @return          True, if the categories are equal, else false
+     */
+    public boolean hasCategoriesOf(ChartDataset dataset) {
+        return dataset!=null && Arrays.equals(categories, dataset.categories);
+    }
+
+    /**
+     * @return  Last date the data depend on
+     */
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public String getXAxisLabel() {
+        return xAxisLabel;
+    }
+
+    public int size() {
+        return categories.length;
+    }
+
+    public String getCategory(int i) {
+        return categories[i];
+    }
+
+    public double getValue(int i) {
+        return values[0][i];
+    }
+
+    public int getSeriesCount() {
+        return values.length;
+    }
+
+    public String getSeriesName(int series) {
+        return (seriesNames!=null) ? seriesNames[series] : null;
+    }
+
+    public double getValue(int series, int i) {
+        return values[series][i];
+    }
+
+    /**
+     * @return  True, if the categories are positioned on a numeric axis, else false
+     */
+    public boolean isContinuous() {
+        return xValues!=null;
+    }
+
+    /**
+     * Selects at most max categories preserving the shape of the series.
+     * @param series    Series
+     * @param max       Maximal count of the categories, at least 3
+     * @return          Indices of the selected categories
+     */
+    public int[] downsample(int series, int max) {
+        return Downsampler.largestTriangleThreeBuckets(xValues, values[series], max);
+    }
+
+    public double getX(int i) {
+        return xValues[i];
+    }
+
+}
@@ -0,0 +1,167 @@
+package kafara.uur.runningdiary;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.time.LocalDate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Represents a run activity value summed by day.
+ * - a dense array indexed by the epoch day offset, a day is read in O(1)
+ * - an added or removed activity changes only its day, the first and last days shrink when their activities are removed
+ * - the array is guarded by the instance lock, the heatmap reads it while the list may change
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class DailyValues {
+
+    /** Summed activity value */
+    private final ToDoubleFunction<Run> value;
+    /** Epoch day of the first day of the array */
+    private long firstDay;
+    /** Values by day */
+    private double[] days = new double[0];
+    /** Activity counts by day, a day with no activity does not bound the recorded days */
+    private int[] counts = new int[0];
+    /** Epoch days of the first and the last recorded activity */
+    private long minDay = Long.MAX_VALUE, maxDay = Long.MIN_VALUE;
+    /** Maximal day value, NaN if it has to be recomputed */
+    private double max = 0;
+    /** Incremented with every change of the values */
+    private final IntegerProperty version = new SimpleIntegerProperty(0);
+
+    public DailyValues(ObservableList<Run> allRuns, ToDoubleFunction<Run> value) {
+        this.value = value;
+        for (Run run : allRuns) {
+            add(run, 1);
+        }
+        allRuns.addListener((ListChangeListener<Run>) c -> {
+            while (c.next()) {
+                for (Run run : c.getRemoved()) {
+                    add(run, -1);
+                }
+                for (Run run : c.getAddedSubList()) {
+                    add(run, 1);
+                }
+            }
+            version.set(version.get()+1);
+        });
+    }
+
+    /**
+     * Adds the activity value to its day.
+     * - the array is extended by at least its length, so the copies are rare
+     * @param run   Run activity
+     * @param sign  1 to add, -1 to remove
+     */
+    private synchronized void add(Run run, int sign) {
+        long day = run.getDate().toEpochDay();
+        if (days.length==0) {
+            firstDay = day;
+            days = new double[366];
+            counts = new int[366];
+        } else if (day<firstDay) {
+            int shift = (int) Math.max(firstDay-day, days.length);
+            days = extend(days, shift, days.length+shift);
+            counts = extend(counts, shift, counts.length+shift);
+            firstDay -= shift;
+        } else if (day-firstDay>=days.length) {
+            int length = (int) Math.max(day-firstDay+1, 2L*days.length);
+            days = extend(days, 0, length);
+            counts = extend(counts, 0, length);
+        }
+        int i = (int) (day-firstDay);
+        days[i] += sign*value.applyAsDouble(run);
+        counts[i] += sign;
+        if (counts[i]==0) {
+            days[i] = 0; // no rounding residue of removed activities
+        }
+        max = (sign>0 && ! Double.isNaN(max)) ? Math.max(max, days[i]) : Double.NaN;
+        if (sign>0) {
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+        } else if (counts[i]==0 && (day==minDay || day==maxDay)) {
+            updateBounds();
+        }
+    }
+
+    /**
+     * Moves the first and the last recorded day to the nearest days with an activity.
+     * - called only when an edge day becomes empty
+     */
+    private void updateBounds() {
+        int first = (int) (minDay-firstDay), last = (int) (maxDay-firstDay);
+        while (first<=last && counts[first]==0) {
+            first++;
+        }
+        while (last>=first && counts[last]==0) {
+            last--;
+        }
+        if (first>last) {
+            minDay = Long.MAX_VALUE;
+            maxDay = Long.MIN_VALUE;
+        } else {
+            minDay = firstDay+first;
+            maxDay = firstDay+last;
+        }
+    }
+
+    private static double[] extend(double[] array, int shift, int length) {
+        double[] extended = new double[length];
+        System.arraycopy(array, 0, extended, shift, array.length);
+        return extended;
+    }
+
+    private static int[] extend(int[] array, int shift, int length) {
+        int[] extended = new int[length];
+        System.arraycopy(array, 0, extended, shift, array.length);
+        return extended;
+    }
+
+    /**
+     * @param date  Day
+     * @return      Summed value of the activities of the day
+     */
+    public synchronized double get(LocalDate date) {
+        long i = date.toEpochDay()-firstDay;
+        return (i>=0 && i<days.length) ? days[(int) i] : 0;
+    }
+
+    /**
+     * @return  Day of the first recorded activity, null if there are none
+     */
+    public synchronized LocalDate getFirstDate() {
+        return (minDay!=Long.MAX_VALUE) ? LocalDate.ofEpochDay(minDay) : null;
+    }
+
+    /**
+     * @return  Day of the last recorded activity, null if there are none
+     */
+    public synchronized LocalDate getLastDate() {
+        return (maxDay!=Long.MIN_VALUE) ? LocalDate.ofEpochDay(maxDay) : null;
+    }
+
+    /**
+     * @return  Maximal summed value of a day
+     */
+    public synchronized double getMax() {
+        if (Double.isNaN(max)) {
+            max = 0;
+            for (double day : days) {
+                max = Math.max(max, day);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return  Incremented with every change of the values
+     */
+    public IntegerProperty versionProperty() {
+        return version;
+    }
+
+}
@@ -0,0 +1,201 @@
+package kafara.uur.runningdiary;
+
+import javafx.collections.ListChangeListener;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents a change of the recorded activities, as delivered to the subscribers of the diary changes.
+ * - added, removed and replaced (edited) activities, and the date range the change touches
+ * - immutable, changes are coalesced by the builder into a single net change
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class DiaryChange {
+
+    private final List<Run> added;
+    private final List<Run> removed;
+    /** Replacing activities by replaced activity */
+    private final Map<Run, Run> replaced;
+    /** First and last day of the changed activities (all versions), null if empty */
+    private final LocalDate from, to;
+    /** Count of the list changes coalesced into this change */
+    private final int changesCount;
+
+    private DiaryChange(List<Run> added, List<Run> removed, Map<Run, Run> replaced, int changesCount) {
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+        this.replaced = Collections.unmodifiableMap(replaced);
+        this.changesCount = changesCount;
+        LocalDate from = null, to = null;
+        for (Run run : added) {
+            from = min(from, run.getDate());
+            to = max(to, run.getDate());
+        }
+        for (Run run : removed) {
+            from = min(from, run.getDate());
+            to = max(to, run.getDate());
+        }
+        for (Map.Entry<Run, Run> entry : replaced.entrySet()) {
+            from = min(min(from, entry.getKey().getDate()), entry.getValue().getDate());
+            to = max(max(to, entry.getKey().getDate()), entry.getValue().getDate());
+        }
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Reads the change of the activities list.
+     * - a sub-change replacing as many activities as it removes is read as replacements, position by position
+     * @param c Change of the activities list
+     * @return  Change
+     */
+    public static DiaryChange of(ListChangeListener.Change<? extends Run> c) {
+        Builder builder = new Builder();
+        while (c.next()) {
+            List<? extends Run> removedRuns = c.getRemoved();
+            List<? extends Run> addedRuns = c.getAddedSubList();
+            if (c.wasReplaced() && removedRuns.size()==addedRuns.size()) {
+                for (int i=0; i<removedRuns.size(); i++) {
+                    builder.replace(removedRuns.get(i), addedRuns.get(i));
+                }
+                continue;
+            }
+            removedRuns.forEach(builder::remove);
+            addedRuns.forEach(builder::add);
+        }
+        builder.changesCount = 1;
+        return builder.build();
+    }
+
+    public List<Run> getAdded() {
+        return added;
+    }
+
+    public List<Run> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return  Replacing activities by replaced activity
+     */
+    public Map<Run, Run> getReplaced() {
+        return replaced;
+    }
+
+    /**
+     * @return  First day of the changed activities, null if empty
+     */
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    /**
+     * @return  Last day of the changed activities, null if empty
+     */
+    public LocalDate getTo() {
+        return to;
+    }
+
+    /**
+     * @return  Count of the list changes coalesced into this change
+     */
+    public int getChangesCount() {
+        return changesCount;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && replaced.isEmpty();
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return (a==null || b.isBefore(a)) ? b : a;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return (a==null || b.isAfter(a)) ? b : a;
+    }
+
+    /**
+     * Represents a change being coalesced.
+     * - an activity added and removed again is dropped, a removed activity added again is kept
+     * - successive edits of an activity are a single replacement of the original version
+     */
+    public static class Builder {
+
+        private final Set<Run> added = new LinkedHashSet<>();
+        private final Set<Run> removed = new LinkedHashSet<>();
+        /** Latest versions by replaced activity */
+        private final Map<Run, Run> replaced = new LinkedHashMap<>();
+        /** Replaced activities by their latest version */
+        private final Map<Run, Run> originals = new HashMap<>();
+        private int changesCount = 0;
+
+        /**
+         * Coalesces the following change.
+         * @param change    Change
+         * @return          This builder
+         */
+        public Builder add(DiaryChange change) {
+            change.removed.forEach(this::remove);
+            change.replaced.forEach(this::replace);
+            change.added.forEach(this::add);
+            changesCount += change.changesCount;
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return added.isEmpty() && removed.isEmpty() && replaced.isEmpty();
+        }
+
+        /**
+         * @return  Coalesced change
+         */
+        public DiaryChange build() {
+            return new DiaryChange(List.copyOf(added), List.copyOf(removed), new LinkedHashMap<>(replaced), changesCount);
+        }
+
+        private void add(Run run) {
+            if (! removed.remove(run)) {
+                added.add(run);
+            }
+        }
+
+        private void remove(Run run) {
+            if (added.remove(run)) {
+                return;
+            }
+            Run original = originals.remove(run);
+            if (original!=null) {
+                replaced.remove(original);
+                run = original;
+            }
+            removed.add(run);
+        }
+
+        private void replace(Run oldRun, Run newRun) {
+            if (added.remove(oldRun)) {
+                added.add(newRun);
+                return;
+            }
+            Run original = originals.remove(oldRun);
+            if (original==null) {
+                original = oldRun;
+            }
+            if (original==newRun) {
+                replaced.remove(original);
+                return;
+            }
+            replaced.put(original, newRun);
+            originals.put(newRun, original);
+        }
+    }
+
+}
@@ -0,0 +1,213 @@
+package kafara.uur.runningdiary;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Represents the stream of the changes of the recorded activities.
+ * - a subscriber is signalled on its own executor, the (FX) thread changing the activities only coalesces the change
+ * - a subscriber gets a change per requested item, the changes made meanwhile are coalesced into a single pending
+ *   change, so a slow subscriber never stalls editing and is never buffered more than the net change
+ * - a change of the activities list is delivered as a single change
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class DiaryChangePublisher implements Flow.Publisher<DiaryChange>, AutoCloseable {
+
+    private final List<ChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private volatile boolean closed = false;
+
+    /**
+     * @param allRuns   All recorded activities
+     */
+    public DiaryChangePublisher(ObservableList<Run> allRuns) {
+        allRuns.addListener((ListChangeListener<Run>) c -> {
+            if (subscriptions.isEmpty()) {
+                return;
+            }
+            DiaryChange change = DiaryChange.of(c);
+            if (change.isEmpty()) {
+                return;
+            }
+            for (ChangeSubscription subscription : subscriptions) {
+                subscription.offer(change);
+            }
+        });
+    }
+
+    /**
+     * Subscribes the subscriber, signalled in the common pool.
+     * @param subscriber    Subscriber
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super DiaryChange> subscriber) {
+        subscribe(subscriber, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Subscribes the subscriber.
+     * @param subscriber    Subscriber
+     * @param executor      Executor of the signals of the subscriber, a single signal runs at a time
+     */
+    public void subscribe(Flow.Subscriber<? super DiaryChange> subscriber, Executor executor) {
+        ChangeSubscription subscription = new ChangeSubscription(subscriber, executor);
+        if (closed) {
+            subscription.complete();
+            return;
+        }
+        subscriptions.add(subscription);
+        subscription.signal();
+    }
+
+    /**
+     * Completes the subscriptions, after their pending changes are delivered.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (ChangeSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Represents a subscription, the signals are serialized on the executor of the subscriber.
+     */
+    private class ChangeSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super DiaryChange> subscriber;
+        private final Executor executor;
+
+        /** Changes not delivered yet, null if none */
+        private DiaryChange.Builder pending = null;
+        private long demand = 0;
+        private boolean subscribed = false;
+        private boolean completed = false;
+        private boolean cancelled = false;
+        /** Error to be signalled, null if none */
+        private Throwable error = null;
+        /** Determines whether the signals are being run on the executor */
+        private boolean running = false;
+
+        private ChangeSubscription(Flow.Subscriber<? super DiaryChange> subscriber, Executor executor) {
+            this.subscriber = subscriber;
+            this.executor = executor;
+        }
+
+        private synchronized void offer(DiaryChange change) {
+            if (cancelled || completed) {
+                return;
+            }
+            if (pending==null) {
+                pending = new DiaryChange.Builder();
+            }
+            pending.add(change);
+            signal();
+        }
+
+        private synchronized void complete() {
+            completed = true;
+            signal();
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (cancelled) {
+                return;
+            }
+            if (n<=0) {
+                error = new IllegalArgumentException("Requested count must be positive.");
+            } else {
+                demand = (demand+n<0) ? Long.MAX_VALUE : demand+n;
+            }
+            signal();
+        }
+
+        @Override
+        public synchronized void cancel() {
+            cancelled = true;
+            pending = null;
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Runs the signals on the executor unless they are running.
+         */
+        private synchronized void signal() {
+            if (running || cancelled) {
+                return;
+            }
+            boolean ready = ! subscribed || error!=null || (demand>0 && pending!=null) || (completed && pending==null);
+            if (! ready) {
+                return;
+            }
+            running = true;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                running = false;
+                cancel();
+            }
+        }
+
+        /**
+         * Signals the subscriber until there is nothing to signal.
+         */
+        @Override
+        public void run() {
+            while (true) {
+                DiaryChange change = null;
+                Throwable failure = null;
+                boolean subscribing = false;
+                boolean completing = false;
+                synchronized (this) {
+                    if (cancelled) {
+                        running = false;
+                        return;
+                    }
+                    if (! subscribed) {
+                        subscribed = true;
+                        subscribing = true;
+                    } else if (error!=null) {
+                        failure = error;
+                        cancel();
+                    } else if (demand>0 && pending!=null) {
+                        change = pending.build();
+                        pending = null;
+                        demand--;
+                    } else if (completed && pending==null) {
+                        completing = true;
+                        cancel();
+                    } else {
+                        running = false;
+                        return;
+                    }
+                }
+                try {
+                    if (subscribing) {
+                        subscriber.onSubscribe(this);
+                    } else if (failure!=null) {
+                        subscriber.onError(failure);
+                    } else if (completing) {
+                        subscriber.onComplete();
+                    } else {
+                        subscriber.onNext(change);
+                    }
+                } catch (Throwable e) {
+                    cancel();
+                    if (! subscribing && failure==null && ! completing) {
+                        subscriber.onError(e);
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package kafara.uur.runningdiary;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Represents the flight recorder events of the diary operations.
+ * - the events are recorded with their thread and duration, a recording shows which operation blocked the FX thread
+ * - enabled by the runningdiary.jfc profile, an event is only committed if enabled (cheap otherwise)
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class DiaryEvents {
+
+    private static final String CATEGORY = "Running Diary";
+
+    private DiaryEvents() {}
+
+    @Name("kafara.uur.runningdiary.FileLoad")
+    @Label("Diary File Load")
+    @Category({CATEGORY, "File"})
+    @Description("Activities were loaded from the save file")
+    public static class FileLoadEvent extends Event {
+        @Label("Path")
+        public String path;
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+        @Label("Activities")
+        public int runs;
+    }
+
+    @Name("kafara.uur.runningdiary.FileSave")
+    @Label("Diary File Save")
+    @Category({CATEGORY, "File"})
+    @Description("Activities were written to the save file")
+    public static class FileSaveEvent extends Event {
+        @Label("Path")
+        public String path;
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+        @Label("Activities")
+        public int runs;
+    }
+
+    @Name("kafara.uur.runningdiary.RunsSetUpdate")
+    @Label("Runs Set Update")
+    @Category({CATEGORY, "Aggregation"})
+    @Description("A set of activities of a date range was updated with a change of the activities")
+    public static class RunsSetUpdateEvent extends Event {
+        @Label("From")
+        public String from;
+        @Label("To")
+        public String to;
+        @Label("Removed")
+        public int removed;
+        @Label("Added")
+        public int added;
+        @Label("Activities")
+        public int size;
+    }
+
+    @Name("kafara.uur.runningdiary.HistoryTreeUpdate")
+    @Label("History Tree Update")
+    @Category({CATEGORY, "UI"})
+    @Description("The history tree was patched with a change of the activities or regrouped")
+    public static class HistoryTreeUpdateEvent extends Event {
+        @Label("Regrouped")
+        @Description("True if the whole tree was regrouped, false if the changed activities were patched")
+        public boolean regrouped;
+        @Label("Removed")
+        public int removed;
+        @Label("Added")
+        public int added;
+    }
+
+    @Name("kafara.uur.runningdiary.ChartDatasetBuild")
+    @Label("Chart Dataset Build")
+    @Category({CATEGORY, "Statistics"})
+    @Description("Data of a statistics chart were computed")
+    public static class ChartDatasetBuildEvent extends Event {
+        @Label("Data")
+        public String data;
+        @Label("Timeframe")
+        public String timeframe;
+    }
+
+    @Name("kafara.uur.runningdiary.ChartBuild")
+    @Label("Chart Build")
+    @Category({CATEGORY, "Statistics"})
+    @Description("A statistics chart was filled with computed data")
+    public static class ChartBuildEvent extends Event {
+        @Label("Data")
+        public String data;
+        @Label("Categories")
+        public int categories;
+    }
+
+    @Name("kafara.uur.runningdiary.RunActivitySave")
+    @Label("Run Activity Save")
+    @Category({CATEGORY, "UI"})
+    @Description("An activity was saved from its tab")
+    public static class RunActivitySaveEvent extends Event {
+        @Label("New")
+        @Description("True if the activity was created, false if it was edited")
+        public boolean created;
+        @Label("Segments")
+        public int segments;
+    }
+
+    @Name("kafara.uur.runningdiary.RepositoryDrain")
+    @Label("Repository Drain")
+    @Category({CATEGORY, "Repository"})
+    @Description("Queued mutations of the activities were applied on the FX thread as a single change")
+    public static class RepositoryDrainEvent extends Event {
+        @Label("Mutations")
+        public int mutations;
+        @Label("Removed")
+        public int removed;
+        @Label("Replaced")
+        public int replaced;
+        @Label("Added")
+        public int added;
+    }
+
+}
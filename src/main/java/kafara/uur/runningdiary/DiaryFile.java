@@ -0,0 +1,105 @@
+package kafara.uur.runningdiary;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Represents the save file format of the diary.
+ * - line-based, an activity is its label, type, epoch day, segments count, segments (duration [s], distance, HR,
+ *   cadence, elevation), terrain, evaluation and URL-encoded note, each on a line
+ * - independent of the application, used by the application and by the benchmarks
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class DiaryFile {
+
+    private DiaryFile() {}
+
+    /**
+     * Writes the activities to the save file.
+     * @param path  Path to save file
+     * @param runs  Activities
+     * @throws IOException
+     */
+    public static void write(Path path, Collection<Run> runs) throws IOException {
+        try (BufferedWriter bufferedWriter = Files.newBufferedWriter(path)) {
+            for (Run run : runs) {
+                bufferedWriter.write(run.getLabel()!=null ? run.getLabel() : "");                   bufferedWriter.newLine();
+                bufferedWriter.write(run.getType().toString());                                     bufferedWriter.newLine();
+                bufferedWriter.write(""+run.getDate().toEpochDay());                            bufferedWriter.newLine();
+                bufferedWriter.write(""+run.getSegments().size());                              bufferedWriter.newLine();
+                for (Run.Segment segment : run.getSegments()) {
+                    bufferedWriter.write(""+segment.getDuration().toSecondOfDay());             bufferedWriter.newLine();
+                    bufferedWriter.write(""+segment.getDistance());                             bufferedWriter.newLine();
+                    bufferedWriter.write(""+segment.getHr());                                   bufferedWriter.newLine();
+                    bufferedWriter.write(""+segment.getCadence());                              bufferedWriter.newLine();
+                    bufferedWriter.write(""+segment.getElevation());                            bufferedWriter.newLine();
+                }
+                bufferedWriter.write(run.getTerrain()!=null ? run.getTerrain().toString() : "");    bufferedWriter.newLine();
+                bufferedWriter.write(""+run.getEvaluation());                                   bufferedWriter.newLine();
+                bufferedWriter.write(
+                        run.getNote()!=null ?
+                                URLEncoder.encode(run.getNote(), StandardCharsets.UTF_8) : ""
+                );                                                                                  bufferedWriter.newLine();
+            }
+        }
+    }
+
+    /**
+     * Reads the activities from the save file.
+     * @param path  Path to save file
+     * @return      Activities in file order
+     * @throws IOException
+     */
+    public static List<Run> read(Path path) throws IOException {
+        try (BufferedReader bufferedReader = Files.newBufferedReader(path)) {
+            List<Run> runs = new ArrayList<>();
+            String label;
+            while ((label=bufferedReader.readLine()) != null) {
+                if (label.equals("")) {
+                    label = null;
+                }
+                String typeString = bufferedReader.readLine();
+                Run.Type type = Arrays.stream(Run.Type.values())
+                                    .filter(t -> t.toString().equals(typeString))
+                                    .findFirst().orElse(null);
+                LocalDate date = LocalDate.ofEpochDay(Long.parseLong(bufferedReader.readLine()));
+                List<Run.Segment> segments = new ArrayList<>();
+                LocalTime duration; double distance; int hr; int cadence; int elevation;
+                int segmentsCount = Integer.parseInt(bufferedReader.readLine());
+                for (int i=0; i<segmentsCount; i++) {
+                    duration = LocalTime.ofSecondOfDay(Long.parseLong(bufferedReader.readLine()));
+                    distance = Double.parseDouble(bufferedReader.readLine());
+                    hr = Integer.parseInt(bufferedReader.readLine());
+                    cadence = Integer.parseInt(bufferedReader.readLine());
+                    elevation = Integer.parseInt(bufferedReader.readLine());
+                    segments.add(new Run.Segment(duration, distance, hr, cadence, elevation));
+                }
+                String terrainString = bufferedReader.readLine();
+                Run.Terrain terrain = Arrays.stream(Run.Terrain.values())
+                                        .filter(t -> t.toString().equals(terrainString))
+                                        .findFirst().orElse(null);
+                int evaluation = Integer.parseInt(bufferedReader.readLine());
+                String note = URLDecoder.decode(bufferedReader.readLine(), StandardCharsets.UTF_8);
+                if (note.equals("")) {
+                    note = null;
+                }
+                runs.add(new Run(label, type, date, segments, terrain, evaluation, note));
+            }
+            return runs;
+        }
+    }
+
+}
@@ -0,0 +1,545 @@
+package kafara.uur.runningdiary;
+
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Represents the undo/redo history of the activity changes.
+ * - a bounded log of commands, the oldest commands are dropped
+ * - an added or deleted activity is kept by reference, an edit keeps the edited activity and a diff of the versions
+ * - a command is a single change of (background-)list, a bulk command too, the derived views and indexes are patched
+ *   by their listeners once
+ * - an edit rebuilds the other version of the activity, the commands are pointed to the activity in the list
+ *   with every edit, undo and redo
+ * - if an activity of the undone (redone) command is not in the list anymore (changed outside the history),
+ *   nothing is changed and the history is cleared
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class DiaryHistory {
+
+    /** Default maximal count of commands */
+    public static final int DEFAULT_MAX_SIZE = 100;
+
+    /** All recorded activities */
+    private final DiaryList allRuns;
+    /** Maximal count of undoable commands */
+    private final int maxSize;
+    /** Undoable commands, the latest first */
+    private final Deque<Command> undoCommands = new ArrayDeque<>();
+    /** Redoable commands, the latest undone first */
+    private final Deque<Command> redoCommands = new ArrayDeque<>();
+    private final ReadOnlyBooleanWrapper canUndo = new ReadOnlyBooleanWrapper(false);
+    private final ReadOnlyBooleanWrapper canRedo = new ReadOnlyBooleanWrapper(false);
+    /** Called with the replaced and the replacing activity by undo, redo and bulk commands, null if added or removed */
+    private BiConsumer<Run, Run> onReplaced = (oldRun, newRun) -> {};
+
+    public DiaryHistory(DiaryList allRuns) {
+        this(allRuns, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param allRuns   All recorded activities
+     * @param maxSize   Maximal count of undoable commands
+     */
+    public DiaryHistory(DiaryList allRuns, int maxSize) {
+        this.allRuns = allRuns;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Records the activity.
+     * @param run   New activity
+     */
+    public void add(Run run) {
+        allRuns.add(run);
+        push(new AddCommand(run));
+    }
+
+    /**
+     * Deletes the activity.
+     * @param run   Recorded activity
+     */
+    public void delete(Run run) {
+        int index = allRuns.indexOf(run);
+        if (index==-1) {
+            return;
+        }
+        allRuns.remove(index);
+        push(new DeleteCommand(run, index));
+    }
+
+    /**
+     * Replaces the activity with its edited version, in place.
+     * - if the activity is not recorded (anymore), the edited version is recorded as a new activity
+     * @param oldRun    Recorded activity
+     * @param newRun    Edited activity
+     */
+    public void replace(Run oldRun, Run newRun) {
+        int index = allRuns.indexOf(oldRun);
+        if (index==-1) {
+            add(newRun);
+            return;
+        }
+        allRuns.set(index, newRun);
+        replaceInCommands(Map.of(oldRun, newRun));
+        push(new ReplaceCommand(newRun, RunPatch.diff(oldRun, newRun)));
+    }
+
+    /**
+     * Replaces the activities with their edited versions, in place, as a single change.
+     * @param replacements  Edited activities by recorded activity
+     */
+    public void replaceAll(Map<Run, Run> replacements) {
+        List<Run> replaced = allRuns.replace(replacements);
+        if (replaced.isEmpty()) {
+            return;
+        }
+        List<Run> edited = new ArrayList<>(replaced.size());
+        List<RunPatch> patches = new ArrayList<>(replaced.size());
+        for (Run run : replaced) {
+            Run newRun = replacements.get(run);
+            edited.add(newRun);
+            patches.add(RunPatch.diff(run, newRun));
+            onReplaced.accept(run, newRun);
+        }
+        replaceInCommands(replacements);
+        push(new BulkReplaceCommand(edited, patches));
+    }
+
+    /**
+     * Deletes the activities as a single change.
+     * @param runs  Recorded activities
+     */
+    public void deleteAll(Collection<Run> runs) {
+        Set<Run> deleted = new HashSet<>(runs);
+        deleted.retainAll(new HashSet<>(allRuns));
+        if (deleted.isEmpty()) {
+            return;
+        }
+        allRuns.removeAll(deleted);
+        deleted.forEach(run -> onReplaced.accept(run, null));
+        push(new BulkDeleteCommand(List.copyOf(deleted)));
+    }
+
+    /**
+     * Deletes, replaces and adds the activities as a single change, e.g. a batch of queued mutations.
+     * @param removed   Recorded activities to be deleted, not recorded ones are ignored
+     * @param replaced  Edited activities by recorded activity, not recorded ones are ignored
+     * @param added     New activities
+     */
+    public void update(Set<Run> removed, Map<Run, Run> replaced, Collection<Run> added) {
+        Set<Run> deleted = new HashSet<>(removed);
+        Map<Run, Run> replacements = new HashMap<>(replaced);
+        if (! deleted.isEmpty() || ! replacements.isEmpty()) {
+            Set<Run> recorded = new HashSet<>(allRuns);
+            deleted.retainAll(recorded);
+            replacements.keySet().retainAll(recorded);
+        }
+        if (deleted.isEmpty() && replacements.isEmpty() && added.isEmpty()) {
+            return;
+        }
+        allRuns.update(deleted, replacements, added);
+        List<Run> edited = new ArrayList<>(replacements.size());
+        List<RunPatch> patches = new ArrayList<>(replacements.size());
+        for (Map.Entry<Run, Run> entry : replacements.entrySet()) {
+            edited.add(entry.getValue());
+            patches.add(RunPatch.diff(entry.getKey(), entry.getValue()));
+            onReplaced.accept(entry.getKey(), entry.getValue());
+        }
+        deleted.forEach(run -> onReplaced.accept(run, null));
+        replaceInCommands(replacements);
+        push(new BulkUpdateCommand(deleted, edited, patches, added));
+    }
+
+    /**
+     * Reverts the latest command.
+     * - the history is cleared if the command cannot be reverted
+     */
+    public void undo() {
+        Command command = undoCommands.pollFirst();
+        if (command==null) {
+            return;
+        }
+        if (! command.undo()) {
+            clear();
+            return;
+        }
+        redoCommands.addFirst(command);
+        updateProperties();
+    }
+
+    /**
+     * Applies the latest undone command again.
+     * - the history is cleared if the command cannot be applied
+     */
+    public void redo() {
+        Command command = redoCommands.pollFirst();
+        if (command==null) {
+            return;
+        }
+        if (! command.redo()) {
+            clear();
+            return;
+        }
+        undoCommands.addFirst(command);
+        updateProperties();
+    }
+
+    /**
+     * Forgets all commands, e.g. when the activities are reloaded.
+     */
+    public void clear() {
+        undoCommands.clear();
+        redoCommands.clear();
+        updateProperties();
+    }
+
+    public ReadOnlyBooleanProperty canUndoProperty() {
+        return canUndo.getReadOnlyProperty();
+    }
+
+    public ReadOnlyBooleanProperty canRedoProperty() {
+        return canRedo.getReadOnlyProperty();
+    }
+
+    /**
+     * @param onReplaced    Called with the replaced and the replacing activity by undo, redo and bulk commands, null if added or removed
+     */
+    public void setOnReplaced(BiConsumer<Run, Run> onReplaced) {
+        this.onReplaced = onReplaced;
+    }
+
+    private void push(Command command) {
+        undoCommands.addFirst(command);
+        while (undoCommands.size()>maxSize) {
+            undoCommands.removeLast();
+        }
+        redoCommands.clear();
+        updateProperties();
+    }
+
+    private void updateProperties() {
+        canUndo.set(! undoCommands.isEmpty());
+        canRedo.set(! redoCommands.isEmpty());
+    }
+
+    /**
+     * Points the logged commands to the versions of the activities in the list.
+     * @param replacements  Replacing activities by replaced activity
+     */
+    private void replaceInCommands(Map<Run, Run> replacements) {
+        for (Command command : undoCommands) {
+            command.replace(replacements);
+        }
+        for (Command command : redoCommands) {
+            command.replace(replacements);
+        }
+    }
+
+    /**
+     * Determines whether all the activities are recorded.
+     * @param runs  Activities
+     * @return      True, if all are in the list, else false
+     */
+    private boolean areRecorded(Collection<Run> runs) {
+        if (runs.size()==1) {
+            return allRuns.contains(runs.iterator().next());
+        }
+        return new HashSet<>(allRuns).containsAll(runs);
+    }
+
+    /**
+     * Represents a reversible change of the activities.
+     */
+    private interface Command {
+
+        /**
+         * @return  True, if reverted, false if an activity is not in the list (nothing is changed)
+         */
+        boolean undo();
+
+        /**
+         * @return  True, if applied, false if an activity is not in the list (nothing is changed)
+         */
+        boolean redo();
+
+        /**
+         * Points the command to the replacing activities.
+         * @param replacements  Replacing activities by replaced activity
+         */
+        void replace(Map<Run, Run> replacements);
+    }
+
+    private class AddCommand implements Command {
+
+        private Run run;
+
+        private AddCommand(Run run) {
+            this.run = run;
+        }
+
+        @Override
+        public boolean undo() {
+            if (! allRuns.remove(run)) {
+                return false;
+            }
+            onReplaced.accept(run, null);
+            return true;
+        }
+
+        @Override
+        public boolean redo() {
+            allRuns.add(run);
+            onReplaced.accept(null, run);
+            return true;
+        }
+
+        @Override
+        public void replace(Map<Run, Run> replacements) {
+            run = replacements.getOrDefault(run, run);
+        }
+    }
+
+    private class DeleteCommand implements Command {
+
+        private Run run;
+        /** Position of the activity before it was deleted */
+        private final int index;
+
+        private DeleteCommand(Run run, int index) {
+            this.run = run;
+            this.index = index;
+        }
+
+        @Override
+        public boolean undo() {
+            allRuns.add(Math.min(index, allRuns.size()), run);
+            onReplaced.accept(null, run);
+            return true;
+        }
+
+        @Override
+        public boolean redo() {
+            if (! allRuns.remove(run)) {
+                return false;
+            }
+            onReplaced.accept(run, null);
+            return true;
+        }
+
+        @Override
+        public void replace(Map<Run, Run> replacements) {
+            run = replacements.getOrDefault(run, run);
+        }
+    }
+
+    /**
+     * Represents an edit, only the current version of the activity is kept, the other one is rebuilt from the diff.
+     */
+    private class ReplaceCommand implements Command {
+
+        /** Version of the activity in the list */
+        private Run current;
+        /** Diff of the original and the edited version */
+        private final RunPatch patch;
+
+        private ReplaceCommand(Run edited, RunPatch patch) {
+            this.current = edited;
+            this.patch = patch;
+        }
+
+        @Override
+        public boolean undo() {
+            return replaceCurrent(false);
+        }
+
+        @Override
+        public boolean redo() {
+            return replaceCurrent(true);
+        }
+
+        @Override
+        public void replace(Map<Run, Run> replacements) {
+            current = replacements.getOrDefault(current, current);
+        }
+
+        private boolean replaceCurrent(boolean apply) {
+            Run replaced = current;
+            int index = allRuns.indexOf(replaced);
+            if (index==-1) {
+                return false;
+            }
+            Run run = apply ? patch.apply(replaced) : patch.revert(replaced);
+            allRuns.set(index, run);
+            current = run;
+            replaceInCommands(Map.of(replaced, run));
+            onReplaced.accept(replaced, run);
+            return true;
+        }
+    }
+
+    /**
+     * Represents a bulk delete, the activities are restored at the end of the list.
+     */
+    private class BulkDeleteCommand implements Command {
+
+        private final List<Run> runs;
+
+        private BulkDeleteCommand(List<Run> runs) {
+            this.runs = new ArrayList<>(runs);
+        }
+
+        @Override
+        public boolean undo() {
+            allRuns.addAll(runs);
+            runs.forEach(run -> onReplaced.accept(null, run));
+            return true;
+        }
+
+        @Override
+        public boolean redo() {
+            if (! areRecorded(runs)) {
+                return false;
+            }
+            allRuns.removeAll(new HashSet<>(runs));
+            runs.forEach(run -> onReplaced.accept(run, null));
+            return true;
+        }
+
+        @Override
+        public void replace(Map<Run, Run> replacements) {
+            runs.replaceAll(run -> replacements.getOrDefault(run, run));
+        }
+    }
+
+    /**
+     * Represents a bulk edit, as the edit of each activity, replaced as a single change.
+     */
+    private class BulkReplaceCommand implements Command {
+
+        /** Versions of the activities in the list */
+        private final List<Run> current;
+        /** Diffs of the original and the edited versions */
+        private final List<RunPatch> patches;
+
+        private BulkReplaceCommand(List<Run> edited, List<RunPatch> patches) {
+            this.current = edited;
+            this.patches = patches;
+        }
+
+        @Override
+        public boolean undo() {
+            return replaceCurrent(false);
+        }
+
+        @Override
+        public boolean redo() {
+            return replaceCurrent(true);
+        }
+
+        @Override
+        public void replace(Map<Run, Run> replacements) {
+            current.replaceAll(run -> replacements.getOrDefault(run, run));
+        }
+
+        private boolean replaceCurrent(boolean apply) {
+            if (! areRecorded(current)) {
+                return false;
+            }
+            Map<Run, Run> replacements = new IdentityHashMap<>();
+            for (int i=0; i<current.size(); i++) {
+                RunPatch patch = patches.get(i);
+                replacements.put(current.get(i), apply ? patch.apply(current.get(i)) : patch.revert(current.get(i)));
+            }
+            allRuns.replace(replacements);
+            for (int i=0; i<current.size(); i++) {
+                Run replaced = current.get(i);
+                current.set(i, replacements.get(replaced));
+                onReplaced.accept(replaced, current.get(i));
+            }
+            replaceInCommands(replacements);
+            return true;
+        }
+    }
+
+    /**
+     * Represents a bulk update, a bulk delete, a bulk edit and a bulk add applied as a single change.
+     * - undone as a single change too, the deleted activities are restored at the end of the list
+     */
+    private class BulkUpdateCommand implements Command {
+
+        private final List<Run> removed;
+        /** Versions of the edited activities in the list */
+        private final List<Run> current;
+        /** Diffs of the original and the edited versions */
+        private final List<RunPatch> patches;
+        private final List<Run> added;
+
+        private BulkUpdateCommand(Collection<Run> removed, List<Run> edited, List<RunPatch> patches, Collection<Run> added) {
+            this.removed = new ArrayList<>(removed);
+            this.current = edited;
+            this.patches = patches;
+            this.added = new ArrayList<>(added);
+        }
+
+        @Override
+        public boolean undo() {
+            return update(added, false, removed);
+        }
+
+        @Override
+        public boolean redo() {
+            return update(removed, true, added);
+        }
+
+        @Override
+        public void replace(Map<Run, Run> replacements) {
+            removed.replaceAll(run -> replacements.getOrDefault(run, run));
+            current.replaceAll(run -> replacements.getOrDefault(run, run));
+            added.replaceAll(run -> replacements.getOrDefault(run, run));
+        }
+
+        /**
+         * @param deleted   Activities to be removed
+         * @param apply     True to apply the edits, false to revert them
+         * @param restored  Activities to be added
+         * @return          True, if updated, false if an activity is not in the list (nothing is changed)
+         */
+        private boolean update(List<Run> deleted, boolean apply, List<Run> restored) {
+            List<Run> changed = new ArrayList<>(deleted);
+            changed.addAll(current);
+            if (! areRecorded(changed)) {
+                return false;
+            }
+            Map<Run, Run> replacements = new IdentityHashMap<>();
+            for (int i=0; i<current.size(); i++) {
+                RunPatch patch = patches.get(i);
+                replacements.put(current.get(i), apply ? patch.apply(current.get(i)) : patch.revert(current.get(i)));
+            }
+            allRuns.update(new HashSet<>(deleted), replacements, restored);
+            deleted.forEach(run -> onReplaced.accept(run, null));
+            for (int i=0; i<current.size(); i++) {
+                Run replaced = current.get(i);
+                current.set(i, replacements.get(replaced));
+                onReplaced.accept(replaced, current.get(i));
+            }
+            restored.forEach(run -> onReplaced.accept(null, run));
+            replaceInCommands(replacements);
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,292 @@
+package kafara.uur.runningdiary;
+
+import javafx.beans.InvalidationListener;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ModifiableObservableListBase;
+import javafx.collections.ObservableList;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents the observable list of all recorded activities.
+ * - an observable array list, bulk operations (including replacing many activities) are reported as a single change
+ * - counts its listeners, every engine and view of the diary listens to the list
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class DiaryList extends AbstractList<Run> implements ObservableList<Run> {
+
+    /** Activities, the changes are reported by this list */
+    private final Runs runs = new Runs();
+    /** Count of registered listeners */
+    private volatile int listenersCount = 0;
+
+    @Override
+    public Run get(int index) {
+        return runs.get(index);
+    }
+
+    @Override
+    public int size() {
+        return runs.size();
+    }
+
+    @Override
+    public Iterator<Run> iterator() {
+        return runs.iterator();
+    }
+
+    @Override
+    public void add(int index, Run element) {
+        runs.add(index, element);
+    }
+
+    @Override
+    public boolean add(Run element) {
+        return runs.add(element);
+    }
+
+    @Override
+    public Run set(int index, Run element) {
+        return runs.set(index, element);
+    }
+
+    @Override
+    public Run remove(int index) {
+        return runs.remove(index);
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        return runs.remove(element);
+    }
+
+    @Override
+    public void remove(int from, int to) {
+        runs.remove(from, to);
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Run> elements) {
+        return runs.addAll(elements);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends Run> elements) {
+        return runs.addAll(index, elements);
+    }
+
+    @Override
+    public boolean addAll(Run... elements) {
+        return runs.addAll(elements);
+    }
+
+    @Override
+    public boolean setAll(Collection<? extends Run> elements) {
+        return runs.setAll(elements);
+    }
+
+    @Override
+    public boolean setAll(Run... elements) {
+        return runs.setAll(elements);
+    }
+
+    /**
+     * Replaces the activities in place, reported as a single change.
+     * - a replaced activity keeps its position, the listeners get a replacement of it
+     * @param replacements  Replacing activities by replaced activity, not recorded ones are ignored
+     * @return              Replaced activities
+     */
+    public List<Run> replace(Map<Run, Run> replacements) {
+        return runs.replace(replacements);
+    }
+
+    /**
+     * Removes, replaces and adds the activities, reported as a single change.
+     * - the kept activities keep their order, the added activities are added at the end
+     * @param removed   Removed activities, not recorded ones are ignored
+     * @param replaced  Replacing activities by replaced activity, not recorded ones are ignored
+     * @param added     Added activities
+     */
+    public void update(Set<Run> removed, Map<Run, Run> replaced, Collection<Run> added) {
+        runs.update(removed, replaced, added);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> elements) {
+        return runs.removeAll(elements);
+    }
+
+    @Override
+    public boolean removeAll(Run... elements) {
+        return runs.removeAll(elements);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> elements) {
+        return runs.retainAll(elements);
+    }
+
+    @Override
+    public boolean retainAll(Run... elements) {
+        return runs.retainAll(elements);
+    }
+
+    @Override
+    public void clear() {
+        runs.clear();
+    }
+
+    @Override
+    public void addListener(ListChangeListener<? super Run> listener) {
+        runs.addListener(listener);
+        listenersCount++;
+    }
+
+    @Override
+    public void removeListener(ListChangeListener<? super Run> listener) {
+        runs.removeListener(listener);
+        listenersCount--;
+    }
+
+    @Override
+    public void addListener(InvalidationListener listener) {
+        runs.addListener(listener);
+        listenersCount++;
+    }
+
+    @Override
+    public void removeListener(InvalidationListener listener) {
+        runs.removeListener(listener);
+        listenersCount--;
+    }
+
+    /**
+     * @return  Count of registered (change and invalidation) listeners
+     */
+    public int getListenersCount() {
+        return listenersCount;
+    }
+
+    /**
+     * Represents the activities, the changes are built by the list base.
+     */
+    private static class Runs extends ModifiableObservableListBase<Run> {
+
+        private final List<Run> runs = new ArrayList<>();
+
+        @Override
+        public Run get(int index) {
+            return runs.get(index);
+        }
+
+        @Override
+        public int size() {
+            return runs.size();
+        }
+
+        @Override
+        protected void doAdd(int index, Run element) {
+            runs.add(index, element);
+        }
+
+        @Override
+        protected Run doSet(int index, Run element) {
+            return runs.set(index, element);
+        }
+
+        @Override
+        protected Run doRemove(int index) {
+            return runs.remove(index);
+        }
+
+        /**
+         * Removes the range at once, the base removes it element by element.
+         */
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            if (fromIndex>=toIndex) {
+                return;
+            }
+            beginChange();
+            try {
+                List<Run> range = runs.subList(fromIndex, toIndex);
+                nextRemove(fromIndex, new ArrayList<>(range));
+                range.clear();
+                modCount++;
+            } finally {
+                endChange();
+            }
+        }
+
+        /**
+         * Compacts the kept activities in one pass, then adds the added ones.
+         */
+        private void update(Set<Run> removed, Map<Run, Run> replaced, Collection<Run> added) {
+            if (removed.isEmpty() && replaced.isEmpty() && added.isEmpty()) {
+                return;
+            }
+            beginChange();
+            try {
+                if (! removed.isEmpty() || ! replaced.isEmpty()) {
+                    int size = runs.size();
+                    int kept = 0;
+                    for (int i=0; i<size; i++) {
+                        Run run = runs.get(i);
+                        if (removed.contains(run)) {
+                            nextRemove(kept, run);
+                            continue;
+                        }
+                        Run replacing = replaced.get(run);
+                        if (replacing!=null) {
+                            nextSet(kept, run);
+                            run = replacing;
+                        }
+                        runs.set(kept++, run);
+                    }
+                    if (kept<size) {
+                        runs.subList(kept, size).clear();
+                        modCount++;
+                    }
+                }
+                if (! added.isEmpty()) {
+                    int from = runs.size();
+                    runs.addAll(added);
+                    nextAdd(from, runs.size());
+                    modCount++;
+                }
+            } finally {
+                endChange();
+            }
+        }
+
+        private List<Run> replace(Map<Run, Run> replacements) {
+            List<Run> replaced = new ArrayList<>();
+            if (replacements.isEmpty()) {
+                return replaced;
+            }
+            beginChange();
+            try {
+                for (int i=0; i<runs.size(); i++) {
+                    Run run = runs.get(i);
+                    Run replacing = replacements.get(run);
+                    if (replacing!=null) {
+                        runs.set(i, replacing);
+                        nextSet(i, run);
+                        replaced.add(run);
+                    }
+                }
+            } finally {
+                endChange();
+            }
+            return replaced;
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package kafara.uur.runningdiary;
+
+import javafx.collections.ListChangeListener;
+
+/**
+ * Represents the gauges and counters of all recorded activities.
+ * - updated with (background-)list updates on the FX thread, read by the management agent from any thread
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class DiaryStats implements DiaryStatsMBean {
+
+    /** All recorded activities */
+    private final DiaryList allRuns;
+
+    private volatile long segmentsCount = 0;
+    private volatile long changesCount = 0;
+    private volatile long runsAdded = 0;
+    private volatile long runsRemoved = 0;
+
+    public DiaryStats(DiaryList allRuns) {
+        this.allRuns = allRuns;
+        for (Run run : allRuns) {
+            segmentsCount += run.getSegments().size();
+        }
+        runsAdded = allRuns.size();
+        allRuns.addListener((ListChangeListener<Run>) c -> {
+            long segments = segmentsCount;
+            while (c.next()) {
+                for (Run run : c.getRemoved()) {
+                    segments -= run.getSegments().size();
+                }
+                for (Run run : c.getAddedSubList()) {
+                    segments += run.getSegments().size();
+                }
+                runsRemoved += c.getRemovedSize();
+                runsAdded += c.getAddedSize();
+            }
+            segmentsCount = segments;
+            changesCount++;
+        });
+    }
+
+    @Override
+    public int getRunsCount() {
+        return allRuns.size();
+    }
+
+    @Override
+    public long getSegmentsCount() {
+        return segmentsCount;
+    }
+
+    @Override
+    public int getListenersCount() {
+        return allRuns.getListenersCount();
+    }
+
+    @Override
+    public long getChangesCount() {
+        return changesCount;
+    }
+
+    @Override
+    public long getRunsAdded() {
+        return runsAdded;
+    }
+
+    @Override
+    public long getRunsRemoved() {
+        return runsRemoved;
+    }
+
+}
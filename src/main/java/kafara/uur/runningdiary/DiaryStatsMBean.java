@@ -0,0 +1,40 @@
+package kafara.uur.runningdiary;
+
+/**
+ * Management interface of the diary gauges and counters.
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public interface DiaryStatsMBean {
+
+    /**
+     * @return  Count of recorded activities
+     */
+    int getRunsCount();
+
+    /**
+     * @return  Count of segments of the recorded activities
+     */
+    long getSegmentsCount();
+
+    /**
+     * @return  Count of listeners of all recorded activities
+     */
+    int getListenersCount();
+
+    /**
+     * @return  Count of changes of all recorded activities
+     */
+    long getChangesCount();
+
+    /**
+     * @return  Count of ever added activities
+     */
+    long getRunsAdded();
+
+    /**
+     * @return  Count of ever removed activities
+     */
+    long getRunsRemoved();
+
+}
@@ -0,0 +1,69 @@
+package kafara.uur.runningdiary;
+
+/**
+ * Reduces count of chart points while preserving the visual shape of the series.
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class Downsampler {
+
+    private Downsampler() {}
+
+    /**
+     * Selects at most threshold points of the series (Largest-Triangle-Three-Buckets).
+     * - the first and the last point are always selected
+     * - from each bucket of the rest the point forming the largest triangle
+     *   with the previously selected point and the average of the next bucket is selected
+     * @param x         Point x values, ascending
+     * @param y         Point y values
+     * @param threshold Maximal count of selected points, at least 3
+     * @return          Indices of the selected points, ascending
+     */
+    public static int[] largestTriangleThreeBuckets(double[] x, double[] y, int threshold) {
+        int n = x.length;
+        if (threshold>=n || threshold<3) {
+            int[] all = new int[n];
+            for (int i=0; i<all.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        int[] selected = new int[threshold];
+        double bucketSize = (double) (n-2) / (threshold-2);
+        int a = 0;
+        selected[0] = 0;
+        for (int i=0; i<threshold-2; i++) {
+            // average of the next bucket
+            int nextFrom = (int) ((i+1)*bucketSize) + 1;
+            int nextTo = Math.min((int) ((i+2)*bucketSize) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j=nextFrom; j<nextTo; j++) {
+                avgX += x[j];
+                avgY += y[j];
+            }
+            int nextCount = Math.max(nextTo-nextFrom, 1);
+            avgX /= nextCount;
+            avgY /= nextCount;
+            // largest triangle in the current bucket
+            int from = (int) (i*bucketSize) + 1;
+            int to = (int) ((i+1)*bucketSize) + 1;
+            double maxArea = -1;
+            int maxIndex = from;
+            for (int j=from; j<to; j++) {
+                double area = Math.abs(
+                        (x[a]-avgX)*(y[j]-y[a]) - (x[a]-x[j])*(avgY-y[a])
+                );
+                if (area>maxArea) {
+                    maxArea = area;
+                    maxIndex = j;
+                }
+            }
+            selected[i+1] = maxIndex;
+            a = maxIndex;
+        }
+        selected[threshold-1] = n-1;
+        return selected;
+    }
+
+}
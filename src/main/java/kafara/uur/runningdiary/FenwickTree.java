@@ -0,0 +1,81 @@
+package kafara.uur.runningdiary;
+
+/**
+ * Represents a Fenwick (binary indexed) tree of values.
+ * - point updates and range sums in O(log n)
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class FenwickTree {
+
+    /** Values */
+    private double[] values;
+    /** Partial sums, tree[i] = sum of values (i - lowbit(i), i] (1-based) */
+    private double[] tree;
+
+    public FenwickTree(int size) {
+        values = new double[size];
+        tree = new double[size+1];
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Adds the value to the i-th value.
+     * @param i     Index
+     * @param value Added value
+     */
+    public void add(int i, double value) {
+        values[i] += value;
+        for (int j=i+1; j<tree.length; j+=j&-j) {
+            tree[j] += value;
+        }
+    }
+
+    /**
+     * @param i Index
+     * @return  Sum of the values 0-i (including)
+     */
+    public double prefixSum(int i) {
+        double sum = 0;
+        for (int j=Math.min(i+1, tree.length-1); j>0; j-=j&-j) {
+            sum += tree[j];
+        }
+        return sum;
+    }
+
+    /**
+     * @param from  From index
+     * @param to    To index (including)
+     * @return      Sum of the values from-to
+     */
+    public double sum(int from, int to) {
+        if (from>to) {
+            return 0;
+        }
+        return prefixSum(to) - ((from>0) ? prefixSum(from-1) : 0);
+    }
+
+    /**
+     * Resizes the tree, the values are moved by the shift.
+     * - rebuilt in O(n)
+     * @param shift Count of new values in front
+     * @param size  New size
+     */
+    public void resize(int shift, int size) {
+        double[] resized = new double[size];
+        System.arraycopy(values, 0, resized, shift, Math.min(values.length, size-shift));
+        values = resized;
+        tree = new double[size+1];
+        for (int i=1; i<=size; i++) {
+            tree[i] += values[i-1];
+            int parent = i + (i&-i);
+            if (parent<=size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+}
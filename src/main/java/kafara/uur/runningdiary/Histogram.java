@@ -0,0 +1,61 @@
+package kafara.uur.runningdiary;
+
+/**
+ * Represents a histogram with fixed bins.
+ * - values outside the range are counted in the first/last bin
+ * - histograms with the same bins can be added and subtracted
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class Histogram {
+
+    /** Lower bound of the first bin */
+    private final double min;
+    /** Bin width */
+    private final double binWidth;
+    /** Weights of the bins */
+    private final double[] bins;
+
+    public Histogram(double min, double binWidth, int binsCount) {
+        this.min = min;
+        this.binWidth = binWidth;
+        this.bins = new double[binsCount];
+    }
+
+    /**
+     * Adds the weighted value.
+     * @param value     Value
+     * @param weight    Weight, negative for removal
+     */
+    public void add(double value, double weight) {
+        int bin = (int) Math.floor((value-min)/binWidth);
+        bins[Math.min(Math.max(bin, 0), bins.length-1)] += weight;
+    }
+
+    /**
+     * Adds the weights of the other histogram with the same bins.
+     * @param histogram Other histogram
+     */
+    public void merge(Histogram histogram) {
+        for (int i=0; i<bins.length; i++) {
+            bins[i] += histogram.bins[i];
+        }
+    }
+
+    public int getBinsCount() {
+        return bins.length;
+    }
+
+    /**
+     * @param bin   Bin
+     * @return      Lower bound of the bin
+     */
+    public double getBinMin(int bin) {
+        return min + bin*binWidth;
+    }
+
+    public double getWeight(int bin) {
+        return bins[bin];
+    }
+
+}
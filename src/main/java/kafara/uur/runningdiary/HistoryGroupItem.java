@@ -0,0 +1,203 @@
+package kafara.uur.runningdiary;
+
+import javafx.collections.ObservableList;
+import javafx.scene.control.TreeItem;
+
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.*;
+
+/**
+ * Represents a group of activities (year, month, type) of the history tree.
+ * - the child groups are indexed by their key and ordered by it
+ * - the activities are ordered from the latest
+ * - the child tree items are created the first time they are needed (expanded), until then only the groups are kept
+ * - the root group groups the activities by year, month (and type), independent of the tree view
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class HistoryGroupItem extends TreeItem<RunTreeItemWrapper> {
+
+    /** Order of the types - by name */
+    private static final Map<Run.Type, Integer> TYPE_ORDER = new EnumMap<>(Run.Type.class);
+    static {
+        List<Run.Type> types = new ArrayList<>(List.of(Run.Type.values()));
+        types.sort(Comparator.comparing(Run.Type::toString));
+        for (int i=0; i<types.size(); i++) {
+            TYPE_ORDER.put(types.get(i), i);
+        }
+    }
+
+    /** Order of the group among its siblings */
+    private final int key;
+    /** Child groups by key */
+    private final TreeMap<Integer, HistoryGroupItem> groups = new TreeMap<>();
+    /** Activities of the group, from the latest */
+    private final List<Run> runs = new ArrayList<>();
+    /** Determines whether the child tree items have been created */
+    private boolean populated = false;
+
+    /**
+     * Creates an empty group.
+     * @param key   Order of the group among its siblings, -year, -month or type order
+     * @param label Label of the group, null for the root
+     */
+    public HistoryGroupItem(int key, String label) {
+        super(new RunTreeItemWrapper(null, label));
+        this.key = key;
+    }
+
+    public int getKey() {
+        return key;
+    }
+
+    /**
+     * @return  Child groups in order
+     */
+    public Collection<HistoryGroupItem> getGroups() {
+        return Collections.unmodifiableCollection(groups.values());
+    }
+
+    /**
+     * Adds the activity to its branch of the root group, the missing groups are created.
+     * @param run       Run activity
+     * @param byType    True if the activities of a month are grouped by type, else false
+     */
+    public void add(Run run, boolean byType) {
+        HistoryGroupItem yearGI = getOrCreate(-run.getDate().getYear(), ""+run.getDate().getYear());
+        HistoryGroupItem monthGI = yearGI.getOrCreate(
+                -run.getDate().getMonthValue(),
+                Month.of(run.getDate().getMonthValue()).getDisplayName(TextStyle.FULL_STANDALONE, Locale.getDefault())
+        );
+        HistoryGroupItem parentGI = byType ?
+                monthGI.getOrCreate(TYPE_ORDER.get(run.getType()), run.getType().toString()) : monthGI;
+        parentGI.addRun(run);
+    }
+
+    /**
+     * Removes the activity from its branch of the root group, the emptied groups are removed.
+     * @param run       Run activity
+     * @param byType    True if the activities of a month are grouped by type, else false
+     */
+    public void remove(Run run, boolean byType) {
+        HistoryGroupItem yearGI = groups.get(-run.getDate().getYear());
+        HistoryGroupItem monthGI = (yearGI!=null) ? yearGI.groups.get(-run.getDate().getMonthValue()) : null;
+        if (monthGI==null) {
+            return;
+        }
+        HistoryGroupItem parentGI = byType ? monthGI.groups.get(TYPE_ORDER.get(run.getType())) : monthGI;
+        if (parentGI==null) {
+            return;
+        }
+        parentGI.removeRun(run);
+        if (parentGI!=monthGI && parentGI.isEmpty()) {
+            monthGI.removeGroup(parentGI);
+        }
+        if (monthGI.isEmpty()) {
+            yearGI.removeGroup(monthGI);
+        }
+        if (yearGI.isEmpty()) {
+            removeGroup(yearGI);
+        }
+    }
+
+    /**
+     * Removes all child groups and activities.
+     */
+    public void clear() {
+        groups.clear();
+        runs.clear();
+        if (populated) {
+            super.getChildren().clear();
+        }
+    }
+
+    /**
+     * Creates the child tree items when they are first needed.
+     * @return  Child tree items
+     */
+    @Override
+    public ObservableList<TreeItem<RunTreeItemWrapper>> getChildren() {
+        if (! populated) {
+            populated = true;
+            List<TreeItem<RunTreeItemWrapper>> children = new ArrayList<>(groups.values());
+            for (Run run : runs) {
+                children.add(new TreeItem<>(new RunTreeItemWrapper(run, RunDisplay.of(run).getSummary())));
+            }
+            super.getChildren().setAll(children);
+        }
+        return super.getChildren();
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return isEmpty();
+    }
+
+    private boolean isEmpty() {
+        return groups.isEmpty() && runs.isEmpty();
+    }
+
+    /**
+     * Returns the child group, it is created and inserted in order if missing.
+     * @param key   Key of the group
+     * @param label Label of the group
+     * @return      Child group
+     */
+    private HistoryGroupItem getOrCreate(int key, String label) {
+        HistoryGroupItem groupGI = groups.get(key);
+        if (groupGI!=null) {
+            return groupGI;
+        }
+        groupGI = new HistoryGroupItem(key, label);
+        groups.put(key, groupGI);
+        if (populated) {
+            super.getChildren().add(groups.headMap(key).size(), groupGI);
+        }
+        return groupGI;
+    }
+
+    /**
+     * Removes the emptied child group.
+     * @param groupGI   Child group
+     */
+    private void removeGroup(HistoryGroupItem groupGI) {
+        groups.remove(groupGI.key);
+        if (populated) {
+            super.getChildren().remove(groupGI);
+        }
+    }
+
+    /**
+     * Inserts the activity after the activities of the same and later days.
+     * @param run   Run activity
+     */
+    private void addRun(Run run) {
+        int low = 0, high = runs.size();
+        while (low<high) {
+            int middle = (low+high)>>>1;
+            if (! runs.get(middle).getDate().isBefore(run.getDate())) {
+                low = middle+1;
+            } else {
+                high = middle;
+            }
+        }
+        runs.add(low, run);
+        if (populated) {
+            super.getChildren().add(low, new TreeItem<>(new RunTreeItemWrapper(run, RunDisplay.of(run).getSummary())));
+        }
+    }
+
+    private void removeRun(Run run) {
+        for (int i=0; i<runs.size(); i++) {
+            if (runs.get(i)==run) {
+                runs.remove(i);
+                if (populated) {
+                    super.getChildren().remove(i);
+                }
+                return;
+            }
+        }
+    }
+
+}
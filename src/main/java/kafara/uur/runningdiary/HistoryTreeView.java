@@ -0,0 +1,217 @@
+package kafara.uur.runningdiary;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeView;
+import javafx.scene.input.KeyCode;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Represents the tree of all recorded activities by year, month (and type).
+ * - the tree is kept, activity changes patch only the branches of the changed activities
+ * - expansion and selection of the untouched branches are kept
+ * - multiple activities can be selected
+ * - the activities are grouped up front, the tree items of a group are created when it is expanded
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class HistoryTreeView extends TreeView<RunTreeItemWrapper> {
+
+    /** Time of the tree patches */
+    private static final LatencyTimer UPDATE_TIMER = Metrics.timer("HistoryTreeView.update");
+
+    /** All recorded activities */
+    private final ObservableList<Run> allRuns;
+    /** Years */
+    private final HistoryGroupItem rootGI = new HistoryGroupItem(0, null);
+    /** Determines whether the activities are grouped by type in a month */
+    private boolean typesVisible = false;
+    /** Shown activities, null if all are shown */
+    private Set<Run> filter = null;
+
+    /** Maximal count of filtered activities whose groups are all expanded */
+    private static final int MAX_EXPANDED_RESULTS = 200;
+
+    /**
+     * Creates the tree of the activities.
+     * - the latest activity is expanded
+     * @param allRuns   All recorded activities
+     * @param openRun   Opens the activity
+     */
+    public HistoryTreeView(ObservableList<Run> allRuns, Consumer<Run> openRun) {
+        this.allRuns = allRuns;
+        setRoot(rootGI);
+        setShowRoot(false);
+        getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        rootGI.setExpanded(true);
+        setOnMouseClicked(event -> {
+            if (event.getClickCount()==2) {
+                openSelectedRun(openRun);
+            }
+        });
+        setOnKeyPressed(event -> {
+            if (event.getCode()==KeyCode.ENTER) {
+                openSelectedRun(openRun);
+            }
+        });
+        for (Run run : allRuns) {
+            add(run);
+        }
+        TreeItem<RunTreeItemWrapper> latestRunTI = rootGI;
+        for (int i=0; i<3 && ! latestRunTI.getChildren().isEmpty(); i++) {
+            latestRunTI = latestRunTI.getChildren().get(0);
+            latestRunTI.setExpanded(true);
+        }
+        allRuns.addListener((ListChangeListener<Run>) c -> {
+            long start = System.nanoTime();
+            DiaryEvents.HistoryTreeUpdateEvent event = new DiaryEvents.HistoryTreeUpdateEvent();
+            event.begin();
+            while (c.next()) {
+                event.removed += c.getRemovedSize();
+                event.added += c.getAddedSize();
+                for (Run run : c.getRemoved()) {
+                    remove(run);
+                }
+                if (filter!=null) {
+                    continue; // the results are refreshed by updateFilter
+                }
+                for (Run run : c.getAddedSubList()) {
+                    add(run);
+                }
+            }
+            UPDATE_TIMER.recordSince(start);
+            event.commit();
+        });
+    }
+
+    private void openSelectedRun(Consumer<Run> openRun) {
+        TreeItem<RunTreeItemWrapper> selectedTI = getSelectionModel().getSelectedItem();
+        if (selectedTI==null || selectedTI.getValue().getRun()==null) {
+            return;
+        }
+        openRun.accept(selectedTI.getValue().getRun());
+    }
+
+    /**
+     * @return  Selected activities, the selected groups are not included
+     */
+    public List<Run> getSelectedRuns() {
+        List<Run> runs = new ArrayList<>();
+        for (TreeItem<RunTreeItemWrapper> selectedTI : getSelectionModel().getSelectedItems()) {
+            if (selectedTI!=null && selectedTI.getValue().getRun()!=null) {
+                runs.add(selectedTI.getValue().getRun());
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Groups the activities of a month by type.
+     * - the tree is regrouped, expanded years and months stay expanded
+     * @param typesVisible  True to group by type, else false
+     */
+    public void setTypesVisible(boolean typesVisible) {
+        if (this.typesVisible==typesVisible) {
+            return;
+        }
+        this.typesVisible = typesVisible;
+        regroup();
+    }
+
+    /**
+     * Shows only the activities, e.g. search results.
+     * - the groups of a few activities are all expanded
+     * - while filtered, the added activities are shown by updateFilter only
+     * @param runs  Shown activities, null to show all
+     */
+    public void setFilter(Collection<Run> runs) {
+        filter = (runs!=null) ? new HashSet<>(runs) : null;
+        regroup();
+        if (filter!=null && filter.size()<=MAX_EXPANDED_RESULTS) {
+            for (HistoryGroupItem yearGI : rootGI.getGroups()) {
+                yearGI.setExpanded(true);
+                for (HistoryGroupItem monthGI : yearGI.getGroups()) {
+                    monthGI.setExpanded(true);
+                    monthGI.getGroups().forEach(typeGI -> typeGI.setExpanded(true));
+                }
+            }
+        }
+    }
+
+    /**
+     * Refreshes the shown activities after the activities changed, e.g. the results of the same search.
+     * - only the activities entering or leaving the results are added or removed, expansion and selection are kept
+     * @param runs  Shown activities
+     */
+    public void updateFilter(Collection<Run> runs) {
+        if (filter==null) {
+            setFilter(runs);
+            return;
+        }
+        Set<Run> previous = filter;
+        filter = new HashSet<>(runs);
+        for (Run run : previous) {
+            if (! filter.contains(run)) {
+                remove(run);
+            }
+        }
+        for (Run run : filter) {
+            if (! previous.contains(run)) {
+                add(run);
+            }
+        }
+    }
+
+    /**
+     * Regroups the shown activities.
+     * - expanded years and months stay expanded
+     */
+    private void regroup() {
+        DiaryEvents.HistoryTreeUpdateEvent event = new DiaryEvents.HistoryTreeUpdateEvent();
+        event.begin();
+        event.regrouped = true;
+        Set<List<Integer>> expanded = new HashSet<>();
+        for (HistoryGroupItem yearGI : rootGI.getGroups()) {
+            if (yearGI.isExpanded()) {
+                expanded.add(List.of(yearGI.getKey()));
+            }
+            for (HistoryGroupItem monthGI : yearGI.getGroups()) {
+                if (monthGI.isExpanded()) {
+                    expanded.add(List.of(yearGI.getKey(), monthGI.getKey()));
+                }
+            }
+        }
+        rootGI.clear();
+        for (Run run : (filter!=null) ? filter : allRuns) {
+            add(run);
+            event.added++;
+        }
+        for (HistoryGroupItem yearGI : rootGI.getGroups()) {
+            yearGI.setExpanded(expanded.contains(List.of(yearGI.getKey())));
+            for (HistoryGroupItem monthGI : yearGI.getGroups()) {
+                monthGI.setExpanded(expanded.contains(List.of(yearGI.getKey(), monthGI.getKey())));
+            }
+        }
+        event.commit();
+    }
+
+    /**
+     * Adds the shown activity to its branch.
+     * @param run   Run activity
+     */
+    private void add(Run run) {
+        if (filter!=null && ! filter.contains(run)) {
+            return;
+        }
+        rootGI.add(run, typesVisible);
+    }
+
+    private void remove(Run run) {
+        rootGI.remove(run, typesVisible);
+    }
+
+}
@@ -0,0 +1,122 @@
+package kafara.uur.runningdiary;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Represents a latency timer of a hot path.
+ * - counts the calls and keeps a histogram of their times in power of 2 microsecond buckets
+ * - recording is lock-free and allocation-free, the timer may be recorded from any thread
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class LatencyTimer implements LatencyTimerMBean {
+
+    /** Count of histogram buckets, the last one counts calls over 2^31 µs too */
+    private static final int BUCKETS = 32;
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records a call started at the time.
+     * - long start = System.nanoTime(); ... timer.recordSince(start);
+     * @param startNanos    Start of the call, System.nanoTime()
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime()-startNanos);
+    }
+
+    /**
+     * Records a call.
+     * @param nanos Time of the call [ns]
+     */
+    public void record(long nanos) {
+        nanos = Math.max(nanos, 0);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        long micros = nanos/1000;
+        int bucket = (micros>0) ? 63-Long.numberOfLeadingZeros(micros) : 0;
+        histogram.incrementAndGet(Math.min(bucket, BUCKETS-1));
+    }
+
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    @Override
+    public double getTotalMillis() {
+        return totalNanos.get()/1e6;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long calls = count.get();
+        return (calls>0) ? totalNanos.get()/1e6/calls : 0;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get()/1e6;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return getPercentileMillis(0.50);
+    }
+
+    @Override
+    public double getP95Millis() {
+        return getPercentileMillis(0.95);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return getPercentileMillis(0.99);
+    }
+
+    /**
+     * @param quantile  Quantile, 0-1
+     * @return          Upper bound of the bucket containing the quantile [ms], 0 if there was no call
+     */
+    private double getPercentileMillis(double quantile) {
+        long[] counts = getHistogram();
+        long calls = 0;
+        for (long bucketCount : counts) {
+            calls += bucketCount;
+        }
+        long rank = (long) Math.ceil(quantile*calls);
+        long cumulative = 0;
+        for (int i=0; i<counts.length && calls>0; i++) {
+            cumulative += counts[i];
+            if (cumulative>=rank) {
+                return Math.min((1L << (i+1))/1e3, getMaxMillis());
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public long[] getHistogram() {
+        long[] counts = new long[BUCKETS];
+        for (int i=0; i<BUCKETS; i++) {
+            counts[i] = histogram.get(i);
+        }
+        return counts;
+    }
+
+    @Override
+    public void reset() {
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+        for (int i=0; i<BUCKETS; i++) {
+            histogram.set(i, 0);
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package kafara.uur.runningdiary;
+
+/**
+ * Management interface of a latency timer.
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public interface LatencyTimerMBean {
+
+    /**
+     * @return  Count of the timed calls
+     */
+    long getCount();
+
+    /**
+     * @return  Total time of the timed calls [ms]
+     */
+    double getTotalMillis();
+
+    /**
+     * @return  Mean time of a call [ms], 0 if there was no call
+     */
+    double getMeanMillis();
+
+    /**
+     * @return  Maximal time of a call [ms]
+     */
+    double getMaxMillis();
+
+    /**
+     * @return  Median time of a call [ms], upper bound of its histogram bucket
+     */
+    double getP50Millis();
+
+    /**
+     * @return  95th percentile time of a call [ms], upper bound of its histogram bucket
+     */
+    double getP95Millis();
+
+    /**
+     * @return  99th percentile time of a call [ms], upper bound of its histogram bucket
+     */
+    double getP99Millis();
+
+    /**
+     * @return  Counts of the calls by time, bucket i counts the calls under 2^(i+1) µs
+     */
+    long[] getHistogram();
+
+    /**
+     * Clears the timer.
+     */
+    void reset();
+
+}
@@ -0,0 +1,70 @@
+package kafara.uur.runningdiary;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Represents the registry of the application metrics.
+ * - the metrics are registered as MBeans of the platform MBean server (JConsole, local JMX clients)
+ * - kafara.uur.runningdiary:type=Timer,name=... latency timers of the hot paths
+ * - kafara.uur.runningdiary:type=Diary gauges and counters of all recorded activities
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class Metrics {
+
+    private static final String DOMAIN = "kafara.uur.runningdiary";
+
+    /** Timers by name */
+    private static final Map<String, LatencyTimer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the timer, it is created and registered if missing.
+     * @param name  Name of the timer, Class.method
+     * @return      Timer
+     */
+    public static LatencyTimer timer(String name) {
+        return timers.computeIfAbsent(name, n -> {
+            LatencyTimer timer = new LatencyTimer();
+            register(timer, "Timer", n);
+            return timer;
+        });
+    }
+
+    /**
+     * Registers the gauges and counters of all recorded activities.
+     * @param allRuns   All recorded activities
+     */
+    public static void registerDiary(DiaryList allRuns) {
+        register(new DiaryStats(allRuns), "Diary", null);
+    }
+
+    /**
+     * Registers the MBean, a previously registered MBean of the same name is replaced.
+     * - the application runs without metrics if the MBean cannot be registered
+     * @param mbean MBean
+     * @param type  Type key
+     * @param name  Name key, null if none
+     */
+    private static void register(Object mbean, String type, String name) {
+        try {
+            Hashtable<String, String> keys = new Hashtable<>();
+            keys.put("type", type);
+            if (name!=null) {
+                keys.put("name", name);
+            }
+            ObjectName objectName = new ObjectName(DOMAIN, keys);
+            if (ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            }
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, objectName);
+        } catch (JMException | SecurityException e) {
+            // metrics are not available
+        }
+    }
+
+}
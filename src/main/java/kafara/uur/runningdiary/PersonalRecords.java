@@ -0,0 +1,242 @@
+package kafara.uur.runningdiary;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.*;
+
+/**
+ * Represents personal records - leaderboards of the best run activities by category.
+ * - each category keeps a bounded heap of its best records, added activities are only offered to the heaps
+ * - a category is recomputed only when an activity on its leaderboard is removed
+ * - not synchronized, the leaderboards are updated and read on the FX thread
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class PersonalRecords {
+
+    /** Leaderboard size */
+    public static final int LEADERBOARD_SIZE = 10;
+
+    /** All recorded activities */
+    private final ObservableList<Run> allRuns;
+    /** Leaderboards by category, the worst record on the top of the heap */
+    private final Map<Category, PriorityQueue<Record>> leaderboards = new EnumMap<>(Category.class);
+    /** Incremented with every change of the leaderboards */
+    private final IntegerProperty version = new SimpleIntegerProperty(0);
+
+    public PersonalRecords(ObservableList<Run> allRuns) {
+        this.allRuns = allRuns;
+        for (Category category : Category.values()) {
+            leaderboards.put(category, new PriorityQueue<>(LEADERBOARD_SIZE+1, category.comparator().reversed()));
+        }
+        for (Run run : allRuns) {
+            offer(run, EnumSet.allOf(Category.class));
+        }
+        allRuns.addListener((ListChangeListener<Run>) c -> {
+            EnumSet<Category> invalid = EnumSet.noneOf(Category.class);
+            List<Run> added = new ArrayList<>();
+            while (c.next()) {
+                for (Run run : c.getRemoved()) {
+                    for (Category category : Category.values()) {
+                        if (leaderboards.get(category).removeIf(record -> record.getRun()==run)) {
+                            invalid.add(category);
+                        }
+                    }
+                }
+                added.addAll(c.getAddedSubList());
+            }
+            for (Category category : invalid) {
+                recompute(category);
+            }
+            Set<Category> valid = EnumSet.complementOf(invalid);
+            for (Run run : added) {
+                offer(run, valid);
+            }
+            version.set(version.get()+1);
+        });
+    }
+
+    /**
+     * Offers the activity records to the leaderboards.
+     * @param run           Run activity
+     * @param categories    Categories to be considered
+     */
+    private void offer(Run run, Set<Category> categories) {
+        for (Category category : categories) {
+            Record record = category.getRecord(run);
+            if (record==null) {
+                continue;
+            }
+            PriorityQueue<Record> leaderboard = leaderboards.get(category);
+            if (leaderboard.size()<LEADERBOARD_SIZE) {
+                leaderboard.add(record);
+            } else if (category.comparator().compare(record, leaderboard.peek())<0) {
+                leaderboard.poll();
+                leaderboard.add(record);
+            }
+        }
+    }
+
+    /**
+     * Recomputes the leaderboard from all recorded activities.
+     * @param category  Category
+     */
+    private void recompute(Category category) {
+        leaderboards.get(category).clear();
+        for (Run run : allRuns) {
+            offer(run, EnumSet.of(category));
+        }
+    }
+
+    /**
+     * Returns the leaderboard.
+     * @param category  Category
+     * @return          Records, the best first
+     */
+    public List<Record> getLeaderboard(Category category) {
+        List<Record> records = new ArrayList<>(leaderboards.get(category));
+        records.sort(category.comparator());
+        return records;
+    }
+
+    /**
+     * @return  Incremented with every change of the leaderboards
+     */
+    public IntegerProperty versionProperty() {
+        return version;
+    }
+
+    /**
+     * Represents a record of a run activity (or of its segment).
+     */
+    public static class Record {
+
+        private final Run run;
+        /** Record value (pace [s/km], distance [km], elevation [m]) */
+        private final double value;
+
+        public Record(Run run, double value) {
+            this.run = run;
+            this.value = value;
+        }
+
+        public Run getRun() {
+            return run;
+        }
+
+        public double getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Represents record categories.
+     */
+    public static enum Category {
+        FASTEST_1K_SEGMENT(0.95, 1.05),
+        FASTEST_5K(4.9, 5.3),
+        FASTEST_10K(9.8, 10.5),
+        FASTEST_HALF_MARATHON(20.8, 21.6),
+        FASTEST_MARATHON(41.8, 43),
+        LONGEST_DISTANCE(0, Double.MAX_VALUE),
+        HIGHEST_ELEVATION(0, Double.MAX_VALUE);
+
+        /** Distance band from [km] */
+        private final double minDistance;
+        /** Distance band to [km] */
+        private final double maxDistance;
+
+        private Category(double minDistance, double maxDistance) {
+            this.minDistance = minDistance;
+            this.maxDistance = maxDistance;
+        }
+
+        /**
+         * @return  Orders the records, the best first
+         */
+        public Comparator<Record> comparator() {
+            switch (this) {
+                case LONGEST_DISTANCE:
+                case HIGHEST_ELEVATION:
+                    return Comparator.comparingDouble(Record::getValue).reversed();
+            }
+            return Comparator.comparingDouble(Record::getValue);
+        }
+
+        /**
+         * Returns the activity record of the category.
+         * @param run   Run activity
+         * @return      Record, null if the activity does not belong to the category
+         */
+        public Record getRecord(Run run) {
+            switch (this) {
+                case FASTEST_1K_SEGMENT: {
+                    double bestPace = Double.MAX_VALUE;
+                    for (Run.Segment segment : run.getSegments()) {
+                        if (segment.getDistance()>=minDistance && segment.getDistance()<=maxDistance) {
+                            bestPace = Math.min(bestPace, segment.getDuration().toSecondOfDay()/segment.getDistance());
+                        }
+                    }
+                    return (bestPace!=Double.MAX_VALUE) ? new Record(run, bestPace) : null;
+                }
+                case LONGEST_DISTANCE:
+                    return new Record(run, run.getDistance());
+                case HIGHEST_ELEVATION: {
+                    int elevation = 0;
+                    for (Run.Segment segment : run.getSegments()) {
+                        if (segment.getElevation()!=Integer.MIN_VALUE) {
+                            elevation += segment.getElevation();
+                        }
+                    }
+                    return (elevation>0) ? new Record(run, elevation) : null;
+                }
+            }
+            double distance = run.getDistance();
+            if (distance<minDistance || distance>maxDistance) {
+                return null;
+            }
+            return new Record(run, run.getDuration().toSecondOfDay()/distance);
+        }
+
+        /**
+         * Formats the record value.
+         * @param record    Record
+         * @return          Formatted value
+         */
+        public String format(Record record) {
+            switch (this) {
+                case LONGEST_DISTANCE:
+                    return String.format("%.2f km", record.getValue());
+                case HIGHEST_ELEVATION:
+                    return String.format("%d m", (int) record.getValue());
+            }
+            int pace = (int) record.getValue();
+            return String.format("%d:%02d min/km", pace/60, pace%60);
+        }
+
+        @Override
+        public String toString() {
+            switch (this) {
+                case FASTEST_1K_SEGMENT:
+                    return "Fastest 1 km Segment";
+                case FASTEST_5K:
+                    return "Fastest 5 km";
+                case FASTEST_10K:
+                    return "Fastest 10 km";
+                case FASTEST_HALF_MARATHON:
+                    return "Fastest Half Marathon";
+                case FASTEST_MARATHON:
+                    return "Fastest Marathon";
+                case LONGEST_DISTANCE:
+                    return "Longest Distance";
+                case HIGHEST_ELEVATION:
+                    return "Highest Elevation";
+            }
+            return null;
+        }
+    }
+
+}
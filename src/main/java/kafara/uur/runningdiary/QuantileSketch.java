@@ -0,0 +1,164 @@
+package kafara.uur.runningdiary;
+
+import java.util.Arrays;
+
+/**
+ * Represents a mergeable quantile sketch (KLL).
+ * - keeps a bounded number of values, each with weight 2^level
+ * - a full level is sorted and every other value is promoted to the next level
+ * - quantile rank error is about 1.65/K
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class QuantileSketch {
+
+    /** Accuracy parameter - capacity of the top level */
+    private static final int K = 200;
+    /** Capacity decrease between levels */
+    private static final double C = 2.0/3.0;
+
+    /** Values by level */
+    private double[][] levels = {new double[8]};
+    /** Count of values by level */
+    private int[] sizes = {0};
+    /** Total weight of the sketched values */
+    private long count = 0;
+    /** Alternates the promoted half of a compacted level */
+    private boolean oddOffset = false;
+
+    public QuantileSketch() {}
+
+    /**
+     * Sketch copy
+     * @param sketch    Sketch to be copied
+     */
+    public QuantileSketch(QuantileSketch sketch) {
+        this.levels = new double[sketch.levels.length][];
+        for (int h=0; h<levels.length; h++) {
+            levels[h] = Arrays.copyOf(sketch.levels[h], sketch.levels[h].length);
+        }
+        this.sizes = Arrays.copyOf(sketch.sizes, sketch.sizes.length);
+        this.count = sketch.count;
+        this.oddOffset = sketch.oddOffset;
+    }
+
+    /**
+     * Adds the value to the sketch.
+     * @param value Value
+     */
+    public void add(double value) {
+        append(0, value);
+        count++;
+        compress();
+    }
+
+    /**
+     * Adds all values of the other sketch to the sketch.
+     * @param sketch    Other sketch
+     */
+    public void merge(QuantileSketch sketch) {
+        for (int h=0; h<sketch.sizes.length; h++) {
+            for (int i=0; i<sketch.sizes[h]; i++) {
+                append(h, sketch.levels[h][i]);
+            }
+        }
+        count += sketch.count;
+        compress();
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count==0;
+    }
+
+    /**
+     * Returns the approximate quantile.
+     * @param q Quantile (0-1)
+     * @return  Approximate value of the quantile, NaN if the sketch is empty
+     */
+    public double getQuantile(double q) {
+        if (count==0) {
+            return Double.NaN;
+        }
+        int total = 0;
+        for (int size : sizes) {
+            total += size;
+        }
+        double[] values = new double[total];
+        long[] weights = new long[total];
+        Integer[] order = new Integer[total];
+        int j = 0;
+        for (int h=0; h<sizes.length; h++) {
+            for (int i=0; i<sizes[h]; i++) {
+                values[j] = levels[h][i];
+                weights[j] = 1L<<h;
+                order[j] = j;
+                j++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        long weight = 0;
+        for (long w : weights) {
+            weight += w;
+        }
+        double rank = q*weight;
+        long cumulative = 0;
+        for (int i : order) {
+            cumulative += weights[i];
+            if (cumulative>=rank) {
+                return values[i];
+            }
+        }
+        return values[order[total-1]];
+    }
+
+    private void append(int level, double value) {
+        while (level>=levels.length) {
+            levels = Arrays.copyOf(levels, levels.length+1);
+            levels[levels.length-1] = new double[8];
+            sizes = Arrays.copyOf(sizes, sizes.length+1);
+        }
+        if (sizes[level]==levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], 2*levels[level].length);
+        }
+        levels[level][sizes[level]++] = value;
+    }
+
+    /**
+     * @param level Level
+     * @return      Capacity of the level, the top level has capacity K
+     */
+    private int capacity(int level) {
+        int depth = levels.length-1-level;
+        return Math.max(2, (int) Math.ceil(K*Math.pow(C, depth)));
+    }
+
+    /**
+     * Compacts the levels exceeding their capacity.
+     */
+    private void compress() {
+        for (int h=0; h<levels.length; h++) {
+            if (sizes[h]<capacity(h)) {
+                continue;
+            }
+            Arrays.sort(levels[h], 0, sizes[h]);
+            int offset = oddOffset ? 1 : 0;
+            oddOffset = ! oddOffset;
+            int promoted = sizes[h] - (sizes[h]&1); // an odd value stays on the level
+            double kept = levels[h][promoted==sizes[h] ? 0 : sizes[h]-1];
+            for (int i=offset; i<promoted; i+=2) {
+                append(h+1, levels[h][i]);
+            }
+            if (promoted!=sizes[h]) {
+                levels[h][0] = kept;
+                sizes[h] = 1;
+            } else {
+                sizes[h] = 0;
+            }
+        }
+    }
+
+}
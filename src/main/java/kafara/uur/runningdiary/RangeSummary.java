@@ -0,0 +1,115 @@
+package kafara.uur.runningdiary;
+
+import javafx.beans.property.*;
+
+import java.time.LocalDate;
+
+/**
+ * Represents a summary of run activities in a changeable date range.
+ * - the sums are read from the runs index, so any range is summarized in O(log n)
+ * - updates with the index updates
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class RangeSummary implements RunsSummary {
+
+    /** Index of all activities */
+    private final RunsIndex runsIndex;
+
+    /** Activities from ... */
+    private final ObjectProperty<LocalDate> from = new SimpleObjectProperty<>();
+    /** Activities to ... */
+    private final ObjectProperty<LocalDate> to = new SimpleObjectProperty<>();
+
+    /** Activities count */
+    private final IntegerProperty runsCount = new SimpleIntegerProperty();
+    /** Total distance of activities */
+    private final DoubleProperty totalDistance = new SimpleDoubleProperty();
+    /** Total duration of activities */
+    private final IntegerProperty totalDuration = new SimpleIntegerProperty();
+    /** Average activity distance */
+    private final DoubleProperty averageDistance = new SimpleDoubleProperty(-1);
+    /** Average activity duration */
+    private final IntegerProperty averageDuration = new SimpleIntegerProperty(-1);
+    /** Average activity evaluation */
+    private final DoubleProperty averageEvaluation = new SimpleDoubleProperty(-1);
+
+    /**
+     * Creates a summary of activities in date range from-to.
+     * @param runsIndex Index of all activities
+     * @param from      From
+     * @param to        To
+     */
+    public RangeSummary(RunsIndex runsIndex, LocalDate from, LocalDate to) {
+        this.runsIndex = runsIndex;
+        runsIndex.versionProperty().addListener(observable -> update());
+        setRange(from, to);
+    }
+
+    /**
+     * Changes the summarized date range.
+     * @param from  From
+     * @param to    To
+     */
+    public void setRange(LocalDate from, LocalDate to) {
+        this.from.set(from);
+        this.to.set(to);
+        update();
+    }
+
+    /**
+     * Reads the sums of the range from the index.
+     */
+    private void update() {
+        double[] sums = runsIndex.getSums(from.get(), to.get());
+        int count = (int) sums[RunsIndex.COUNT];
+        int evaluatedCount = (int) sums[RunsIndex.EVALUATED_COUNT];
+        totalDistance.set(sums[RunsIndex.DISTANCE]);
+        totalDuration.set((int) sums[RunsIndex.DURATION]);
+        averageDistance.set((count>0) ? sums[RunsIndex.DISTANCE]/count : -1);
+        averageDuration.set((count>0) ? (int) sums[RunsIndex.DURATION]/count : -1);
+        averageEvaluation.set((evaluatedCount>0) ? sums[RunsIndex.EVALUATION]/evaluatedCount : -1);
+        runsCount.set(count);
+    }
+
+    @Override
+    public ObjectProperty<LocalDate> fromProperty() {
+        return from;
+    }
+
+    @Override
+    public ObjectProperty<LocalDate> toProperty() {
+        return to;
+    }
+
+    @Override
+    public IntegerProperty runsCountProperty() {
+        return runsCount;
+    }
+
+    @Override
+    public DoubleProperty totalDistanceProperty() {
+        return totalDistance;
+    }
+
+    @Override
+    public IntegerProperty totalDurationProperty() {
+        return totalDuration;
+    }
+
+    @Override
+    public DoubleProperty averageDistanceBinding() {
+        return averageDistance;
+    }
+
+    @Override
+    public IntegerProperty averageDurationBinding() {
+        return averageDuration;
+    }
+
+    @Override
+    public DoubleProperty averageEvaluationBinding() {
+        return averageEvaluation;
+    }
+
+}
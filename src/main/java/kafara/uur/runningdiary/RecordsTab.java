@@ -0,0 +1,121 @@
+package kafara.uur.runningdiary;
+
+import javafx.geometry.Insets;
+import javafx.scene.Node;
+import javafx.scene.control.Tab;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.VBox;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Represents the application "Records"-Tab.
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class RecordsTab extends Tab {
+
+    /** Time of the tree rebuilds */
+    private static final LatencyTimer UPDATE_TIMER = Metrics.timer("RecordsTab.updateRecordsTreeView");
+
+    /** Personal records to be shown */
+    private final PersonalRecords personalRecords;
+    /** Opens the activity */
+    private final Consumer<Run> openRun;
+
+    private TreeView<RunTreeItemWrapper> recordsTV;
+
+    public RecordsTab(PersonalRecords personalRecords, Consumer<Run> openRun) {
+        this.personalRecords = personalRecords;
+        this.openRun = openRun;
+        setText("Records");
+        setClosable(false);
+        BorderPane borderPane = new BorderPane();
+        {
+            VBox vBox = new VBox(16);
+            {
+                vBox.setPadding(new Insets(24));
+            }
+            {
+                vBox.getChildren().addAll(
+                        RunningDiary.getTabTitleLabel("Personal Records"),
+                        getRecordsTreeView()
+                );
+            }
+            borderPane.setCenter(vBox);
+        }
+        setContent(borderPane);
+        personalRecords.versionProperty().addListener(observable -> updateRecordsTreeView());
+        updateRecordsTreeView();
+    }
+
+    private Node getRecordsTreeView() {
+        recordsTV = new TreeView<>();
+        {
+            recordsTV.setShowRoot(false);
+            recordsTV.setOnMouseClicked(event -> {
+                if (event.getClickCount()==2) {
+                    openSelectedRun();
+                }
+            });
+            recordsTV.setOnKeyPressed(event -> {
+                if (event.getCode()==KeyCode.ENTER) {
+                    openSelectedRun();
+                }
+            });
+        }
+        return recordsTV;
+    }
+
+    private void openSelectedRun() {
+        TreeItem<RunTreeItemWrapper> selectedTI = recordsTV.getSelectionModel().getSelectedItem();
+        if (selectedTI==null || selectedTI.getValue().getRun()==null) {
+            return;
+        }
+        openRun.accept(selectedTI.getValue().getRun());
+    }
+
+    /**
+     * Fills the tree with the leaderboards.
+     * - keeps the expanded categories expanded
+     */
+    private void updateRecordsTreeView() {
+        long start = System.nanoTime();
+        TreeItem<RunTreeItemWrapper> oldRoot = recordsTV.getRoot();
+        TreeItem<RunTreeItemWrapper> root = new TreeItem<>();
+        {
+            int c = 0;
+            for (PersonalRecords.Category category : PersonalRecords.Category.values()) {
+                TreeItem<RunTreeItemWrapper> categoryTI = new TreeItem<>(new RunTreeItemWrapper(null, category.toString()));
+                {
+                    categoryTI.setExpanded(oldRoot==null || oldRoot.getChildren().get(c).isExpanded());
+                }
+                {
+                    List<PersonalRecords.Record> leaderboard = personalRecords.getLeaderboard(category);
+                    for (int i=0; i<leaderboard.size(); i++) {
+                        PersonalRecords.Record record = leaderboard.get(i);
+                        categoryTI.getChildren().add(new TreeItem<>(new RunTreeItemWrapper(
+                                record.getRun(),
+                                String.format(
+                                        "%2d.  %-16s  %-12s  %s",
+                                        i+1,
+                                        category.format(record),
+                                        RunDisplay.of(record.getRun()).get(RunDisplay.Field.DATE),
+                                        RunDisplay.of(record.getRun()).get(RunDisplay.Field.LABEL)
+                                )
+                        )));
+                    }
+                }
+                root.getChildren().add(categoryTI);
+                c++;
+            }
+        }
+        recordsTV.setRoot(root);
+        UPDATE_TIMER.recordSince(start);
+    }
+
+}
@@ -4,8 +4,6 @@ import javafx.beans.property.*;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -154,14 +152,13 @@ public class Run {
         return note;
     }
 
+    /**
+     * Returns the tree item label of the activity, formatted once per locale.
+     * @return  Date, distance and duration of the activity
+     */
     @Override
     public String toString() {
-        return String.format(
-                "%-12s  Distance:  %5.2f km  Duration:  %s h",
-                date.format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM)),
-                getDistance(),
-                getDuration().format(DateTimeFormatter.ofPattern("H:mm"))
-        );
+        return RunDisplay.of(this).getSummary();
     }
 
     public static enum Type {
@@ -6,15 +6,12 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
-import javafx.scene.control.cell.TextFieldTableCell;
+import javafx.scene.input.Clipboard;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
-import javafx.util.converter.DoubleStringConverter;
 
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.*;
 
 /**
@@ -27,8 +24,8 @@ public class RunActivityTab extends Tab {
     /** Unlabeled activity label */
     public static final String UNLABELED_ACTIVITY_LABEL = "Unlabeled Activity";
 
-    /** All recorded run activities */
-    private final ObservableList<Run> allRuns;
+    /** Undoable changes of all recorded run activities */
+    private final DiaryHistory history;
     /** All opened application tabs */
     private final ObservableList<Tab> allTabs;
     /** "Activity editing"-Tabs mapped to the activities to be edited. */
@@ -44,13 +41,13 @@ public class RunActivityTab extends Tab {
     private ChoiceBox<Run.Type> typeCB;
     private DatePicker dateDP;
     private Button deleteBT;
-    private TableView<Run.Segment> segmentsTV;
+    private SegmentGrid segmentsTV;
     private ToggleGroup terrainTG;
     private Slider evaluationSL;
     private TextArea noteTA;
 
-    public RunActivityTab(ObservableList<Run> allRuns, ObservableList<Tab> allTabs, HashMap<Run, RunActivityTab> runActivityTabs) {
-        this.allRuns = allRuns;
+    public RunActivityTab(DiaryHistory history, ObservableList<Tab> allTabs, HashMap<Run, RunActivityTab> runActivityTabs) {
+        this.history = history;
         this.allTabs = allTabs;
         this.runActivityTabs = runActivityTabs;
         setContent(getTabContent());
@@ -140,6 +137,16 @@ public class RunActivityTab extends Tab {
         }
     }
 
+    /**
+     * Points the tab to the changed version of the activity (undo, redo, bulk edit), keeps the unsaved changes.
+     * - the unsaved changes are saved over the changed version, or as a new activity if it has been deleted
+     * @param run   Changed version of the activity, null=deleted
+     */
+    public void keepChanges(Run run) {
+        runToBeEdited = run;
+        deleteBT.setVisible(run!=null);
+    }
+
     private Node getRunActivityTop() {
         BorderPane borderPane = new BorderPane();
         {
@@ -222,190 +229,7 @@ public class RunActivityTab extends Tab {
         VBox vBox = new VBox(8);
         {
             Label segmentsLB = new Label("Segments");
-            segmentsTV = new TableView<>();
-            {
-                segmentsTV.setMinHeight(160);
-                segmentsTV.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
-                segmentsTV.setEditable(true);
-            }
-            {
-                TableColumn<Run.Segment, LocalTime> indexCM = new TableColumn<>("Index");
-                {
-                    indexCM.setCellFactory(column -> new IndexCell());
-                }
-                TableColumn<Run.Segment, LocalTime> durationCM = new TableColumn<>("Duration [m:ss]");
-                {
-                    durationCM.setCellValueFactory(new PropertyValueFactory<>("duration"));
-                    durationCM.setCellFactory(column -> new CheckedLabelTableCell<>(
-                            string -> {
-                                if (string.equals("")) {
-                                    return true;
-                                }
-                                try {
-                                    if (isSegmentDurationValidFormat(string)) {
-                                        return true;
-                                    }
-                                } catch (InputMismatchException e) {
-                                    Alert alert = new Alert(Alert.AlertType.WARNING);
-                                    alert.setHeaderText("Invalid Input");
-                                    alert.setContentText(e.getMessage());
-                                    alert.showAndWait();
-                                }
-                                return false;
-                            },
-                            string -> {
-                                if (string.equals("")) {
-                                    return null;
-                                }
-                                String[] parts = string.split(":");
-                                int min = Integer.parseInt(parts[0]);
-                                int sec = Integer.parseInt(parts[1]);
-                                return LocalTime.ofSecondOfDay(60L*min+sec);
-                            },
-                            localTime -> {
-                                if (localTime==null) {
-                                    return "";
-                                }
-                                return String.format(
-                                        "%d:%02d",
-                                        60*localTime.getHour()+localTime.getMinute(),
-                                        localTime.getSecond()
-                                );
-                                //return localTime.format(DateTimeFormatter.ofPattern("m:ss"));
-                            }
-                    ));
-                }
-                TableColumn<Run.Segment, Double> distanceCM = new TableColumn<>("Distance [km]");
-                {
-                    distanceCM.setCellValueFactory(new PropertyValueFactory<>("distance"));
-                    distanceCM.setCellFactory(column -> new CheckedLabelTableCell<>(
-                            string -> {
-                                try {
-                                    if (string.equals("")) {
-                                        return true;
-                                    }
-                                    double distance = Double.parseDouble(string);
-                                    if (distance<=0) {
-                                        return false;
-                                    }
-                                    return true;
-                                } catch (NumberFormatException e) {
-                                    return false;
-                                }
-                            },
-                            s -> {
-                                if (s.equals("")) {
-                                    return -1.0;
-                                }
-                                return Double.parseDouble(s);
-                            },
-                            t -> {
-                                if (t==-1) {
-                                    return "";
-                                }
-                                return t.toString();
-                            }
-                    ));
-                    //distanceCM.setCellFactory(TextFieldTableCell.forTableColumn(new DoubleStringConverter()));
-                }
-                TableColumn<Run.Segment, Integer> hrCM = new TableColumn<>("HR [bpm]");
-                {
-                    hrCM.setCellValueFactory(new PropertyValueFactory<>("hr"));
-                    hrCM.setCellFactory(column -> new CheckedLabelTableCell<>(
-                            string -> {
-                                try {
-                                    if (string.equals("")) {
-                                        return true;
-                                    }
-                                    int hr = Integer.parseInt(string);
-                                    if (hr<=0) {
-                                        return false;
-                                    }
-                                    return true;
-                                } catch (NumberFormatException e) {
-                                    return false;
-                                }
-                            },
-                            string -> {
-                                if (string.equals("")) {
-                                    return -1;
-                                }
-                                return Integer.parseInt(string);
-                            },
-                            integer -> {
-                                if (integer==-1) {
-                                    return "";
-                                }
-                                return integer.toString();
-                            }
-                    ));
-                }
-                TableColumn<Run.Segment, Integer> cadenceCM = new TableColumn<>("Cadence [spm]");
-                {
-                    cadenceCM.setCellValueFactory(new PropertyValueFactory<>("cadence"));
-                    cadenceCM.setCellFactory(column -> new CheckedLabelTableCell<>(
-                            string -> {
-                                try {
-                                    if (string.equals("")) {
-                                        return true;
-                                    }
-                                    int cadence = Integer.parseInt(string);
-                                    if (cadence<=0) {
-                                        return false;
-                                    }
-                                    return true;
-                                } catch (NumberFormatException e) {
-                                    return false;
-                                }
-                            },
-                            string -> {
-                                if (string.equals("")) {
-                                    return -1;
-                                }
-                                return Integer.parseInt(string);
-                            },
-                            integer -> {
-                                if (integer==-1) {
-                                    return "";
-                                }
-                                return integer.toString();
-                            }
-                    ));
-                }
-                TableColumn<Run.Segment, Integer> elevationCM = new TableColumn<>("Elevation [m]");
-                {
-                    elevationCM.setCellValueFactory(new PropertyValueFactory<>("elevation"));
-                    elevationCM.setCellFactory(column -> new CheckedLabelTableCell<>(
-                            string -> {
-                                try {
-                                    if (string.equals("")) {
-                                        return true;
-                                    }
-                                    Integer.parseInt(string);
-                                    return true;
-                                } catch (NumberFormatException e) {
-                                    return false;
-                                }
-                            },
-                            string -> {
-                                if (string.equals("")) {
-                                    return Integer.MIN_VALUE;
-                                }
-                                return Integer.parseInt(string);
-                            },
-                            integer -> {
-                                if (integer==Integer.MIN_VALUE) {
-                                    return "";
-                                }
-                                return integer.toString();
-                            }
-                    ));
-                }
-                segmentsTV.getColumns().addAll(indexCM, durationCM, distanceCM, hrCM, cadenceCM, elevationCM);
-                for (TableColumn column : segmentsTV.getColumns()) {
-                    column.setSortable(false);
-                }
-            }
+            segmentsTV = new SegmentGrid();
             HBox segmentsBT = new HBox(8);
             {
                 segmentsBT.setAlignment(Pos.CENTER_RIGHT);
@@ -415,40 +239,24 @@ public class RunActivityTab extends Tab {
                 {
                     addSegmentBT.setOnAction(event -> addSegment());
                 }
-                Button deleteSegmentBT = new Button("Delete Segment");
+                Button deleteSegmentBT = new Button("Delete Segments");
+                {
+                    deleteSegmentBT.setOnAction(event -> segmentsTV.deleteSelectedSegments());
+                }
+                Button pasteSegmentsBT = new Button("Paste Laps");
                 {
-                    deleteSegmentBT.setOnAction(event -> deleteSelectedSegment());
+                    pasteSegmentsBT.setTooltip(new Tooltip(
+                            "Pastes lines of duration, distance, HR, cadence, elevation (tab, comma or semicolon separated)"
+                    ));
+                    pasteSegmentsBT.setOnAction(event -> segmentsTV.paste(Clipboard.getSystemClipboard().getString()));
                 }
-                segmentsBT.getChildren().addAll(deleteSegmentBT, addSegmentBT);
+                segmentsBT.getChildren().addAll(pasteSegmentsBT, deleteSegmentBT, addSegmentBT);
             }
             vBox.getChildren().addAll(segmentsLB, segmentsTV, segmentsBT);
         }
         return vBox;
     }
 
-    private boolean isSegmentDurationValidFormat(String input) throws InputMismatchException {
-        try {
-            String[] parts = input.split(":");
-            if (parts.length != 2 || parts[1].length() != 2) {
-                throw new InputMismatchException("Duration must be provided in m:ss format.");
-            }
-            int min = Integer.parseInt(parts[0]);
-            int sec = Integer.parseInt(parts[1]);
-            if (min < 0 || sec < 0) {
-                return false;
-            }
-            if (min==0 && sec==0) {
-                return false;
-            }
-            if (min>=24*60) {
-                throw new InputMismatchException("Segment must be shorter than 24 hours.");
-            }
-            return true;
-        } catch (NumberFormatException e) {
-            return false;
-        }
-    }
-
     private Node getRunActivityFormOther() {
         VBox vBox = new VBox(8);
         {
@@ -522,7 +330,7 @@ public class RunActivityTab extends Tab {
 
     /**
      * Deletes the run activity.
-     * - Removes it from (background-)list
+     * - Removes it from (background-)list, the deletion can be undone
      * - Closes the Tab
      */
     private void deleteRunActivity() {
@@ -530,7 +338,7 @@ public class RunActivityTab extends Tab {
         alert.setHeaderText("Are you sure you want to delete this activity?");
         alert.setContentText(
                 String.format(
-                        "Activity *%s (%s)* will be permanently deleted.",
+                        "Activity *%s (%s)* will be deleted. The deletion can be undone in the Edit menu.",
                         runToBeEdited.getLabel()!=null ? runToBeEdited.getLabel() : UNLABELED_ACTIVITY_LABEL, runToBeEdited.getDate()
                 )
         );
@@ -538,7 +346,7 @@ public class RunActivityTab extends Tab {
         alert.getButtonTypes().addAll(ButtonType.YES, ButtonType.NO);
         Optional<ButtonType> buttonType = alert.showAndWait();
         if (buttonType.isPresent() && buttonType.get()==ButtonType.YES) {
-            allRuns.remove(runToBeEdited);
+            history.delete(runToBeEdited);
             allTabs.remove(this);
             runActivityTabs.remove(runToBeEdited);
         }
@@ -551,18 +359,6 @@ public class RunActivityTab extends Tab {
         segmentsTV.getItems().add(new Run.Segment());
     }
 
-    /**
-     * Deletes the selected segment in the tableview.
-     */
-    private void deleteSelectedSegment() {
-        Run.Segment selectedSegment = segmentsTV.getSelectionModel().getSelectedItem();
-        if (selectedSegment==null) {
-            return;
-        }
-        segmentsTV.getItems().remove(selectedSegment);
-        segmentsTV.getSelectionModel().clearSelection();
-    }
-
     /**
      * Saves the run activity.
      * - Replaces the activity to be edited with the new (edited) activity
@@ -592,6 +388,9 @@ public class RunActivityTab extends Tab {
                 return;
             }
         }
+        DiaryEvents.RunActivitySaveEvent event = new DiaryEvents.RunActivitySaveEvent();
+        event.begin();
+        event.created = runToBeEdited==null;
         String label = labelTF.getText();
         if (label.equals("")) {
             label = null;
@@ -606,11 +405,16 @@ public class RunActivityTab extends Tab {
                 (int) evaluationSL.getValue(),
                 noteTA.getText()
         );
-        allRuns.remove(runToBeEdited);
+        if (runToBeEdited==null) {
+            history.add(newRun);
+        } else {
+            history.replace(runToBeEdited, newRun);
+        }
         runActivityTabs.remove(runToBeEdited);
-        allRuns.add(newRun);
         runActivityTabs.put(newRun, this);
         setRunActivity(newRun);
+        event.segments = newRun.getSegments().size();
+        event.commit();
     }
 
     /**
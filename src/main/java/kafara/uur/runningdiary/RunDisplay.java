@@ -0,0 +1,135 @@
+package kafara.uur.runningdiary;
+
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.beans.value.ObservableValue;
+
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Represents the formatted values of a run activity shown in tables, trees and tooltips.
+ * - formatted once per activity and locale, activities are not modified once recorded (an edit replaces the activity)
+ * - the observable values are constant and created once, cell value factories return the same instances
+ * - the displays of removed activities are released with the activities
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class RunDisplay {
+
+    /** Displays by activity, formatted in the locale */
+    private static final Map<Run, RunDisplay> displays = new WeakHashMap<>();
+    /** Locale of the displays */
+    private static Locale locale = null;
+    /** Date format of the locale */
+    private static DateTimeFormatter dateFormatter = null;
+
+    /** Formatted values by field */
+    private final String[] texts = new String[Field.values().length];
+    /** Observable values by field, null if not requested yet */
+    private final List<ObservableValue<String>> observables =
+            new ArrayList<>(Collections.nCopies(Field.values().length, null));
+    /** Tree item label */
+    private final String summary;
+
+    /**
+     * Returns the display of the activity.
+     * - the displays are formatted again if the default locale has changed
+     * @param run   Run activity
+     * @return      Display of the activity
+     */
+    public static synchronized RunDisplay of(Run run) {
+        Locale defaultLocale = Locale.getDefault(Locale.Category.FORMAT);
+        if (! defaultLocale.equals(locale)) {
+            locale = defaultLocale;
+            dateFormatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).withLocale(locale);
+            displays.clear();
+        }
+        RunDisplay display = displays.get(run);
+        if (display==null) {
+            display = new RunDisplay(run);
+            displays.put(run, display);
+        }
+        return display;
+    }
+
+    private RunDisplay(Run run) {
+        int durationSeconds = run.getDuration().toSecondOfDay();
+        double distance = run.getDistance();
+        int hr = run.getHR();
+        texts[Field.DATE.ordinal()] = run.getDate().format(dateFormatter);
+        texts[Field.TYPE.ordinal()] = (run.getType()!=null) ? run.getType().toString() : "";
+        texts[Field.LABEL.ordinal()] = (run.getLabel()!=null) ? run.getLabel() : RunActivityTab.UNLABELED_ACTIVITY_LABEL;
+        texts[Field.DISTANCE.ordinal()] = String.format(locale, "%.2f", distance);
+        texts[Field.DURATION.ordinal()] = String.format(locale, "%d:%02d", durationSeconds/3600, durationSeconds/60%60);
+        if (distance>0) {
+            int pace = (int) (durationSeconds/distance);
+            texts[Field.PACE.ordinal()] = String.format(locale, "%d:%02d", pace/60, pace%60);
+        } else {
+            texts[Field.PACE.ordinal()] = "---";
+        }
+        texts[Field.HR.ordinal()] = (hr!=-1) ? ""+hr : "---";
+        texts[Field.EVALUATION.ordinal()] = (run.getEvaluation()!=-1) ? run.getEvaluation()+" / 10" : "---";
+        summary = String.format(
+                locale,
+                "%-12s  Distance:  %5.2f km  Duration:  %s h",
+                texts[Field.DATE.ordinal()], distance, texts[Field.DURATION.ordinal()]
+        );
+    }
+
+    /**
+     * @param field Field
+     * @return      Formatted value of the field
+     */
+    public String get(Field field) {
+        return texts[field.ordinal()];
+    }
+
+    /**
+     * @param field Field
+     * @return      Constant observable formatted value of the field
+     */
+    public synchronized ObservableValue<String> observable(Field field) {
+        ObservableValue<String> observable = observables.get(field.ordinal());
+        if (observable==null) {
+            observable = new ReadOnlyStringWrapper(texts[field.ordinal()]).getReadOnlyProperty();
+            observables.set(field.ordinal(), observable);
+        }
+        return observable;
+    }
+
+    /**
+     * @return  Date, distance and duration of the activity
+     */
+    public String getSummary() {
+        return summary;
+    }
+
+    /**
+     * Represents a formatted value of an activity.
+     */
+    public static enum Field {
+        /** Localized medium date */
+        DATE,
+        /** Type name */
+        TYPE,
+        /** Label, placeholder if unlabeled */
+        LABEL,
+        /** km, 2 decimals */
+        DISTANCE,
+        /** h:mm */
+        DURATION,
+        /** min:ss per km, --- if no distance */
+        PACE,
+        /** bpm, --- if none */
+        HR,
+        /** x / 10, --- if none */
+        EVALUATION
+    }
+
+}
@@ -0,0 +1,157 @@
+package kafara.uur.runningdiary;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents a structural diff of two versions of a run activity.
+ * - only the changed fields and the changed segments (by position) of both versions are kept
+ * - either version is rebuilt from the other, the unchanged segments are shared (recorded activities are not modified)
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class RunPatch {
+
+    /** Changed fields, bit i is the field i of getFields */
+    private final int changed;
+    /** Changed field values of the versions, ordered by field, only the changed fields */
+    private final Object[] fromValues, toValues;
+    /** Segments count of the versions */
+    private final int fromSegmentsCount, toSegmentsCount;
+    /** Positions of the changed segments, ascending */
+    private final int[] segmentIndices;
+    /** Changed segments of the versions by position in segmentIndices, null if the version has no segment there */
+    private final Run.Segment[] fromSegments, toSegments;
+
+    private RunPatch(
+            int changed, Object[] fromValues, Object[] toValues,
+            int fromSegmentsCount, int toSegmentsCount,
+            int[] segmentIndices, Run.Segment[] fromSegments, Run.Segment[] toSegments
+    ) {
+        this.changed = changed;
+        this.fromValues = fromValues;
+        this.toValues = toValues;
+        this.fromSegmentsCount = fromSegmentsCount;
+        this.toSegmentsCount = toSegmentsCount;
+        this.segmentIndices = segmentIndices;
+        this.fromSegments = fromSegments;
+        this.toSegments = toSegments;
+    }
+
+    /**
+     * Computes the diff of the versions.
+     * @param from  Original version
+     * @param to    Changed version
+     * @return      Diff
+     */
+    public static RunPatch diff(Run from, Run to) {
+        Object[] fromFields = getFields(from), toFields = getFields(to);
+        int changed = 0, changedCount = 0;
+        for (int i=0; i<fromFields.length; i++) {
+            if (! Objects.equals(fromFields[i], toFields[i])) {
+                changed |= 1 << i;
+                changedCount++;
+            }
+        }
+        Object[] fromValues = new Object[changedCount], toValues = new Object[changedCount];
+        for (int i=0, j=0; i<fromFields.length; i++) {
+            if ((changed & (1 << i))!=0) {
+                fromValues[j] = fromFields[i];
+                toValues[j] = toFields[i];
+                j++;
+            }
+        }
+        List<Run.Segment> fromSegments = from.getSegments(), toSegments = to.getSegments();
+        int maxCount = Math.max(fromSegments.size(), toSegments.size());
+        int[] indices = new int[maxCount];
+        int count = 0;
+        for (int i=0; i<maxCount; i++) {
+            Run.Segment fromSegment = (i<fromSegments.size()) ? fromSegments.get(i) : null;
+            Run.Segment toSegment = (i<toSegments.size()) ? toSegments.get(i) : null;
+            if (! isEqual(fromSegment, toSegment)) {
+                indices[count++] = i;
+            }
+        }
+        Run.Segment[] fromChanged = new Run.Segment[count], toChanged = new Run.Segment[count];
+        for (int k=0; k<count; k++) {
+            int i = indices[k];
+            fromChanged[k] = (i<fromSegments.size()) ? fromSegments.get(i) : null;
+            toChanged[k] = (i<toSegments.size()) ? toSegments.get(i) : null;
+        }
+        return new RunPatch(
+                changed, fromValues, toValues,
+                fromSegments.size(), toSegments.size(),
+                Arrays.copyOf(indices, count), fromChanged, toChanged
+        );
+    }
+
+    /**
+     * @param from  Original version
+     * @return      Changed version
+     */
+    public Run apply(Run from) {
+        return rebuild(from, toValues, toSegmentsCount, toSegments);
+    }
+
+    /**
+     * @param to    Changed version
+     * @return      Original version
+     */
+    public Run revert(Run to) {
+        return rebuild(to, fromValues, fromSegmentsCount, fromSegments);
+    }
+
+    /**
+     * Rebuilds a version from the other one.
+     * @param run               The other version
+     * @param values            Changed field values of the version
+     * @param segmentsCount     Segments count of the version
+     * @param changedSegments   Changed segments of the version
+     * @return                  Version
+     */
+    private Run rebuild(Run run, Object[] values, int segmentsCount, Run.Segment[] changedSegments) {
+        Object[] fields = getFields(run);
+        for (int i=0, j=0; i<fields.length; i++) {
+            if ((changed & (1 << i))!=0) {
+                fields[i] = values[j++];
+            }
+        }
+        List<Run.Segment> segments = new ArrayList<>(segmentsCount);
+        for (int i=0, k=0; i<segmentsCount; i++) {
+            if (k<segmentIndices.length && segmentIndices[k]==i) {
+                segments.add(changedSegments[k++]);
+            } else {
+                segments.add(run.getSegments().get(i));
+            }
+        }
+        return new Run(
+                (String) fields[0], (Run.Type) fields[1], (LocalDate) fields[2], segments,
+                (Run.Terrain) fields[3], (Integer) fields[4], (String) fields[5]
+        );
+    }
+
+    /**
+     * @param run   Run activity
+     * @return      Label, type, date, terrain, evaluation, note (the order of the field bits)
+     */
+    private static Object[] getFields(Run run) {
+        return new Object[] {
+                run.getLabel(), run.getType(), run.getDate(), run.getTerrain(), run.getEvaluation(), run.getNote()
+        };
+    }
+
+    private static boolean isEqual(Run.Segment a, Run.Segment b) {
+        if (a==null || b==null) {
+            return a==b;
+        }
+        return Objects.equals(a.getDuration(), b.getDuration())
+                && a.getDistance()==b.getDistance()
+                && a.getHr()==b.getHr()
+                && a.getCadence()==b.getCadence()
+                && a.getElevation()==b.getElevation();
+    }
+
+}
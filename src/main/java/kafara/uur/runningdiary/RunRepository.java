@@ -0,0 +1,248 @@
+package kafara.uur.runningdiary;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Represents the thread-safe access to all recorded activities.
+ * - the mutations may come from any thread, they are queued (lock-free) and applied on the FX thread
+ * - the queued mutations are drained at most once per pulse, coalesced and applied as a single change of the list
+ *   and a single undoable command, added activities of a single call are never split between pulses
+ * - a consistent snapshot of the activities can be read from any thread, it is copied on the FX thread
+ *   when it is first read after the activities changed
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class RunRepository {
+
+    /** Time of the drains */
+    private static final LatencyTimer DRAIN_TIMER = Metrics.timer("RunRepository.drain");
+
+    /** Maximal count of mutations applied in a pulse, the rest waits for the next one, a bulk add is not split */
+    private static final int MAX_BATCH_SIZE = 1 << 16;
+
+    /** All recorded activities, FX thread only */
+    private final DiaryList allRuns;
+    /** Undoable changes of all recorded activities, FX thread only */
+    private final DiaryHistory history;
+    /** Queued mutations */
+    private final ConcurrentLinkedQueue<Mutation> mutations = new ConcurrentLinkedQueue<>();
+    /** Determines whether a pulse is scheduled */
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    /** Activities as of the last change, immutable, null if it has to be copied */
+    private volatile List<Run> snapshot = null;
+
+    private final AnimationTimer pulseTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            pulse();
+        }
+    };
+
+    /**
+     * @param allRuns   All recorded activities
+     * @param history   Undoable changes of all recorded activities, records the drained mutations
+     */
+    public RunRepository(DiaryList allRuns, DiaryHistory history) {
+        this.allRuns = allRuns;
+        this.history = history;
+        allRuns.addListener((InvalidationListener) observable -> snapshot = null);
+    }
+
+    /**
+     * Records the activity, from any thread.
+     * @param run   New activity
+     */
+    public void add(Run run) {
+        enqueue(new Mutation(null, run));
+    }
+
+    /**
+     * Records the activities, from any thread.
+     * - the activities are added by a single change, undone at once (an import)
+     * @param runs  New activities
+     */
+    public void addAll(Collection<Run> runs) {
+        enqueue(new Mutation(List.copyOf(runs)));
+    }
+
+    /**
+     * Deletes the activity, from any thread.
+     * @param run   Recorded activity
+     */
+    public void remove(Run run) {
+        enqueue(new Mutation(run, null));
+    }
+
+    /**
+     * Replaces the activity with its edited version, from any thread.
+     * @param oldRun    Recorded activity
+     * @param newRun    Edited activity
+     */
+    public void replace(Run oldRun, Run newRun) {
+        enqueue(new Mutation(oldRun, newRun));
+    }
+
+    /**
+     * Returns the activities, from any thread.
+     * - outside the FX thread, waits for the FX thread to copy the activities if they changed since the last copy
+     * @return  Activities as of the last applied change, immutable
+     * @throws InterruptedException
+     */
+    public List<Run> getSnapshot() throws InterruptedException {
+        List<Run> runs = snapshot;
+        if (runs!=null) {
+            return runs;
+        }
+        if (Platform.isFxApplicationThread()) {
+            return copySnapshot();
+        }
+        FutureTask<List<Run>> copy = new FutureTask<>(this::copySnapshot);
+        Platform.runLater(copy);
+        try {
+            return copy.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * @return  Copied activities, FX thread only
+     */
+    private List<Run> copySnapshot() {
+        List<Run> runs = snapshot;
+        if (runs==null) {
+            runs = List.copyOf(allRuns);
+            snapshot = runs;
+        }
+        return runs;
+    }
+
+    private void enqueue(Mutation mutation) {
+        mutations.add(mutation);
+        schedule();
+    }
+
+    /**
+     * Schedules a pulse unless one is scheduled.
+     */
+    private void schedule() {
+        if (! scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        if (Platform.isFxApplicationThread()) {
+            pulseTimer.start();
+        } else {
+            Platform.runLater(pulseTimer::start);
+        }
+    }
+
+    /**
+     * Applies the queued mutations.
+     * - the timer is stopped when nothing is left, a mutation queued meanwhile schedules the next pulse
+     */
+    private void pulse() {
+        drain();
+        if (! mutations.isEmpty()) {
+            return;
+        }
+        pulseTimer.stop();
+        scheduled.set(false);
+        if (! mutations.isEmpty()) {
+            schedule();
+        }
+    }
+
+    /**
+     * Applies the queued mutations as a single change, recorded by the history.
+     * - an activity added and removed in the same batch is not added at all, successive edits are one replacement
+     */
+    private void drain() {
+        if (mutations.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        DiaryEvents.RepositoryDrainEvent event = new DiaryEvents.RepositoryDrainEvent();
+        event.begin();
+        Set<Run> removed = new HashSet<>();
+        Map<Run, Run> replaced = new HashMap<>();
+        Set<Run> added = new LinkedHashSet<>();
+        // recorded activity by its latest replacing version
+        Map<Run, Run> originals = new HashMap<>();
+        int count = 0;
+        Mutation mutation;
+        while (count<MAX_BATCH_SIZE && (mutation = mutations.poll())!=null) {
+            if (mutation.addedRuns!=null) {
+                count += mutation.addedRuns.size();
+                added.addAll(mutation.addedRuns);
+                continue;
+            }
+            count++;
+            Run oldRun = mutation.oldRun;
+            Run newRun = mutation.newRun;
+            if (oldRun==null) {
+                added.add(newRun);
+            } else if (added.remove(oldRun)) {
+                if (newRun!=null) {
+                    added.add(newRun);
+                }
+            } else {
+                Run original = originals.containsKey(oldRun) ? originals.remove(oldRun) : oldRun;
+                if (newRun==null) {
+                    replaced.remove(original);
+                    removed.add(original);
+                } else {
+                    replaced.put(original, newRun);
+                    originals.put(newRun, original);
+                }
+            }
+        }
+        history.update(removed, replaced, added);
+        DRAIN_TIMER.recordSince(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.mutations = count;
+            event.removed = removed.size();
+            event.replaced = replaced.size();
+            event.added = added.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Represents a queued mutation, an add if the old activity is null, a remove if the new one is null.
+     */
+    private static class Mutation {
+
+        private final Run oldRun;
+        private final Run newRun;
+        /** Activities added at once, null if a single activity is changed */
+        private final List<Run> addedRuns;
+
+        private Mutation(Run oldRun, Run newRun) {
+            this.oldRun = oldRun;
+            this.newRun = newRun;
+            this.addedRuns = null;
+        }
+
+        private Mutation(List<Run> addedRuns) {
+            this.oldRun = null;
+            this.newRun = null;
+            this.addedRuns = addedRuns;
+        }
+    }
+
+}
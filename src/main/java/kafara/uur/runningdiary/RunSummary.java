@@ -0,0 +1,71 @@
+package kafara.uur.runningdiary;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Represents a summary of a run activity for tables.
+ * - computed once per activity (an edited activity is replaced), the segments are not touched afterwards
+ * - the values are kept as integer sort keys
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class RunSummary {
+
+    /** Order of the types - by name, as shown */
+    private static final int[] TYPE_ORDER = new int[Run.Type.values().length];
+    static {
+        List<Run.Type> types = new ArrayList<>(List.of(Run.Type.values()));
+        types.sort(Comparator.comparing(Run.Type::toString));
+        for (int i=0; i<types.size(); i++) {
+            TYPE_ORDER[types.get(i).ordinal()] = i;
+        }
+    }
+
+    /** Summarized activity */
+    private final Run run;
+    /** Sort keys by Key ordinal */
+    private final int[] keys = new int[Key.values().length];
+
+    public RunSummary(Run run) {
+        this.run = run;
+        double distance = run.getDistance();
+        int duration = run.getDuration().toSecondOfDay();
+        keys[Key.DATE.ordinal()] = (int) run.getDate().toEpochDay();
+        keys[Key.TYPE.ordinal()] = (run.getType()!=null) ? TYPE_ORDER[run.getType().ordinal()] : -1;
+        keys[Key.DISTANCE.ordinal()] = (int) Math.round(1000*distance);
+        keys[Key.DURATION.ordinal()] = duration;
+        keys[Key.PACE.ordinal()] = (distance>0) ? (int) (duration/distance) : -1;
+        keys[Key.HR.ordinal()] = run.getHR();
+        keys[Key.EVALUATION.ordinal()] = run.getEvaluation();
+    }
+
+    public Run getRun() {
+        return run;
+    }
+
+    /**
+     * @param key   Key
+     * @return      Sort key of the activity, -1 if the activity does not contain the value
+     */
+    public int getKey(Key key) {
+        return keys[key.ordinal()];
+    }
+
+    /**
+     * @return  Formatted values of the activity
+     */
+    public RunDisplay getDisplay() {
+        return RunDisplay.of(run);
+    }
+
+    /**
+     * Represents summarized values.
+     * - DATE [epoch day], TYPE [order by name], DISTANCE [m], DURATION [s], PACE [s/km], HR [bpm], EVALUATION
+     */
+    public static enum Key {
+        DATE, TYPE, DISTANCE, DURATION, PACE, HR, EVALUATION
+    }
+
+}
@@ -1,9 +1,8 @@
 package kafara.uur.runningdiary;
 
 import javafx.application.Application;
-import javafx.beans.binding.StringBinding;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
-import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
@@ -12,28 +11,26 @@ import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.IOException;
-import java.net.URLDecoder;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
-import java.time.LocalTime;
-import java.time.Month;
-import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
-import java.time.format.TextStyle;
 import java.util.*;
 
 /**
@@ -45,21 +42,53 @@ public class RunningDiary extends Application {
 
     private static final Path SAVE_FILE_PATH = Paths.get("runningdiary.dat");
 
+    private static final Path ZONES_FILE_PATH = Paths.get("runningdiary-zones.dat");
+
     private static final int RECENT_DAYS = 6;
 
+    private static final int CUSTOM_RANGE_DAYS = 29;
+
+    /** Time of the saves of the diary */
+    private static final LatencyTimer SAVE_TIMER = Metrics.timer("RunningDiary.saveToFile");
+    /** Time of the loads of the diary */
+    private static final LatencyTimer LOAD_TIMER = Metrics.timer("RunningDiary.loadFile");
+
     /** All recorded activities */
-    private ObservableList<Run> allRuns;
+    private DiaryList allRuns;
+    /** Thread-safe access to all recorded activities */
+    private RunRepository repository;
+    /** Changes of all recorded activities, for the subscribers updated outside the FX thread */
+    private DiaryChangePublisher changes;
+    /** Saves the recorded activities as they change */
+    private Autosave autosave;
+    /** Undoable changes of all recorded activities */
+    private DiaryHistory history;
     /** RunsSet of all recorded activities */
     private RunsSet allRunsSet;
     /** RunsSet of recent activities */
     private RunsSet recentRunsSet;
+    /** Range sums index of all recorded activities */
+    private RunsIndex runsIndex;
+    /** Full-text index of all recorded activities */
+    private SearchIndex searchIndex;
+    /** Training load of all recorded activities */
+    private TrainingLoad trainingLoad;
+    /** Personal records of all recorded activities */
+    private PersonalRecords personalRecords;
+    /** Segment distributions of all recorded activities */
+    private SegmentDistributions segmentDistributions;
+    /** Time in training zones of all recorded activities */
+    private TimeInZones timeInZones;
+    /** Cumulative distance of all recorded activities by year */
+    private YearlyDistance yearlyDistance;
 
     private TabPane tabPane;
     /** Maps activities to be edited with editing Tabs */
     private HashMap<Run, RunActivityTab> runActivityTabs;
     private TableView<Run> recentRunsTV;
 
-    private VBox historyTVPane;
+    private HistoryTreeView historyTV;
+    private TextField historySearchTF;
     private CheckBox runTypesVisibleCB;
 
     /**
@@ -78,15 +107,33 @@ public class RunningDiary extends Application {
     @Override
     public void init() throws Exception {
         super.init();
-        allRuns = FXCollections.observableArrayList();
+        allRuns = new DiaryList();
+        Metrics.registerDiary(allRuns);
+        changes = new DiaryChangePublisher(allRuns);
         allRunsSet = new RunsSet(allRuns);
         recentRunsSet = new RunsSet(allRuns, LocalDate.now().minusDays(RECENT_DAYS), LocalDate.now());
+        runsIndex = new RunsIndex(allRuns);
+        searchIndex = new SearchIndex(allRuns);
+        trainingLoad = new TrainingLoad(allRuns);
+        personalRecords = new PersonalRecords(allRuns);
+        segmentDistributions = new SegmentDistributions(allRuns);
+        TrainingZones zones = TrainingZones.DEFAULT;
+        try {
+            zones = loadZonesFile(ZONES_FILE_PATH);
+        } catch (IOException | IllegalArgumentException e) {
+            // default zones
+        }
+        timeInZones = new TimeInZones(allRuns, zones);
+        yearlyDistance = new YearlyDistance(allRuns, changes);
         runActivityTabs = new HashMap<>();
         try {
             loadFile(SAVE_FILE_PATH);
         } catch (IOException e) {
             // allRuns will remain empty
         }
+        history = new DiaryHistory(allRuns);
+        repository = new RunRepository(allRuns, history);
+        autosave = new Autosave(SAVE_FILE_PATH, allRuns, changes);
     }
 
     /**
@@ -96,26 +143,20 @@ public class RunningDiary extends Application {
      * @throws IOException
      */
     private void saveToFile(Path path) throws IOException {
-        try (BufferedWriter bufferedWriter = Files.newBufferedWriter(path)) {
-            for (Run run : allRuns) {
-                bufferedWriter.write(run.getLabel()!=null ? run.getLabel() : "");                   bufferedWriter.newLine();
-                bufferedWriter.write(run.getType().toString());                                     bufferedWriter.newLine();
-                bufferedWriter.write(""+run.getDate().toEpochDay());                            bufferedWriter.newLine();
-                bufferedWriter.write(""+run.getSegments().size());                              bufferedWriter.newLine();
-                for (Run.Segment segment : run.getSegments()) {
-                    bufferedWriter.write(""+segment.getDuration().toSecondOfDay());             bufferedWriter.newLine();
-                    bufferedWriter.write(""+segment.getDistance());                             bufferedWriter.newLine();
-                    bufferedWriter.write(""+segment.getHr());                                   bufferedWriter.newLine();
-                    bufferedWriter.write(""+segment.getCadence());                              bufferedWriter.newLine();
-                    bufferedWriter.write(""+segment.getElevation());                            bufferedWriter.newLine();
-                }
-                bufferedWriter.write(run.getTerrain()!=null ? run.getTerrain().toString() : "");    bufferedWriter.newLine();
-                bufferedWriter.write(""+run.getEvaluation());                                   bufferedWriter.newLine();
-                bufferedWriter.write(
-                        run.getNote()!=null ?
-                                URLEncoder.encode(run.getNote(), StandardCharsets.UTF_8) : ""
-                );                                                                                  bufferedWriter.newLine();
-            }
+        long start = System.nanoTime();
+        DiaryEvents.FileSaveEvent event = new DiaryEvents.FileSaveEvent();
+        event.begin();
+        try {
+            DiaryFile.write(path, allRuns);
+        } finally {
+            SAVE_TIMER.recordSince(start);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.bytes = Files.size(path);
+            event.runs = allRuns.size();
+            event.commit();
         }
     }
 
@@ -125,43 +166,95 @@ public class RunningDiary extends Application {
      * @throws IOException
      */
     private void loadFile(Path path) throws IOException {
-        try (BufferedReader bufferedReader = Files.newBufferedReader(path)) {
+        long start = System.nanoTime();
+        DiaryEvents.FileLoadEvent event = new DiaryEvents.FileLoadEvent();
+        event.begin();
+        try {
+            List<Run> runs = DiaryFile.read(path);
             allRuns.clear();
-            Collection<Run> runs = new ArrayList<>();
-            String label;
-            while ((label=bufferedReader.readLine()) != null) {
-                if (label.equals("")) {
-                    label = null;
-                }
-                String typeString = bufferedReader.readLine();
-                Run.Type type = Arrays.stream(Run.Type.values())
-                                    .filter(t -> t.toString().equals(typeString))
-                                    .findFirst().orElse(null);
-                LocalDate date = LocalDate.ofEpochDay(Long.parseLong(bufferedReader.readLine()));
-                List<Run.Segment> segments = new ArrayList<>();
-                LocalTime duration; double distance; int hr; int cadence; int elevation;
-                int segmentsCount = Integer.parseInt(bufferedReader.readLine());
-                for (int i=0; i<segmentsCount; i++) {
-                    duration = LocalTime.ofSecondOfDay(Long.parseLong(bufferedReader.readLine()));
-                    distance = Double.parseDouble(bufferedReader.readLine());
-                    hr = Integer.parseInt(bufferedReader.readLine());
-                    cadence = Integer.parseInt(bufferedReader.readLine());
-                    elevation = Integer.parseInt(bufferedReader.readLine());
-                    segments.add(new Run.Segment(duration, distance, hr, cadence, elevation));
-                }
-                String terrainString = bufferedReader.readLine();
-                Run.Terrain terrain = Arrays.stream(Run.Terrain.values())
-                                        .filter(t -> t.toString().equals(terrainString))
-                                        .findFirst().orElse(null);
-                int evaluation = Integer.parseInt(bufferedReader.readLine());
-                String note = URLDecoder.decode(bufferedReader.readLine(), StandardCharsets.UTF_8);
-                if (note.equals("")) {
-                    note = null;
+            allRuns.addAll(runs);
+        } finally {
+            LOAD_TIMER.recordSince(start);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = path.toString();
+            event.bytes = Files.size(path);
+            event.runs = allRuns.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Writes the training zone definitions to the zones file.
+     * - HR bounds on the first line, pace bounds on the second line
+     * @param path  Path to zones file
+     * @param zones Zone definitions
+     * @throws IOException
+     */
+    private void saveZonesFile(Path path, TrainingZones zones) throws IOException {
+        try (BufferedWriter bufferedWriter = Files.newBufferedWriter(path)) {
+            bufferedWriter.write(formatBounds(zones.getHrBounds(), false));     bufferedWriter.newLine();
+            bufferedWriter.write(formatBounds(zones.getPaceBounds(), false));   bufferedWriter.newLine();
+        }
+    }
+
+    /**
+     * Reads the training zone definitions from the zones file.
+     * @param path  Path to zones file
+     * @return      Zone definitions
+     * @throws IOException
+     * @throws IllegalArgumentException If the file does not contain valid zone definitions
+     */
+    private TrainingZones loadZonesFile(Path path) throws IOException {
+        try (BufferedReader bufferedReader = Files.newBufferedReader(path)) {
+            return new TrainingZones(
+                    parseBounds(bufferedReader.readLine(), false),
+                    parseBounds(bufferedReader.readLine(), false)
+            );
+        }
+    }
+
+    /**
+     * Formats zone bounds as a comma-separated list.
+     * @param bounds    Bounds
+     * @param pace      True, if the bounds are formatted as m:ss, else false
+     * @return          Formatted bounds
+     */
+    private static String formatBounds(int[] bounds, boolean pace) {
+        StringJoiner joiner = new StringJoiner(", ");
+        for (int bound : bounds) {
+            joiner.add(pace ? String.format("%d:%02d", bound/60, bound%60) : ""+bound);
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Parses a comma-separated list of zone bounds.
+     * @param string    Formatted bounds
+     * @param pace      True, if the bounds are formatted as m:ss, else false
+     * @return          Bounds
+     * @throws IllegalArgumentException If the bounds are not valid
+     */
+    private static int[] parseBounds(String string, boolean pace) {
+        if (string==null) {
+            throw new IllegalArgumentException("Missing zone bounds.");
+        }
+        String[] parts = string.split(",");
+        int[] bounds = new int[parts.length];
+        for (int i=0; i<parts.length; i++) {
+            String part = parts[i].trim();
+            if (pace) {
+                String[] minSec = part.split(":");
+                if (minSec.length!=2) {
+                    throw new IllegalArgumentException("Pace must be provided in m:ss format.");
                 }
-                runs.add(new Run(label, type, date, segments, terrain, evaluation, note));
+                bounds[i] = 60*Integer.parseInt(minSec[0]) + Integer.parseInt(minSec[1]);
+            } else {
+                bounds[i] = Integer.parseInt(part);
             }
-            allRuns.addAll(runs);
         }
+        return bounds;
     }
 
     /**
@@ -208,17 +301,24 @@ public class RunningDiary extends Application {
 
     /**
      * Stops the application.
-     * - saves the recorded activities to the save file
+     * - stops the autosave, then saves the recorded activities to the save file
      * @throws Exception
      */
     @Override
     public void stop() throws Exception {
         super.stop();
+        autosave.close();
+        changes.close();
         try {
             saveToFile(SAVE_FILE_PATH);
         } catch (Exception e) {
             // bad luck
         }
+        try {
+            saveZonesFile(ZONES_FILE_PATH, timeInZones.getZones());
+        } catch (Exception e) {
+            // default zones next time
+        }
     }
 
     private Parent getRootPane() {
@@ -239,13 +339,39 @@ public class RunningDiary extends Application {
                 {
                     newActivityMI.setOnAction(event -> createOpenNewActivityTab());
                 }
+                MenuItem importMI = new MenuItem("_Import Activities...");
+                {
+                    importMI.setOnAction(event -> importActivities());
+                }
+                MenuItem trainingZonesMI = new MenuItem("Training _Zones");
+                {
+                    trainingZonesMI.setOnAction(event -> editTrainingZones());
+                }
                 MenuItem aboutApplicationMI = new MenuItem("_About Application");
                 {
                     aboutApplicationMI.setOnAction(event -> alertAboutApplication());
                 }
-                fileMN.getItems().addAll(newActivityMI, new SeparatorMenuItem(), aboutApplicationMI);
+                fileMN.getItems().addAll(
+                        newActivityMI, importMI, trainingZonesMI, new SeparatorMenuItem(), aboutApplicationMI
+                );
             }
-            menuBar.getMenus().add(fileMN);
+            Menu editMN = new Menu("_Edit");
+            {
+                MenuItem undoMI = new MenuItem("_Undo");
+                {
+                    undoMI.setAccelerator(new KeyCodeCombination(KeyCode.Z, KeyCombination.SHORTCUT_DOWN));
+                    undoMI.disableProperty().bind(history.canUndoProperty().not());
+                    undoMI.setOnAction(event -> history.undo());
+                }
+                MenuItem redoMI = new MenuItem("_Redo");
+                {
+                    redoMI.setAccelerator(new KeyCodeCombination(KeyCode.Y, KeyCombination.SHORTCUT_DOWN));
+                    redoMI.disableProperty().bind(history.canRedoProperty().not());
+                    redoMI.setOnAction(event -> history.redo());
+                }
+                editMN.getItems().addAll(undoMI, redoMI);
+            }
+            menuBar.getMenus().addAll(fileMN, editMN);
         }
         return menuBar;
     }
@@ -256,8 +382,17 @@ public class RunningDiary extends Application {
     private Node getTabPane() {
         tabPane = new TabPane();
         {
-            tabPane.getTabs().addAll(getOverviewTab(), getHistoryTab(), new StatisticsTab(allRuns));
+            tabPane.getTabs().addAll(
+                    getOverviewTab(), getHistoryTab(),
+                    new RunsTab(allRuns, history, searchIndex, this::openRunActivityTab),
+                    new StatisticsTab(
+                            allRuns, trainingLoad, segmentDistributions, timeInZones, yearlyDistance
+                    ),
+                    new RecordsTab(personalRecords, this::openRunActivityTab),
+                    new CalendarTab(allRuns, this::openRunActivityTab)
+            );
         }
+        history.setOnReplaced(this::updateRunActivityTab);
         return tabPane;
     }
 
@@ -302,12 +437,12 @@ public class RunningDiary extends Application {
                         );
                         headerBP.setRight(getRecordNewActivityButton());
                     }
-                    Node summary = new SummaryPane(recentRunsSet);
+                    Node summary = new SummaryPane(recentRunsSet, segmentDistributions);
                     BorderPane activitiesBP = new BorderPane();
                     {
                         activitiesBP.setCenter(getRecentActivitiesTableView());
                     }
-                    vBox.getChildren().addAll(headerBP, summary, activitiesBP);
+                    vBox.getChildren().addAll(headerBP, summary, getCustomRangeSummaryPane(), activitiesBP);
                 }
                 borderPane.setCenter(vBox);
             }
@@ -316,6 +451,64 @@ public class RunningDiary extends Application {
         return tab;
     }
 
+    /**
+     * Creates and returns custom date range summary pane.
+     * - summarized from the runs index, any range is summarized without touching the activities
+     * @return  Custom range summary pane
+     */
+    private Node getCustomRangeSummaryPane() {
+        RangeSummary rangeSummary = new RangeSummary(
+                runsIndex, LocalDate.now().minusDays(CUSTOM_RANGE_DAYS), LocalDate.now()
+        );
+        DatePicker fromDP = new DatePicker(rangeSummary.fromProperty().get());
+        DatePicker toDP = new DatePicker(rangeSummary.toProperty().get());
+        {
+            fromDP.setPrefWidth(128);
+            toDP.setPrefWidth(128);
+            fromDP.setDayCellFactory(dp -> new DateCell() {
+                @Override
+                public void updateItem(LocalDate item, boolean empty) {
+                    super.updateItem(item, empty);
+                    setDisable(empty || item.isAfter(toDP.getValue()));
+                }
+            });
+            toDP.setDayCellFactory(dp -> new DateCell() {
+                @Override
+                public void updateItem(LocalDate item, boolean empty) {
+                    super.updateItem(item, empty);
+                    setDisable(empty || item.isBefore(fromDP.getValue()));
+                }
+            });
+            fromDP.valueProperty().addListener((observable, oldValue, newValue) -> {
+                if (newValue==null || newValue.isAfter(toDP.getValue())) {
+                    fromDP.setValue(oldValue);
+                    return;
+                }
+                rangeSummary.setRange(newValue, toDP.getValue());
+            });
+            toDP.valueProperty().addListener((observable, oldValue, newValue) -> {
+                if (newValue==null || newValue.isBefore(fromDP.getValue())) {
+                    toDP.setValue(oldValue);
+                    return;
+                }
+                rangeSummary.setRange(fromDP.getValue(), newValue);
+            });
+        }
+        VBox vBox = new VBox(16);
+        {
+            HBox rangeHB = new HBox(8, new Label("From:"), fromDP, new Label("To:"), toDP);
+            {
+                rangeHB.setAlignment(Pos.CENTER_LEFT);
+            }
+            vBox.getChildren().addAll(rangeHB, new SummaryPane(rangeSummary, segmentDistributions));
+        }
+        TitledPane titledPane = new TitledPane("Custom Range", vBox);
+        {
+            titledPane.setExpanded(false);
+        }
+        return titledPane;
+    }
+
     /**
      * Creates and returns "Record New Activity"-Button.
      * @return  Record New Activity button
@@ -336,12 +529,79 @@ public class RunningDiary extends Application {
      * Creates and opens new "Activity"-Tab.
      */
     private void createOpenNewActivityTab() {
-        RunActivityTab runActivityTab = new RunActivityTab(allRuns, tabPane.getTabs(), runActivityTabs);
+        RunActivityTab runActivityTab = new RunActivityTab(history, tabPane.getTabs(), runActivityTabs);
         runActivityTabs.put(Run.getEmptyRun(), runActivityTab);
         tabPane.getTabs().add(runActivityTab);
         tabPane.getSelectionModel().select(runActivityTab);
     }
 
+    /**
+     * Imports the activities of a diary file.
+     * - the file is read outside the FX thread, the activities are added by the repository as a single change
+     * - the import is undone at once in the Edit menu
+     */
+    private void importActivities() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Activities");
+        File file = fileChooser.showOpenDialog(tabPane.getScene().getWindow());
+        if (file==null) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                repository.addAll(DiaryFile.read(file.toPath()));
+            } catch (IOException | RuntimeException e) {
+                Platform.runLater(() -> {
+                    Alert alert = new Alert(Alert.AlertType.WARNING);
+                    alert.setHeaderText("Import Failed");
+                    alert.setContentText(String.format("Activities could not be read from %s.", file));
+                    alert.show();
+                });
+            }
+        }, "import-activities");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Lets the user edit the training zone definitions.
+     * - time in zones is recomputed in background
+     */
+    private void editTrainingZones() {
+        TrainingZones zones = timeInZones.getZones();
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.setTitle("Training Zones");
+        dialog.setHeaderText("Bounds of zones 2-5 (comma-separated)");
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        TextField hrTF = new TextField(formatBounds(zones.getHrBounds(), false));
+        TextField paceTF = new TextField(formatBounds(zones.getPaceBounds(), true));
+        GridPane gridPane = new GridPane();
+        {
+            gridPane.setHgap(8);
+            gridPane.setVgap(8);
+            gridPane.addRow(0, new Label("HR [bpm]"), hrTF);
+            gridPane.addRow(1, new Label("Pace [min/km]"), paceTF);
+        }
+        dialog.getDialogPane().setContent(gridPane);
+        Optional<ButtonType> result = dialog.showAndWait();
+        if (result.isEmpty() || result.get()!=ButtonType.OK) {
+            return;
+        }
+        try {
+            timeInZones.setZones(new TrainingZones(
+                    parseBounds(hrTF.getText(), false),
+                    parseBounds(paceTF.getText(), true)
+            ));
+        } catch (IllegalArgumentException e) {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setHeaderText("Invalid input");
+            alert.setContentText(
+                    (e instanceof NumberFormatException) ? "Zone bounds must be numbers." : e.getMessage()
+            );
+            alert.showAndWait();
+        }
+    }
+
     private void alertAboutApplication() {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("About Application");
@@ -358,6 +618,10 @@ public class RunningDiary extends Application {
         recentRunsTV = new TableView<>(recentRunsSet.getSet());
         {
             recentRunsTV.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+            recentRunsTV.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+            recentRunsTV.setContextMenu(new BulkEditMenu(
+                    history, () -> List.copyOf(recentRunsTV.getSelectionModel().getSelectedItems())
+            ));
             recentRunsTV.setOnMouseClicked(event -> {
                 if (event.getClickCount()==2) {
                     openRunActivityTabFromTable();
@@ -370,74 +634,36 @@ public class RunningDiary extends Application {
             });
         }
         {
-            TableColumn<Run, String> dateCM = new TableColumn<>("Date");
-            {
-                dateCM.setCellValueFactory(value -> new StringBinding() {
-                    @Override
-                    protected String computeValue() {
-                        return value.getValue().getDate()
-                                .format(DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM));
-                    }
-                });
-            }
-            TableColumn<Run, Run.Type> typeCM = new TableColumn<>("Type");
-            {
-                typeCM.setCellValueFactory(new PropertyValueFactory<>("type"));
-            }
-            TableColumn<Run, String> distanceCM = new TableColumn<>("Distance [km]");
-            {
-                distanceCM.setCellValueFactory(value -> new StringBinding() {
-                    @Override
-                    protected String computeValue() {
-                        return String.format("%.2f", value.getValue().getDistance());
-                    }
-                });
-            }
-            TableColumn<Run, String> durationCM = new TableColumn<>("Duration [h:mm]");
-            {
-                durationCM.setCellValueFactory(value -> new StringBinding() {
-                    @Override
-                    protected String computeValue() {
-                        return value.getValue().getDuration().format(DateTimeFormatter.ofPattern("H:mm"));
-                    }
-                });
-            }
-            TableColumn<Run, String> paceCM = new TableColumn<>("Pace [min/km]");
-            {
-                paceCM.setCellValueFactory(value -> new StringBinding() {
-                    @Override
-                    protected String computeValue() {
-                        LocalTime pace = value.getValue().getPace();
-                        return String.format(
-                                "%d:%02d",
-                                60*pace.getHour()+pace.getMinute(),
-                                pace.getSecond()
-                        );
-                        //return value.getValue().getPace().format(DateTimeFormatter.ofPattern("m:ss"));
-                    }
-                });
-            }
-            TableColumn<Run, String> hrCM = new TableColumn<>("HR [bpm]");
-            {
-                hrCM.setCellValueFactory(value -> new StringBinding() {
-                    @Override
-                    protected String computeValue() {
-                        int hr = value.getValue().getHR();
-                        return hr!=-1 ? ""+hr : "---";
-                    }
-                });
-            }
+            TableColumn<Run, String> dateCM = getRecentActivitiesColumn("Date", RunDisplay.Field.DATE);
+            TableColumn<Run, String> typeCM = getRecentActivitiesColumn("Type", RunDisplay.Field.TYPE);
+            TableColumn<Run, String> distanceCM = getRecentActivitiesColumn("Distance [km]", RunDisplay.Field.DISTANCE);
+            TableColumn<Run, String> durationCM = getRecentActivitiesColumn("Duration [h:mm]", RunDisplay.Field.DURATION);
+            TableColumn<Run, String> paceCM = getRecentActivitiesColumn("Pace [min/km]", RunDisplay.Field.PACE);
+            TableColumn<Run, String> hrCM = getRecentActivitiesColumn("HR [bpm]", RunDisplay.Field.HR);
             recentRunsTV.getColumns().addAll(dateCM, typeCM, distanceCM, durationCM, paceCM, hrCM);
         }
         return recentRunsTV;
     }
 
+    /**
+     * Creates a "Recent Activities"-TableView column.
+     * - the cell values are the cached displays of the activities
+     * @param title Column title
+     * @param field Shown field
+     * @return      Column
+     */
+    private static TableColumn<Run, String> getRecentActivitiesColumn(String title, RunDisplay.Field field) {
+        TableColumn<Run, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(value -> RunDisplay.of(value.getValue()).observable(field));
+        return column;
+    }
+
     /**
      * Opens new run activity tab for the activity or selects opened one if exists.
      */
     private void openRunActivityTab(Run run) {
         if (! runActivityTabs.containsKey(run)) {
-            RunActivityTab runActivityTab = new RunActivityTab(allRuns, tabPane.getTabs(), runActivityTabs);
+            RunActivityTab runActivityTab = new RunActivityTab(history, tabPane.getTabs(), runActivityTabs);
             runActivityTabs.put(run, runActivityTab);
             runActivityTab.setRunActivity(run);
             tabPane.getTabs().add(runActivityTab);
@@ -447,11 +673,38 @@ public class RunningDiary extends Application {
         }
     }
 
+    /**
+     * Lets an opened run activity tab follow its activity replaced by undo, redo or a bulk edit.
+     * - the tab shows the replacing activity, it is closed if the activity was removed
+     * - a tab with unsaved changes keeps them, it is pointed to the replacing activity, or saves a new one if removed
+     * @param oldRun    Replaced activity, null if added
+     * @param newRun    Replacing activity, null if removed
+     */
+    private void updateRunActivityTab(Run oldRun, Run newRun) {
+        RunActivityTab runActivityTab = (oldRun==null) ? null : runActivityTabs.remove(oldRun);
+        if (runActivityTab==null) {
+            return;
+        }
+        if (runActivityTab.isChanged()) {
+            runActivityTab.keepChanges(newRun);
+            if (newRun!=null) {
+                runActivityTabs.put(newRun, runActivityTab);
+            } // else the tab is registered again when its activity is saved
+            return;
+        }
+        if (newRun==null) {
+            tabPane.getTabs().remove(runActivityTab);
+        } else {
+            runActivityTabs.put(newRun, runActivityTab);
+            runActivityTab.setRunActivity(newRun);
+        }
+    }
+
     private void openRunActivityTabFromTable() {
         Run selectedRun = recentRunsTV.getSelectionModel().getSelectedItem();
         openRunActivityTab(selectedRun);
         /*if (! runActivityTabs.containsKey(selectedRun)) {
-            RunActivityTab runActivityTab = new RunActivityTab(allRuns, tabPane.getTabs(), runActivityTabs);
+            RunActivityTab runActivityTab = new RunActivityTab(history, tabPane.getTabs(), runActivityTabs);
             runActivityTabs.put(selectedRun, runActivityTab);
             runActivityTab.setRunActivity(selectedRun);
             tabPane.getTabs().add(runActivityTab);
@@ -489,12 +742,13 @@ public class RunningDiary extends Application {
                         );
                         headerBP.setRight(getRecordNewActivityButton());
                     }
-                    Node summary = new SummaryPane(allRunsSet);
+                    Node summary = new SummaryPane(allRunsSet, segmentDistributions);
                     BorderPane activitiesBP = new BorderPane();
                     {
-                        historyTVPane = new VBox();
-                        activitiesBP.setCenter(historyTVPane);
-                        allRuns.addListener((ListChangeListener<Run>) c -> updateHistoryTreeView());
+                        historyTV = new HistoryTreeView(allRuns, this::openRunActivityTab);
+                        historyTV.setContextMenu(new BulkEditMenu(history, historyTV::getSelectedRuns));
+                        activitiesBP.setTop(getHistorySearchPane());
+                        activitiesBP.setCenter(historyTV);
                         VBox runTypesVisibleVB = new VBox();
                         {
                             runTypesVisibleVB.setPadding(new Insets(24, 0, 24, 0));
@@ -502,13 +756,14 @@ public class RunningDiary extends Application {
                         {
                             runTypesVisibleCB = new CheckBox("Run Activity Types Visible");
                             {
-                                runTypesVisibleCB.setOnAction(event -> updateHistoryTreeView());
+                                runTypesVisibleCB.setOnAction(
+                                        event -> historyTV.setTypesVisible(runTypesVisibleCB.isSelected())
+                                );
                             }
                             runTypesVisibleVB.getChildren().add(runTypesVisibleCB);
                         }
                         activitiesBP.setBottom(runTypesVisibleVB);
                     }
-                    updateHistoryTreeView();
                     vBox.getChildren().addAll(headerBP, summary, activitiesBP);
                 }
                 borderPane.setCenter(vBox);
@@ -518,102 +773,34 @@ public class RunningDiary extends Application {
         return tab;
     }
 
-    private void updateHistoryTreeView() {
-        TreeView<RunTreeItemWrapper> historyTV = new TreeView<>();
+    /**
+     * Creates and returns history search pane.
+     * - the history is filtered as the query is typed, and when the activities change
+     * @return  History search pane
+     */
+    private Node getHistorySearchPane() {
+        historySearchTF = new TextField();
         {
-            historyTV.setOnMouseClicked(event -> {
-                if (event.getClickCount()!=2 || historyTV.getSelectionModel().getSelectedItem()==null) {
-                    return;
+            historySearchTF.setPromptText("Search labels and notes");
+            historySearchTF.textProperty().addListener(observable -> filterHistoryTreeView());
+            allRuns.addListener((ListChangeListener<Run>) c -> {
+                if (! historySearchTF.getText().isBlank()) {
+                    historyTV.updateFilter(searchIndex.search(historySearchTF.getText()));
                 }
-                RunTreeItemWrapper selectedWrapper = historyTV.getSelectionModel().getSelectedItem().getValue();
-                if (selectedWrapper.getRun()==null) {
-                    return;
-                }
-                openRunActivityTab(selectedWrapper.getRun());
-            });
-            historyTV.setOnKeyPressed(event -> {
-                if (event.getCode()!=KeyCode.ENTER || historyTV.getSelectionModel().getSelectedItem()==null) {
-                    return;
-                }
-                RunTreeItemWrapper selectedWrapper = historyTV.getSelectionModel().getSelectedItem().getValue();
-                if (selectedWrapper.getRun()==null) {
-                    return;
-                }
-                openRunActivityTab(selectedWrapper.getRun());
             });
         }
-        TreeItem<RunTreeItemWrapper> root = new TreeItem<>();
+        HBox hBox = new HBox(8, new Label("Search:"), historySearchTF);
         {
-            int[] years = allRunsSet.getSet().stream()
-                            .mapToInt(run -> run.getDate().getYear())
-                            .distinct()
-                            .sorted().toArray();
-            for (int i=years.length-1; i>=0; i--) {
-                int year = years[i];
-                TreeItem<RunTreeItemWrapper> yearTI =
-                        new TreeItem<>(new RunTreeItemWrapper(null, ""+year));
-                {
-                    List<Run> yearFiltered = allRunsSet.getSet().stream()
-                                                .filter(run -> run.getDate().getYear()==year).toList();
-                    int[] months = yearFiltered.stream()
-                                    .mapToInt(run -> run.getDate().getMonthValue())
-                                    .distinct()
-                                    .sorted().toArray();
-                    for (int j=months.length-1; j>=0; j--) {
-                        int month = months[j];
-                        TreeItem<RunTreeItemWrapper> monthTI =
-                                new TreeItem<>(
-                                        new RunTreeItemWrapper(
-                                                null,
-                                                Month.of(month)
-                                                        .getDisplayName(TextStyle.FULL_STANDALONE, Locale.getDefault()))
-                                );
-                        {
-                            List<Run> monthYearFiltered = yearFiltered.stream()
-                                    .filter(run -> run.getDate().getMonthValue()==month)
-                                    .toList();
-                            List<Run.Type> types = monthYearFiltered.stream()
-                                                    .map(Run::getType)
-                                                    .distinct()
-                                                    .sorted(Comparator.comparing(Run.Type::toString))
-                                                    .toList();
-                            for (Run.Type type : types) {
-                                TreeItem<RunTreeItemWrapper> typeTI =
-                                        new TreeItem<>(new RunTreeItemWrapper(null, type.toString()));
-                                {
-                                    TreeItem<RunTreeItemWrapper> finalTI =
-                                            (runTypesVisibleCB.isSelected()) ? typeTI : monthTI;
-                                    monthYearFiltered.stream()
-                                            .filter(run -> run.getType()==type)
-                                            .forEach(run -> finalTI.getChildren().add(
-                                                    new TreeItem<>(
-                                                            new RunTreeItemWrapper(run, run.toString())
-                                                    )
-                                            ));
-                                }
-                                if (runTypesVisibleCB.isSelected()) {
-                                    monthTI.getChildren().add(typeTI);
-                                }
-                            }
-                        }
-                        yearTI.getChildren().add(monthTI);
-                    }
-                }
-                root.getChildren().add(yearTI);
-            }
+            hBox.setAlignment(Pos.CENTER_LEFT);
+            hBox.setPadding(new Insets(0, 0, 8, 0));
+            HBox.setHgrow(historySearchTF, Priority.ALWAYS);
         }
-        historyTV.setRoot(root);
-        historyTV.setShowRoot(false);
-        TreeItem<RunTreeItemWrapper> latestRunTI = historyTV.getRoot();
-        for (int i=0; i<3; i++) {
-            latestRunTI.setExpanded(true);
-            if (latestRunTI.getChildren().size()==0) {
-                break;
-            }
-            latestRunTI = latestRunTI.getChildren().get(0);
-        }
-        historyTVPane.getChildren().clear();
-        historyTVPane.getChildren().add(historyTV);
+        return hBox;
+    }
+
+    private void filterHistoryTreeView() {
+        String query = historySearchTF.getText();
+        historyTV.setFilter(query.isBlank() ? null : searchIndex.search(query));
     }
 
 }
@@ -0,0 +1,122 @@
+package kafara.uur.runningdiary;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.time.LocalDate;
+
+/**
+ * Represents an index of run activity sums by day.
+ * - one Fenwick tree per sum, the sums of any date range in O(log n)
+ * - an added or removed activity updates its day in O(log n), the trees grow by doubling
+ * - the trees are guarded by the instance lock, the summary tasks query them off the FX thread
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class RunsIndex {
+
+    /** Indexed sums */
+    public static final int DISTANCE = 0, DURATION = 1, COUNT = 2, EVALUATION = 3, EVALUATED_COUNT = 4;
+
+    /** Epoch day of the first indexed day */
+    private long firstDay;
+    /** Sums by day, one tree per indexed sum */
+    private final FenwickTree[] trees = new FenwickTree[5];
+    /** Incremented with every change of the index */
+    private final IntegerProperty version = new SimpleIntegerProperty(0);
+
+    public RunsIndex(ObservableList<Run> allRuns) {
+        for (int i=0; i<trees.length; i++) {
+            trees[i] = new FenwickTree(0);
+        }
+        for (Run run : allRuns) {
+            add(run, 1);
+        }
+        allRuns.addListener((ListChangeListener<Run>) c -> {
+            while (c.next()) {
+                for (Run run : c.getRemoved()) {
+                    add(run, -1);
+                }
+                for (Run run : c.getAddedSubList()) {
+                    add(run, 1);
+                }
+            }
+            version.set(version.get()+1);
+        });
+    }
+
+    /**
+     * Adds the activity to the sums of its day.
+     * @param run   Run activity
+     * @param sign  1 to add, -1 to remove
+     */
+    private synchronized void add(Run run, int sign) {
+        int day = ensureDay(run.getDate().toEpochDay());
+        trees[DISTANCE].add(day, sign*run.getDistance());
+        trees[DURATION].add(day, sign*run.getDuration().toSecondOfDay());
+        trees[COUNT].add(day, sign);
+        if (run.getEvaluation()!=-1) {
+            trees[EVALUATION].add(day, sign*run.getEvaluation());
+            trees[EVALUATED_COUNT].add(day, sign);
+        }
+    }
+
+    /**
+     * Extends the indexed days so that they contain the day.
+     * - the capacity is doubled to keep the rebuilds rare
+     * @param epochDay  Day
+     * @return          Index of the day
+     */
+    private int ensureDay(long epochDay) {
+        int size = trees[0].size();
+        if (size==0) {
+            firstDay = epochDay;
+        }
+        if (epochDay<firstDay) {
+            int shift = (int) Math.max(firstDay-epochDay, size);
+            for (FenwickTree tree : trees) {
+                tree.resize(shift, size+shift);
+            }
+            firstDay -= shift;
+        } else if (epochDay-firstDay>=size) {
+            int newSize = (int) Math.max(epochDay-firstDay+1, 2L*size);
+            for (FenwickTree tree : trees) {
+                tree.resize(0, newSize);
+            }
+        }
+        return (int) (epochDay-firstDay);
+    }
+
+    /**
+     * Returns the sums of the activities in date range from-to.
+     * @param from  From
+     * @param to    To
+     * @return      Sums, indexed by DISTANCE, DURATION, COUNT, EVALUATION, EVALUATED_COUNT
+     */
+    public synchronized double[] getSums(LocalDate from, LocalDate to) {
+        double[] sums = new double[trees.length];
+        int size = trees[0].size();
+        if (size==0) {
+            return sums;
+        }
+        long fromDay = Math.max(from.toEpochDay()-firstDay, 0);
+        long toDay = Math.min(to.toEpochDay()-firstDay, size-1);
+        if (fromDay>toDay) {
+            return sums;
+        }
+        for (int i=0; i<trees.length; i++) {
+            sums[i] = trees[i].sum((int) fromDay, (int) toDay);
+        }
+        return sums;
+    }
+
+    /**
+     * @return  Incremented with every change of the index
+     */
+    public IntegerProperty versionProperty() {
+        return version;
+    }
+
+}
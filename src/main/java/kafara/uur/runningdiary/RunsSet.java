@@ -5,6 +5,8 @@ import javafx.beans.binding.IntegerBinding;
 import javafx.beans.binding.ObjectBinding;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.collections.FXCollections;
@@ -12,8 +14,11 @@ import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 
 /**
@@ -21,7 +26,10 @@ import java.util.function.Predicate;
  * @author  Stanislav Kafara
  * @version 1 2022-05-16
  */
-public class RunsSet {
+public class RunsSet implements RunsSummary {
+
+    /** Time of the updates of the main properties */
+    private static final LatencyTimer UPDATE_TIMER = Metrics.timer("RunsSet.update");
 
     /** Tests whether activity happened between including */
     private final Predicate<Run> IS_BETWEEN_INCLUDING = new Predicate<>() {
@@ -39,6 +47,8 @@ public class RunsSet {
     private final LocalDate from;
     /** Activities to ... */
     private final LocalDate to;
+    /** Constant date range as properties */
+    private final ReadOnlyObjectWrapper<LocalDate> fromProperty, toProperty;
 
     /** Activities count */
     private final IntegerProperty runsCount = new SimpleIntegerProperty();
@@ -46,27 +56,27 @@ public class RunsSet {
     private final DoubleProperty totalDistance = new SimpleDoubleProperty();
     /** Total duration of activities */
     private final IntegerProperty totalDuration = new SimpleIntegerProperty();
-    /** Average activity distance - automatically updates with changes in "Activities count" */
+    /** Average activity distance - automatically updates with changes in "Activities count" and "Total distance" */
     private final DoubleBinding averageDistance = new DoubleBinding() {
         {
-            bind(runsCount); // updates with runsCount update (List - remove, add)
+            bind(runsCount, totalDistance); // updates with runsCount update (List - remove, add) and edits
         }
         @Override
         protected double computeValue() {
             return (runsCount.get()>0) ? totalDistance.get()/runsCount.get() : -1;
         }
     };
-    /** Average activity duration - automatically updates with changes in "Activities count" */
+    /** Average activity duration - automatically updates with changes in "Activities count" and "Total duration" */
     private final IntegerBinding averageDuration = new IntegerBinding() {
         {
-            bind(runsCount);
+            bind(runsCount, totalDuration);
         }
         @Override
         protected int computeValue() {
             return (runsCount.get()>0) ? totalDuration.get()/runsCount.get() : -1;
         }
     };
-    /** Average activity evaluation - automatically updates with changes in "Activities count" */
+    /** Average activity evaluation - automatically updates with changes in "Activities count", invalidated by edits */
     private final DoubleBinding averageEvaluation = new DoubleBinding() {
         {
             bind(runsCount);
@@ -84,7 +94,7 @@ public class RunsSet {
             return -1;
         }
     };
-    /** Oldest activity date - automatically updates with changes in "Activities count" */
+    /** Oldest activity date - automatically updates with changes in "Activities count", invalidated by edits */
     private final ObjectBinding<LocalDate> oldestActivityDate = new ObjectBinding<>() {
         {
             bind(runsCount);
@@ -96,7 +106,7 @@ public class RunsSet {
                     : LocalDate.MIN;
         }
     };
-    /** Latest activity date - automatically updates with changes in "Activities count" */
+    /** Latest activity date - automatically updates with changes in "Activities count", invalidated by edits */
     private final ObjectBinding<LocalDate> latestActivityDate = new ObjectBinding<>() {
         {
             bind(runsCount);
@@ -123,34 +133,51 @@ public class RunsSet {
     public RunsSet(ObservableList<Run> allRuns, LocalDate from, LocalDate to) {
         this.from = from;
         this.to = to;
+        this.fromProperty = new ReadOnlyObjectWrapper<>(from);
+        this.toProperty = new ReadOnlyObjectWrapper<>(to);
         allRuns.addListener(
             (ListChangeListener<Run>) c -> {
-                c.next();
-                set.removeAll(
-                        c.getRemoved().stream()
-                                .filter(IS_BETWEEN_INCLUDING)
-                                .toList()
-                );
-                set.addAll(
-                        c.getAddedSubList().stream()
-                                .filter(IS_BETWEEN_INCLUDING)
-                                .toList()
-                );
+                DiaryEvents.RunsSetUpdateEvent event = new DiaryEvents.RunsSetUpdateEvent();
+                event.begin();
+                Set<Run> removed = new HashSet<>();
+                List<Run> added = new ArrayList<>();
+                while (c.next()) {
+                    c.getRemoved().stream()
+                            .filter(IS_BETWEEN_INCLUDING)
+                            .forEach(removed::add);
+                    c.getAddedSubList().stream()
+                            .filter(IS_BETWEEN_INCLUDING)
+                            .forEach(added::add);
+                }
+                if (removed.isEmpty() && added.isEmpty()) {
+                    return;
+                }
+                set.removeAll(removed);
+                set.addAll(added);
+                set.sort(Comparator.comparing(Run::getDate).reversed());
                 update();
+                event.end();
+                if (event.shouldCommit()) {
+                    event.from = from.toString();
+                    event.to = to.toString();
+                    event.removed = removed.size();
+                    event.added = added.size();
+                    event.size = set.size();
+                    event.commit();
+                }
             }
         );
-        allRuns.addListener(
-                (ListChangeListener<Run>) c ->
-                        set.sort(Comparator.comparing(Run::getDate).reversed())
-        );
         set.addAll(allRuns.stream().filter(IS_BETWEEN_INCLUDING).toList());
+        set.sort(Comparator.comparing(Run::getDate).reversed());
     }
 
     /**
      * Updates main properties.
      * - Other are bound to them
+     * - An edit (replacement) keeps the count, the values not derived from the totals are invalidated
      */
     private void update() {
+        long start = System.nanoTime();
         totalDistance.set(
                 set.stream()
                         .mapToDouble(Run::getDistance)
@@ -162,6 +189,10 @@ public class RunsSet {
                         .sum()
         );
         runsCount.set(set.size());
+        averageEvaluation.invalidate();
+        oldestActivityDate.invalidate();
+        latestActivityDate.invalidate();
+        UPDATE_TIMER.recordSince(start);
     }
 
     /**
@@ -171,26 +202,50 @@ public class RunsSet {
         return FXCollections.unmodifiableObservableList(set);
     }
 
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    @Override
+    public ReadOnlyObjectProperty<LocalDate> fromProperty() {
+        return fromProperty.getReadOnlyProperty();
+    }
+
+    @Override
+    public ReadOnlyObjectProperty<LocalDate> toProperty() {
+        return toProperty.getReadOnlyProperty();
+    }
+
+    @Override
     public IntegerProperty runsCountProperty() {
         return runsCount;
     }
 
+    @Override
     public DoubleProperty totalDistanceProperty() {
         return totalDistance;
     }
 
+    @Override
     public IntegerProperty totalDurationProperty() {
         return totalDuration;
     }
 
+    @Override
     public DoubleBinding averageDistanceBinding() {
         return averageDistance;
     }
 
+    @Override
     public IntegerBinding averageDurationBinding() {
         return averageDuration;
     }
 
+    @Override
     public DoubleBinding averageEvaluationBinding() {
         return averageEvaluation;
     }
@@ -0,0 +1,43 @@
+package kafara.uur.runningdiary;
+
+import javafx.beans.binding.DoubleExpression;
+import javafx.beans.binding.IntegerExpression;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.value.ObservableValue;
+
+import java.time.LocalDate;
+
+/**
+ * Represents a summary of run activities in a date range.
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public interface RunsSummary {
+
+    ObservableValue<LocalDate> fromProperty();
+
+    ObservableValue<LocalDate> toProperty();
+
+    ReadOnlyIntegerProperty runsCountProperty();
+
+    ReadOnlyDoubleProperty totalDistanceProperty();
+
+    ReadOnlyIntegerProperty totalDurationProperty();
+
+    /**
+     * @return  Average activity distance, -1 if there are no activities
+     */
+    DoubleExpression averageDistanceBinding();
+
+    /**
+     * @return  Average activity duration, -1 if there are no activities
+     */
+    IntegerExpression averageDurationBinding();
+
+    /**
+     * @return  Average activity evaluation, -1 if there are no evaluated activities
+     */
+    DoubleExpression averageEvaluationBinding();
+
+}
@@ -0,0 +1,308 @@
+package kafara.uur.runningdiary;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Represents the application "Activities"-Tab.
+ * - a table of all recorded activities, sortable by any column and filterable
+ * - sorted by the integer keys of the run summaries, the permutation of a column is computed once per change of the activities
+ * - sorted by more columns, the ties of a column are ordered by the next one
+ * - multiple activities can be selected and edited at once
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class RunsTab extends Tab {
+
+    /** Time of the updates of the shown rows */
+    private static final LatencyTimer UPDATE_TIMER = Metrics.timer("RunsTab.updateItems");
+
+    /** Undoable changes of all recorded activities */
+    private final DiaryHistory history;
+    /** Full-text index of all recorded activities */
+    private final SearchIndex searchIndex;
+    /** Opens the activity */
+    private final Consumer<Run> openRun;
+
+    /** Summaries of all recorded activities, unordered */
+    private final List<RunSummary> rows = new ArrayList<>();
+    /** Positions of the activities in rows */
+    private final Map<Run, Integer> rowIndices = new HashMap<>();
+    /** Ascending permutations of rows by key, null if not computed */
+    private final int[][] permutations = new int[RunSummary.Key.values().length][];
+    /** Sort keys and types of the permutation of rows sorted by more columns, null if not computed */
+    private List<String> sortedBy = null;
+    /** Permutation of rows sorted by more columns */
+    private int[] sortedPermutation;
+    /** Determines whether the shown rows are outdated */
+    private boolean outdated = false;
+
+    /** Shown rows */
+    private final ObservableList<RunSummary> items = FXCollections.observableArrayList();
+    private TableView<RunSummary> runsTV;
+    private TextField searchTF;
+    private ChoiceBox<Run.Type> typeCB;
+
+    public RunsTab(ObservableList<Run> allRuns, DiaryHistory history, SearchIndex searchIndex, Consumer<Run> openRun) {
+        this.history = history;
+        this.searchIndex = searchIndex;
+        this.openRun = openRun;
+        setText("Activities");
+        setClosable(false);
+        BorderPane borderPane = new BorderPane();
+        {
+            VBox vBox = new VBox(16);
+            {
+                vBox.setPadding(new Insets(24));
+            }
+            {
+                Node filter = getFilterPane();
+                Node table = getRunsTableView();
+                VBox.setVgrow(table, Priority.ALWAYS);
+                vBox.getChildren().addAll(RunningDiary.getTabTitleLabel("All Activities"), filter, table);
+            }
+            borderPane.setCenter(vBox);
+        }
+        setContent(borderPane);
+        for (Run run : allRuns) {
+            addRow(run);
+        }
+        allRuns.addListener((ListChangeListener<Run>) c -> {
+            while (c.next()) {
+                for (Run run : c.getRemoved()) {
+                    removeRow(run);
+                }
+                for (Run run : c.getAddedSubList()) {
+                    addRow(run);
+                }
+            }
+            Arrays.fill(permutations, null);
+            sortedBy = null;
+            outdated = true;
+            if (isSelected()) {
+                updateItems();
+            }
+        });
+        setOnSelectionChanged(event -> {
+            if (isSelected() && outdated) {
+                updateItems();
+            }
+        });
+        updateItems();
+    }
+
+    private Node getFilterPane() {
+        searchTF = new TextField();
+        {
+            searchTF.setPromptText("Search labels and notes");
+            searchTF.textProperty().addListener(observable -> updateItems());
+            HBox.setHgrow(searchTF, Priority.ALWAYS);
+        }
+        typeCB = new ChoiceBox<>();
+        {
+            typeCB.getItems().add(null);
+            typeCB.getItems().addAll(Run.Type.values());
+            typeCB.setConverter(new StringConverter<>() {
+                @Override
+                public String toString(Run.Type type) {
+                    return (type!=null) ? type.toString() : "All Types";
+                }
+                @Override
+                public Run.Type fromString(String string) {
+                    return null;
+                }
+            });
+            typeCB.setValue(null);
+            typeCB.setOnAction(event -> updateItems());
+        }
+        HBox hBox = new HBox(8, new Label("Search:"), searchTF, new Label("Type:"), typeCB);
+        {
+            hBox.setAlignment(Pos.CENTER_LEFT);
+        }
+        return hBox;
+    }
+
+    private Node getRunsTableView() {
+        runsTV = new TableView<>(items);
+        {
+            runsTV.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+            runsTV.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+            runsTV.setContextMenu(new BulkEditMenu(
+                    history, () -> runsTV.getSelectionModel().getSelectedItems().stream().map(RunSummary::getRun).toList()
+            ));
+            runsTV.setSortPolicy(tableView -> {
+                updateItems();
+                return true;
+            });
+            runsTV.setOnMouseClicked(event -> {
+                if (event.getClickCount()==2) {
+                    openSelectedRun();
+                }
+            });
+            runsTV.setOnKeyPressed(event -> {
+                if (event.getCode()==KeyCode.ENTER) {
+                    openSelectedRun();
+                }
+            });
+        }
+        runsTV.getColumns().addAll(List.of(
+                getColumn("Date", RunSummary.Key.DATE, RunDisplay.Field.DATE),
+                getColumn("Type", RunSummary.Key.TYPE, RunDisplay.Field.TYPE),
+                getColumn("Label", null, RunDisplay.Field.LABEL),
+                getColumn("Distance [km]", RunSummary.Key.DISTANCE, RunDisplay.Field.DISTANCE),
+                getColumn("Duration [h:mm]", RunSummary.Key.DURATION, RunDisplay.Field.DURATION),
+                getColumn("Pace [min/km]", RunSummary.Key.PACE, RunDisplay.Field.PACE),
+                getColumn("HR [bpm]", RunSummary.Key.HR, RunDisplay.Field.HR),
+                getColumn("Evaluation", RunSummary.Key.EVALUATION, RunDisplay.Field.EVALUATION)
+        ));
+        return runsTV;
+    }
+
+    /**
+     * Creates a column showing the formatted value of the activities.
+     * - the cell values are the cached displays of the activities
+     * @param title Column title
+     * @param key   Sort key, null if the column is not sortable
+     * @param field Shown field
+     * @return      Column
+     */
+    private TableColumn<RunSummary, String> getColumn(String title, RunSummary.Key key, RunDisplay.Field field) {
+        TableColumn<RunSummary, String> column = new TableColumn<>(title);
+        column.setUserData(key);
+        column.setSortable(key!=null);
+        column.setCellValueFactory(value -> value.getValue().getDisplay().observable(field));
+        return column;
+    }
+
+    private void openSelectedRun() {
+        RunSummary selected = runsTV.getSelectionModel().getSelectedItem();
+        if (selected!=null) {
+            openRun.accept(selected.getRun());
+        }
+    }
+
+    private void addRow(Run run) {
+        rowIndices.put(run, rows.size());
+        rows.add(new RunSummary(run));
+    }
+
+    /**
+     * Removes the row, the last row is moved in its place.
+     * @param run   Run activity
+     */
+    private void removeRow(Run run) {
+        Integer i = rowIndices.remove(run);
+        if (i==null) {
+            return;
+        }
+        RunSummary last = rows.remove(rows.size()-1);
+        if (i<rows.size()) {
+            rows.set(i, last);
+            rowIndices.put(last.getRun(), i);
+        }
+    }
+
+    /**
+     * Returns the rows ordered by the key.
+     * - sorted as packed primitive keys, ties are kept in row order
+     * @param key   Key
+     * @return      Ascending permutation of rows
+     */
+    private int[] getPermutation(RunSummary.Key key) {
+        int[] permutation = permutations[key.ordinal()];
+        if (permutation!=null) {
+            return permutation;
+        }
+        long[] packed = new long[rows.size()];
+        for (int i=0; i<packed.length; i++) {
+            packed[i] = ((long) rows.get(i).getKey(key) << 32) | i;
+        }
+        Arrays.sort(packed);
+        permutation = new int[packed.length];
+        for (int i=0; i<packed.length; i++) {
+            permutation[i] = (int) packed[i];
+        }
+        permutations[key.ordinal()] = permutation;
+        return permutation;
+    }
+
+    /**
+     * Returns the rows ordered by the sorted columns, the ties of a column by the next one.
+     * - sorted by a comparator chain, kept until the activities or the sort order change
+     * @param sortOrder Sorted columns, at least two
+     * @return          Permutation of rows in the shown order
+     */
+    private int[] getPermutation(List<TableColumn<RunSummary, ?>> sortOrder) {
+        List<String> by = new ArrayList<>();
+        Comparator<Integer> comparator = null;
+        for (TableColumn<RunSummary, ?> column : sortOrder) {
+            RunSummary.Key key = (RunSummary.Key) column.getUserData();
+            by.add(key+" "+column.getSortType());
+            Comparator<Integer> byKey = Comparator.comparingInt(i -> rows.get(i).getKey(key));
+            if (column.getSortType()==TableColumn.SortType.DESCENDING) {
+                byKey = byKey.reversed();
+            }
+            comparator = (comparator==null) ? byKey : comparator.thenComparing(byKey);
+        }
+        if (by.equals(sortedBy)) {
+            return sortedPermutation;
+        }
+        Integer[] permutation = new Integer[rows.size()];
+        for (int i=0; i<permutation.length; i++) {
+            permutation[i] = i;
+        }
+        Arrays.sort(permutation, comparator);
+        sortedBy = by;
+        sortedPermutation = Arrays.stream(permutation).mapToInt(Integer::intValue).toArray();
+        return sortedPermutation;
+    }
+
+    /**
+     * Shows the filtered rows in the order of the sorted columns.
+     * - the latest activities first if no column is sorted
+     */
+    private void updateItems() {
+        long start = System.nanoTime();
+        List<TableColumn<RunSummary, ?>> sortOrder = runsTV.getSortOrder();
+        int[] permutation;
+        boolean ascending = true;
+        if (sortOrder.size()>1) {
+            permutation = getPermutation(sortOrder);
+        } else {
+            RunSummary.Key key = RunSummary.Key.DATE;
+            ascending = false;
+            if (! sortOrder.isEmpty()) {
+                key = (RunSummary.Key) sortOrder.get(0).getUserData();
+                ascending = sortOrder.get(0).getSortType()==TableColumn.SortType.ASCENDING;
+            }
+            permutation = getPermutation(key);
+        }
+        Set<Run> found = searchTF.getText().isBlank() ? null : new HashSet<>(searchIndex.search(searchTF.getText()));
+        Run.Type type = typeCB.getValue();
+        List<RunSummary> shown = new ArrayList<>((found!=null) ? found.size() : rows.size());
+        for (int j=0; j<permutation.length; j++) {
+            RunSummary row = rows.get(permutation[ascending ? j : permutation.length-1-j]);
+            if ((found==null || found.contains(row.getRun())) && (type==null || row.getRun().getType()==type)) {
+                shown.add(row);
+            }
+        }
+        items.setAll(shown);
+        outdated = false;
+        UPDATE_TIMER.recordSince(start);
+    }
+
+}
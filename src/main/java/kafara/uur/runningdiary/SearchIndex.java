@@ -0,0 +1,278 @@
+package kafara.uur.runningdiary;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Represents a full-text index of run activity labels and notes.
+ * - an inverted index from words to sorted activity ids, words are ordered, so a prefix is a range of words
+ * - words are matched case and diacritics insensitive
+ * - results are intersected and ranked on primitive ids and dates, no activity is compared
+ * - a list change re-indexes only the words of its activities
+ * - indexing and searching hold the instance lock, a search never sees a half indexed activity
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class SearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    /** Activity ids by word, ascending */
+    private final TreeMap<String, IdList> postings = new TreeMap<>();
+    /** Ids of the indexed activities */
+    private final Map<Run, Integer> ids = new HashMap<>();
+    /** Activities by id */
+    private Run[] runs = new Run[64];
+    /** Epoch days of the activities by id */
+    private long[] days = new long[64];
+    /** Words of the activities by id */
+    private String[][] words = new String[64][];
+    /** Ids of removed activities to be reused */
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    /** Count of ever assigned ids */
+    private int idsCount = 0;
+
+    public SearchIndex(ObservableList<Run> allRuns) {
+        for (Run run : allRuns) {
+            add(run);
+        }
+        allRuns.addListener((ListChangeListener<Run>) c -> {
+            while (c.next()) {
+                for (Run run : c.getRemoved()) {
+                    remove(run);
+                }
+                for (Run run : c.getAddedSubList()) {
+                    add(run);
+                }
+            }
+        });
+    }
+
+    private synchronized void add(Run run) {
+        Set<String> runWords = new HashSet<>();
+        tokenize(run.getLabel(), runWords);
+        tokenize(run.getNote(), runWords);
+        if (runWords.isEmpty() || ids.containsKey(run)) {
+            return;
+        }
+        int id;
+        if (! freeIds.isEmpty()) {
+            id = freeIds.pop();
+        } else {
+            id = idsCount++;
+            if (id==runs.length) {
+                runs = Arrays.copyOf(runs, 2*id);
+                days = Arrays.copyOf(days, 2*id);
+                words = Arrays.copyOf(words, 2*id);
+            }
+        }
+        ids.put(run, id);
+        runs[id] = run;
+        days[id] = run.getDate().toEpochDay();
+        words[id] = runWords.toArray(new String[0]);
+        for (String word : words[id]) {
+            postings.computeIfAbsent(word, w -> new IdList()).insert(id);
+        }
+    }
+
+    private synchronized void remove(Run run) {
+        Integer id = ids.remove(run);
+        if (id==null) {
+            return;
+        }
+        for (String word : words[id]) {
+            IdList wordIds = postings.get(word);
+            wordIds.delete(id);
+            if (wordIds.size==0) {
+                postings.remove(word);
+            }
+        }
+        runs[id] = null;
+        words[id] = null;
+        freeIds.push(id);
+    }
+
+    /**
+     * Finds the activities containing all the query words.
+     * - the last query word may be a prefix (it is being typed), the others are whole words
+     * @param query Query
+     * @return      Matching activities from the latest, empty if the query has no words
+     */
+    public synchronized List<Run> search(String query) {
+        List<String> queryWords = new ArrayList<>(tokenize(query, new LinkedHashSet<>()));
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+        boolean prefix = Character.isLetterOrDigit(query.charAt(query.length()-1));
+        List<int[]> matches = new ArrayList<>();
+        for (int i=0; i<queryWords.size(); i++) {
+            String word = queryWords.get(i);
+            int[] wordIds;
+            if (prefix && i==queryWords.size()-1) {
+                wordIds = union(postings.subMap(word, word+Character.MAX_VALUE).values(), idsCount);
+            } else {
+                IdList wordList = postings.get(word);
+                wordIds = (wordList!=null) ? Arrays.copyOf(wordList.values, wordList.size) : new int[0];
+            }
+            if (wordIds.length==0) {
+                return List.of();
+            }
+            matches.add(wordIds);
+        }
+        matches.sort(Comparator.comparingInt(m -> m.length)); // intersect from the rarest word
+        int[] result = matches.get(0);
+        for (int i=1; i<matches.size() && result.length>0; i++) {
+            result = intersect(result, matches.get(i));
+        }
+        List<Run> found = new ArrayList<>(result.length);
+        for (int id : rankByRecency(result)) {
+            found.add(runs[id]);
+        }
+        return found;
+    }
+
+    /**
+     * Orders the ids from the latest activity.
+     * - counting sort by day, the days of the results are usually a narrow range
+     * @param ids   Ids
+     * @return      Ordered ids
+     */
+    private int[] rankByRecency(int[] ids) {
+        long minDay = Long.MAX_VALUE, maxDay = Long.MIN_VALUE;
+        for (int id : ids) {
+            minDay = Math.min(minDay, days[id]);
+            maxDay = Math.max(maxDay, days[id]);
+        }
+        if (ids.length==0 || maxDay-minDay>4L*ids.length+1024) {
+            long[] ranked = new long[ids.length];
+            for (int i=0; i<ids.length; i++) {
+                ranked[i] = (days[ids[i]]<<32) | ids[i];
+            }
+            Arrays.sort(ranked);
+            int[] ordered = new int[ids.length];
+            for (int i=0; i<ids.length; i++) {
+                ordered[i] = (int) ranked[ids.length-1-i];
+            }
+            return ordered;
+        }
+        int[] starts = new int[(int) (maxDay-minDay)+2];
+        for (int id : ids) {
+            starts[(int) (maxDay-days[id])+1]++;
+        }
+        for (int i=1; i<starts.length; i++) {
+            starts[i] += starts[i-1];
+        }
+        int[] ordered = new int[ids.length];
+        for (int id : ids) {
+            ordered[starts[(int) (maxDay-days[id])]++] = id;
+        }
+        return ordered;
+    }
+
+    /**
+     * @param lists     Sorted ids
+     * @param idsCount  Count of assigned ids
+     * @return          Sorted ids contained in any of the lists
+     */
+    private static int[] union(Collection<IdList> lists, int idsCount) {
+        if (lists.size()==1) {
+            IdList list = lists.iterator().next();
+            return Arrays.copyOf(list.values, list.size);
+        }
+        BitSet union = new BitSet(idsCount);
+        for (IdList list : lists) {
+            for (int i=0; i<list.size; i++) {
+                union.set(list.values[i]);
+            }
+        }
+        return union.stream().toArray();
+    }
+
+    /**
+     * @param a Sorted ids
+     * @param b Sorted ids
+     * @return  Sorted ids contained in both
+     */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] both = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        for (int i=0, j=0; i<a.length && j<b.length; ) {
+            if (a[i]<b[j]) {
+                i++;
+            } else if (a[i]>b[j]) {
+                j++;
+            } else {
+                both[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(both, count);
+    }
+
+    /**
+     * Splits the text into lower case words without diacritics.
+     * @param text      Text, may be null
+     * @param tokens    Words are added to
+     * @return          Words
+     */
+    static <T extends Collection<String>> T tokenize(String text, T tokens) {
+        if (text==null || text.isBlank()) {
+            return tokens;
+        }
+        boolean ascii = true;
+        for (int i=0; i<text.length() && ascii; i++) {
+            ascii = text.charAt(i)<128;
+        }
+        String normalized = ascii ?
+                text : DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        int start = -1;
+        for (int i=0; i<=normalized.length(); i++) {
+            boolean letter = i<normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start==-1) {
+                start = i;
+            } else if (! letter && start!=-1) {
+                tokens.add(normalized.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Represents a sorted list of activity ids.
+     */
+    private static class IdList {
+
+        private int[] values = new int[2];
+        private int size = 0;
+
+        private void insert(int id) {
+            int i = Arrays.binarySearch(values, 0, size, id);
+            if (i>=0) {
+                return;
+            }
+            i = -i-1;
+            if (size==values.length) {
+                values = Arrays.copyOf(values, 2*size);
+            }
+            System.arraycopy(values, i, values, i+1, size-i);
+            values[i] = id;
+            size++;
+        }
+
+        private void delete(int id) {
+            int i = Arrays.binarySearch(values, 0, size, id);
+            if (i<0) {
+                return;
+            }
+            System.arraycopy(values, i+1, values, i, size-i-1);
+            size--;
+        }
+    }
+
+}
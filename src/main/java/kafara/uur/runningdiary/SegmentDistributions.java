@@ -0,0 +1,252 @@
+package kafara.uur.runningdiary;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Represents distributions of segment pace, HR and cadence.
+ * - quantile sketches and fixed-bin histograms are kept per day and merged for any date range
+ * - whole months are merged from per-month summaries, so the segments are never touched by a query
+ * - a list change rebuilds only the summaries of its days and drops their cached months
+ * - the summaries are guarded by the instance lock, the distribution task merges them off the FX thread
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class SegmentDistributions {
+
+    /** Activities by epoch day */
+    private final Map<Long, List<Run>> runsByDay = new HashMap<>();
+    /** Summaries by epoch day */
+    private final TreeMap<Long, Distribution> days = new TreeMap<>();
+    /** Summaries by month (12*year + month-1), computed when needed */
+    private final Map<Long, Distribution> months = new HashMap<>();
+    /** Incremented with every change of the distributions */
+    private final IntegerProperty version = new SimpleIntegerProperty(0);
+
+    public SegmentDistributions(ObservableList<Run> allRuns) {
+        for (Run run : allRuns) {
+            runsByDay.computeIfAbsent(run.getDate().toEpochDay(), day -> new ArrayList<>()).add(run);
+        }
+        for (Long day : runsByDay.keySet()) {
+            update(day);
+        }
+        allRuns.addListener((ListChangeListener<Run>) c -> {
+            Set<Long> changedDays = new HashSet<>();
+            while (c.next()) {
+                for (Run run : c.getRemoved()) {
+                    long day = run.getDate().toEpochDay();
+                    List<Run> dayRuns = runsByDay.get(day);
+                    if (dayRuns!=null) {
+                        dayRuns.remove(run);
+                    }
+                    changedDays.add(day);
+                }
+                for (Run run : c.getAddedSubList()) {
+                    long day = run.getDate().toEpochDay();
+                    runsByDay.computeIfAbsent(day, d -> new ArrayList<>()).add(run);
+                    changedDays.add(day);
+                }
+            }
+            for (Long day : changedDays) {
+                update(day);
+            }
+            version.set(version.get()+1);
+        });
+    }
+
+    /**
+     * Rebuilds the summary of the day from its activities.
+     * @param day   Epoch day
+     */
+    private synchronized void update(long day) {
+        List<Run> dayRuns = runsByDay.get(day);
+        months.remove(getMonth(day));
+        if (dayRuns==null || dayRuns.isEmpty()) {
+            runsByDay.remove(day);
+            days.remove(day);
+            return;
+        }
+        Distribution distribution = new Distribution();
+        for (Run run : dayRuns) {
+            for (Run.Segment segment : run.getSegments()) {
+                distribution.add(segment);
+            }
+        }
+        days.put(day, distribution);
+    }
+
+    private static long getMonth(long day) {
+        LocalDate date = LocalDate.ofEpochDay(day);
+        return 12L*date.getYear() + date.getMonthValue()-1;
+    }
+
+    /**
+     * Returns the distributions of the segments in date range from-to.
+     * @param from  From
+     * @param to    To
+     * @return      Merged distributions
+     */
+    public synchronized Distribution getDistribution(LocalDate from, LocalDate to) {
+        Distribution distribution = new Distribution();
+        if (days.isEmpty()) {
+            return distribution;
+        }
+        long fromDay = Math.max(from.toEpochDay(), days.firstKey());
+        long toDay = Math.min(to.toEpochDay(), days.lastKey());
+        if (fromDay>toDay) {
+            return distribution;
+        }
+        LocalDate monthStart = LocalDate.ofEpochDay(fromDay).withDayOfMonth(1);
+        while (monthStart.toEpochDay()<=toDay) {
+            long monthFrom = monthStart.toEpochDay();
+            LocalDate nextMonthStart = monthStart.plusMonths(1);
+            long monthTo = nextMonthStart.toEpochDay()-1;
+            if (monthFrom>=fromDay && monthTo<=toDay) {
+                distribution.merge(getMonthDistribution(monthFrom, monthTo));
+            } else {
+                for (Distribution day : days.subMap(Math.max(monthFrom, fromDay), true, Math.min(monthTo, toDay), true).values()) {
+                    distribution.merge(day);
+                }
+            }
+            monthStart = nextMonthStart;
+        }
+        return distribution;
+    }
+
+    private Distribution getMonthDistribution(long monthFrom, long monthTo) {
+        return months.computeIfAbsent(getMonth(monthFrom), month -> {
+            Distribution distribution = new Distribution();
+            for (Distribution day : days.subMap(monthFrom, true, monthTo, true).values()) {
+                distribution.merge(day);
+            }
+            return distribution;
+        });
+    }
+
+    /**
+     * @return  Incremented with every change of the distributions
+     */
+    public IntegerProperty versionProperty() {
+        return version;
+    }
+
+    /**
+     * Represents distributions of segment values.
+     * - sketches count each segment once, histograms are weighted by segment duration [min]
+     */
+    public static class Distribution {
+
+        private final QuantileSketch[] sketches = new QuantileSketch[Metric.values().length];
+        private final Histogram[] histograms = new Histogram[Metric.values().length];
+
+        public Distribution() {
+            for (Metric metric : Metric.values()) {
+                sketches[metric.ordinal()] = new QuantileSketch();
+                histograms[metric.ordinal()] = metric.getHistogram();
+            }
+        }
+
+        private void add(Run.Segment segment) {
+            for (Metric metric : Metric.values()) {
+                double value = metric.getValue(segment);
+                if (! Double.isNaN(value)) {
+                    sketches[metric.ordinal()].add(value);
+                    histograms[metric.ordinal()].add(value, segment.getDuration().toSecondOfDay()/60.0);
+                }
+            }
+        }
+
+        private void merge(Distribution distribution) {
+            for (Metric metric : Metric.values()) {
+                sketches[metric.ordinal()].merge(distribution.sketches[metric.ordinal()]);
+                histograms[metric.ordinal()].merge(distribution.histograms[metric.ordinal()]);
+            }
+        }
+
+        /**
+         * @param metric    Metric
+         * @param q         Quantile (0-1)
+         * @return          Approximate value of the quantile, NaN if there are no values
+         */
+        public double getQuantile(Metric metric, double q) {
+            return sketches[metric.ordinal()].getQuantile(q);
+        }
+
+        public Histogram getHistogram(Metric metric) {
+            return histograms[metric.ordinal()];
+        }
+    }
+
+    /**
+     * Represents distributed segment values.
+     */
+    public static enum Metric {
+        PACE, HR, CADENCE;
+
+        /**
+         * @param segment   Segment
+         * @return          Segment value, NaN if the segment does not contain it
+         */
+        public double getValue(Run.Segment segment) {
+            switch (this) {
+                case PACE:
+                    return (segment.getDistance()>0) ?
+                            segment.getDuration().toSecondOfDay()/segment.getDistance() : Double.NaN;
+                case HR:
+                    return (segment.getHr()!=-1) ? segment.getHr() : Double.NaN;
+                case CADENCE:
+                    return (segment.getCadence()!=-1) ? segment.getCadence() : Double.NaN;
+            }
+            return Double.NaN;
+        }
+
+        /**
+         * @return  Empty histogram with bins of the metric
+         */
+        private Histogram getHistogram() {
+            switch (this) {
+                case PACE:
+                    return new Histogram(120, 10, 60); // 2:00 - 12:00 min/km
+                case HR:
+                    return new Histogram(40, 5, 36); // 40 - 220 bpm
+                case CADENCE:
+                    return new Histogram(100, 5, 28); // 100 - 240 spm
+            }
+            return null;
+        }
+
+        /**
+         * @param value Value of the metric
+         * @return      Formatted value
+         */
+        public String format(double value) {
+            if (Double.isNaN(value)) {
+                return "---";
+            }
+            if (this==PACE) {
+                int pace = (int) value;
+                return String.format("%d:%02d", pace/60, pace%60);
+            }
+            return ""+(int) value;
+        }
+
+        @Override
+        public String toString() {
+            switch (this) {
+                case PACE:
+                    return "Pace";
+                case HR:
+                    return "HR";
+                case CADENCE:
+                    return "Cadence";
+            }
+            return null;
+        }
+    }
+
+}
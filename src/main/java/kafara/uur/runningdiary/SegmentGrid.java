@@ -0,0 +1,408 @@
+package kafara.uur.runningdiary;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.scene.control.*;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Represents the editable grid of the segments of an activity.
+ * - a single text field is shared by the cells, only the edited cell shows it
+ * - an input is parsed once, the parsed value is committed or the error shown
+ * - Enter commits and edits the next segment, Tab the next column, so interval sessions are typed in quickly
+ * - tabular lap data (duration, distance, HR, cadence, elevation per line) are pasted by Shortcut+V in one pass,
+ *   from the selected segment on
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class SegmentGrid extends TableView<Run.Segment> {
+
+    private static final KeyCombination PASTE = new KeyCodeCombination(KeyCode.V, KeyCombination.SHORTCUT_DOWN);
+
+    /** Editable columns in the order of the pasted values */
+    private static final List<SegmentField<?>> FIELDS = List.of(
+            new SegmentField<>(
+                    "Duration [m:ss]", Run.Segment::getDuration,
+                    (segment, duration) -> segment.durationProperty().set(duration),
+                    SegmentGrid::parseDuration, SegmentGrid::formatDuration
+            ),
+            new SegmentField<>(
+                    "Distance [km]", Run.Segment::getDistance,
+                    (segment, distance) -> segment.distanceProperty().set(distance),
+                    string -> parseNumber(string, -1.0, Double::parseDouble, "Distance", true),
+                    distance -> (distance==-1) ? "" : distance.toString()
+            ),
+            new SegmentField<>(
+                    "HR [bpm]", Run.Segment::getHr,
+                    (segment, hr) -> segment.hrProperty().set(hr),
+                    string -> parseNumber(string, -1, Integer::parseInt, "HR", true),
+                    hr -> (hr==-1) ? "" : hr.toString()
+            ),
+            new SegmentField<>(
+                    "Cadence [spm]", Run.Segment::getCadence,
+                    (segment, cadence) -> segment.cadenceProperty().set(cadence),
+                    string -> parseNumber(string, -1, Integer::parseInt, "Cadence", true),
+                    cadence -> (cadence==-1) ? "" : cadence.toString()
+            ),
+            new SegmentField<>(
+                    "Elevation [m]", Run.Segment::getElevation,
+                    (segment, elevation) -> segment.elevationProperty().set(elevation),
+                    string -> parseNumber(string, Integer.MIN_VALUE, Integer::parseInt, "Elevation", false),
+                    elevation -> (elevation==Integer.MIN_VALUE) ? "" : elevation.toString()
+            )
+    );
+
+    /** Editor of the edited cell */
+    private final TextField editorTF = new TextField();
+    /** Cell using the editor, null if none */
+    private ValueCell<?> editingCell = null;
+
+    public SegmentGrid() {
+        setMinHeight(160);
+        setFixedCellSize(24);
+        setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        setEditable(true);
+        getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        TableColumn<Run.Segment, Object> indexCM = new TableColumn<>("Index");
+        {
+            indexCM.setCellFactory(column -> new IndexCell());
+            indexCM.setSortable(false);
+        }
+        getColumns().add(indexCM);
+        for (SegmentField<?> field : FIELDS) {
+            getColumns().add(getColumn(field));
+        }
+        editorTF.setOnKeyPressed(event -> {
+            if (editingCell==null) {
+                return;
+            }
+            if (event.getCode()==KeyCode.ENTER) {
+                editingCell.commitInput(1, 0);
+                event.consume();
+            } else if (event.getCode()==KeyCode.TAB) {
+                editingCell.commitInput(0, event.isShiftDown() ? -1 : 1);
+                event.consume();
+            } else if (event.getCode()==KeyCode.ESCAPE) {
+                editingCell.cancelEdit();
+                event.consume();
+            }
+        });
+        setOnKeyPressed(event -> {
+            if (PASTE.match(event) && editingCell==null) {
+                paste(Clipboard.getSystemClipboard().getString());
+                event.consume();
+            }
+        });
+    }
+
+    /**
+     * Deletes the selected segments.
+     */
+    public void deleteSelectedSegments() {
+        List<Run.Segment> selected = new ArrayList<>(getSelectionModel().getSelectedItems());
+        getSelectionModel().clearSelection();
+        getItems().removeAll(selected);
+    }
+
+    /**
+     * Pastes tabular lap data, the segments are overwritten from the selected one on and added as needed.
+     * - if none is selected, from the first segment not filled in on (e.g. of a new activity), else added at the end
+     * - a line is a segment, the values are separated by tabs, semicolons or commas in the order of the columns
+     * - missing trailing values are left empty, a header line is skipped
+     * - nothing is pasted if a value is invalid
+     * @param text  Lap data
+     */
+    public void paste(String text) {
+        if (text==null || text.isBlank()) {
+            return;
+        }
+        List<Run.Segment> pasted;
+        try {
+            pasted = parseSegments(text);
+        } catch (InputMismatchException e) {
+            showInvalidInput(e.getMessage());
+            return;
+        }
+        int from = getSelectionModel().getSelectedIndex();
+        if (from<0) {
+            from = 0;
+            while (from<getItems().size() && getItems().get(from).getDuration()!=null) {
+                from++;
+            }
+        }
+        List<Run.Segment> segments = new ArrayList<>(getItems().subList(0, from));
+        segments.addAll(pasted);
+        if (from+pasted.size()<getItems().size()) {
+            segments.addAll(getItems().subList(from+pasted.size(), getItems().size()));
+        }
+        getItems().setAll(segments);
+        getSelectionModel().clearAndSelect(from);
+    }
+
+    /**
+     * Parses tabular lap data in one pass.
+     * @param text  Lap data
+     * @return      Segments
+     * @throws InputMismatchException   If a value is invalid, the message names its line
+     */
+    public static List<Run.Segment> parseSegments(String text) throws InputMismatchException {
+        List<Run.Segment> segments = new ArrayList<>();
+        boolean firstLine = true;
+        String[] lines = text.split("\\R");
+        for (int i=0; i<lines.length; i++) {
+            String line = lines[i].strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] values = line.split(line.contains("\t") ? "\t" : "[;,]", -1);
+            if (values.length>FIELDS.size()) {
+                throw new InputMismatchException(String.format(
+                        "Line %d: at most %d values expected, duration, distance, HR, cadence, elevation.", i+1, FIELDS.size()
+                ));
+            }
+            Run.Segment segment = new Run.Segment();
+            boolean header = firstLine;
+            firstLine = false;
+            try {
+                for (int j=0; j<values.length; j++) {
+                    FIELDS.get(j).parseInto(segment, values[j].strip());
+                }
+            } catch (InputMismatchException e) {
+                if (header && line.chars().anyMatch(Character::isLetter)) {
+                    continue;
+                }
+                throw new InputMismatchException(String.format("Line %d: %s", i+1, e.getMessage()));
+            }
+            if (segment.getDuration()==null) {
+                throw new InputMismatchException(String.format("Line %d: duration must be filled in.", i+1));
+            }
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    /**
+     * @param string    Duration in m:ss or h:mm:ss format, empty if not filled in
+     * @return          Duration, null if not filled in
+     * @throws InputMismatchException   If invalid
+     */
+    private static LocalTime parseDuration(String string) throws InputMismatchException {
+        if (string.isEmpty()) {
+            return null;
+        }
+        String[] parts = string.split(":");
+        if (parts.length<2 || parts.length>3 || parts[parts.length-1].length()!=2) {
+            throw new InputMismatchException("Duration must be provided in m:ss format.");
+        }
+        long seconds = 0;
+        try {
+            for (int i=0; i<parts.length; i++) {
+                int part = Integer.parseInt(parts[i]);
+                if (part<0 || (i>0 && part>=60)) {
+                    throw new InputMismatchException("Duration must be provided in m:ss format.");
+                }
+                seconds = 60*seconds+part;
+            }
+        } catch (NumberFormatException e) {
+            throw new InputMismatchException("Duration must be provided in m:ss format.");
+        }
+        if (seconds==0) {
+            throw new InputMismatchException("Duration must be positive.");
+        }
+        if (seconds>=24*60*60) {
+            throw new InputMismatchException("Segment must be shorter than 24 hours.");
+        }
+        return LocalTime.ofSecondOfDay(seconds);
+    }
+
+    private static String formatDuration(LocalTime localTime) {
+        if (localTime==null) {
+            return "";
+        }
+        return String.format("%d:%02d", 60*localTime.getHour()+localTime.getMinute(), localTime.getSecond());
+    }
+
+    /**
+     * @param string    Number, empty if not filled in
+     * @param empty     Value if not filled in
+     * @param parser    Parses the number
+     * @param name      Name of the value
+     * @param positive  True if the number must be positive, else false
+     * @return          Number
+     * @throws InputMismatchException   If invalid
+     */
+    private static <T extends Number> T parseNumber(
+            String string, T empty, Function<String, T> parser, String name, boolean positive
+    ) throws InputMismatchException {
+        if (string.isEmpty()) {
+            return empty;
+        }
+        T number;
+        try {
+            number = parser.apply(string);
+        } catch (NumberFormatException e) {
+            throw new InputMismatchException(String.format("%s must be a number.", name));
+        }
+        if (positive && number.doubleValue()<=0) {
+            throw new InputMismatchException(String.format("%s must be positive.", name));
+        }
+        return number;
+    }
+
+    private static void showInvalidInput(String message) {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setHeaderText("Invalid Input");
+        alert.setContentText(message);
+        alert.showAndWait();
+    }
+
+    private <T> TableColumn<Run.Segment, T> getColumn(SegmentField<T> field) {
+        TableColumn<Run.Segment, T> column = new TableColumn<>(field.title);
+        column.setSortable(false);
+        column.setCellValueFactory(value -> new ReadOnlyObjectWrapper<>(field.getter.apply(value.getValue())));
+        column.setCellFactory(c -> new ValueCell<>(field));
+        column.setOnEditCommit(event -> field.setter.accept(event.getRowValue(), event.getNewValue()));
+        return column;
+    }
+
+    /**
+     * Represents an editable value of the segments.
+     * @param <T>   Value type
+     */
+    private static class SegmentField<T> {
+
+        private final String title;
+        private final Function<Run.Segment, T> getter;
+        private final BiConsumer<Run.Segment, T> setter;
+        /** Parses the input, throws InputMismatchException if invalid */
+        private final Function<String, T> parser;
+        private final Function<T, String> formatter;
+
+        private SegmentField(
+                String title, Function<Run.Segment, T> getter, BiConsumer<Run.Segment, T> setter,
+                Function<String, T> parser, Function<T, String> formatter
+        ) {
+            this.title = title;
+            this.getter = getter;
+            this.setter = setter;
+            this.parser = parser;
+            this.formatter = formatter;
+        }
+
+        private void parseInto(Run.Segment segment, String input) throws InputMismatchException {
+            setter.accept(segment, parser.apply(input));
+        }
+    }
+
+    /**
+     * Represents a value cell, edited by the shared editor.
+     * @param <T>   Value type
+     */
+    private class ValueCell<T> extends TableCell<Run.Segment, T> {
+
+        private final SegmentField<T> field;
+
+        private ValueCell(SegmentField<T> field) {
+            this.field = field;
+        }
+
+        @Override
+        protected void updateItem(T item, boolean empty) {
+            super.updateItem(item, empty);
+            if (empty) {
+                setGraphic(null);
+                setText(null);
+                return;
+            }
+            if (isEditing()) {
+                showEditor();
+            } else {
+                setGraphic(null);
+                setText(field.formatter.apply(item));
+            }
+        }
+
+        @Override
+        public void startEdit() {
+            super.startEdit();
+            if (! isEditing()) {
+                return;
+            }
+            showEditor();
+            editorTF.selectAll();
+            editorTF.requestFocus();
+        }
+
+        @Override
+        public void cancelEdit() {
+            super.cancelEdit();
+            releaseEditor();
+        }
+
+        @Override
+        public void commitEdit(T newValue) {
+            super.commitEdit(newValue);
+            releaseEditor();
+        }
+
+        private void showEditor() {
+            if (editingCell!=null && editingCell!=this) {
+                editingCell.setGraphic(null);
+            }
+            editingCell = this;
+            editorTF.setText(field.formatter.apply(getItem()));
+            setText(null);
+            setGraphic(editorTF);
+        }
+
+        private void releaseEditor() {
+            if (editingCell==this) {
+                editingCell = null;
+            }
+            setGraphic(null);
+            setText(field.formatter.apply(getItem()));
+        }
+
+        /**
+         * Commits the parsed input and edits the next cell.
+         * @param rows      Rows to the next edited cell
+         * @param columns   Columns to the next edited cell
+         */
+        private void commitInput(int rows, int columns) {
+            T value;
+            try {
+                value = field.parser.apply(editorTF.getText().strip());
+            } catch (InputMismatchException e) {
+                showInvalidInput(e.getMessage());
+                return;
+            }
+            int row = getIndex();
+            int column = getTableView().getVisibleLeafIndex(getTableColumn());
+            commitEdit(value);
+            int nextRow = row+rows;
+            int nextColumn = column+columns;
+            if (nextColumn<1) {
+                nextColumn = FIELDS.size();
+                nextRow--;
+            } else if (nextColumn>FIELDS.size()) {
+                nextColumn = 1;
+                nextRow++;
+            }
+            if (nextRow>=0 && nextRow<getItems().size()) {
+                getSelectionModel().clearAndSelect(nextRow);
+                scrollTo(nextRow);
+                edit(nextRow, getVisibleLeafColumn(nextColumn));
+            }
+        }
+    }
+
+}
@@ -1,24 +1,39 @@
 package kafara.uur.runningdiary;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
 import javafx.scene.chart.*;
+import javafx.scene.control.Button;
 import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.Tab;
 import javafx.scene.control.Tooltip;
 import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.util.StringConverter;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.DoubleFunction;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Represents the application "Statistics"-Tab.
@@ -29,6 +44,14 @@ public class StatisticsTab extends Tab {
 
     /** Runs to be considered in the statistics */
     private final ObservableList<Run> allRuns;
+    /** Training load of the runs */
+    private final TrainingLoad trainingLoad;
+    /** Segment distributions of the runs */
+    private final SegmentDistributions segmentDistributions;
+    /** Time in training zones of the runs */
+    private final TimeInZones timeInZones;
+    /** Cumulative distance of the runs by year */
+    private final YearlyDistance yearlyDistance;
 
     private ChoiceBox<Timeframe> timeframeCB;
     private ChoiceBox<Data> dataCB;
@@ -39,9 +62,58 @@ public class StatisticsTab extends Tab {
     private BarChart<String, Number> distanceBC;
     private BarChart<String, Number> durationBC;
     private PieChart typePC;
+    private BarChart<String, Number> distributionBC;
+    private StackedBarChart<String, Number> zonesBC;
+    private LineChart<Number, Number> yearsLC;
+    /** Chart of a custom date range - drawn on a canvas, thousands of values */
+    private CanvasChart rangeCC;
+    /** Time in zones of many weeks/months - drawn on a canvas as a heatmap */
+    private CanvasChart zonesCC;
 
-    public StatisticsTab(ObservableList<Run> allRuns) {
+    /** Custom date range selection */
+    private HBox rangeHB;
+    private DatePicker fromDP;
+    private DatePicker toDP;
+    /** Set while the custom date range is being changed programmatically */
+    private boolean updatingRange = false;
+    /** First and last day the custom date range may cover, null if outdated */
+    private LocalDate[] rangeLimits = null;
+
+    /** Maximal count of aggregated values of a custom date range */
+    private static final int MAX_BUCKETS = 4096;
+    /** Maximal count of zones buckets drawn as stacked bars */
+    private static final int MAX_ZONES_BARS = 24;
+    /** Shown while the chart data are being computed */
+    private ProgressIndicator chartPI;
+
+    /** Computes the chart data outside the FX thread */
+    private static final ExecutorService CHART_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "statistics-chart");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** Chart data computation in progress, null if none */
+    private Task<ChartDataset> chartTask;
+
+    /** Key under which the tooltip of a chart data node is stored */
+    private static final String TOOLTIP_KEY = "statistics-tooltip";
+
+    /** Time of the chart dataset computations */
+    private static final LatencyTimer DATASET_TIMER = Metrics.timer("StatisticsTab.computeDataset");
+    /** Time of the chart builds */
+    private static final LatencyTimer CHART_TIMER = Metrics.timer("StatisticsTab.getChart");
+
+    /** Computed chart data - invalidated by changes of activities in their date range */
+    private final Map<DatasetKey, ChartDataset> datasetCache = new HashMap<>();
+    /** Incremented with every change of the activities */
+    private long allRunsVersion = 0;
+
+    public StatisticsTab(ObservableList<Run> allRuns, TrainingLoad trainingLoad, SegmentDistributions segmentDistributions, TimeInZones timeInZones, YearlyDistance yearlyDistance) {
         this.allRuns = allRuns;
+        this.trainingLoad = trainingLoad;
+        this.segmentDistributions = segmentDistributions;
+        this.timeInZones = timeInZones;
+        this.yearlyDistance = yearlyDistance;
         setText("Statistics");
         setClosable(false);
         VBox vBox = new VBox(48);
@@ -53,11 +125,30 @@ public class StatisticsTab extends Tab {
             chartPane = new VBox();
             {
                 chartPane.setAlignment(Pos.CENTER);
+                chartPane.setOnScroll(event -> {
+                    if (timeframeCB.getValue()!=Timeframe.CUSTOM || event.getDeltaY()==0) {
+                        return;
+                    }
+                    zoomRange(event.getDeltaY()>0 ? 0.5 : 2);
+                });
             }
             vBox.getChildren().addAll(chartSelection, chartPane);
         }
         initCharts();
         setContent(vBox);
+        allRuns.addListener((ListChangeListener<Run>) this::invalidateDatasets);
+        yearlyDistance.addUpdateListener(() -> Platform.runLater(() -> {
+            datasetCache.keySet().removeIf(key -> key.data()==Data.YEARS);
+            if (isSelected() && dataCB.getValue()==Data.YEARS) {
+                updateChartPane();
+            }
+        }));
+        timeInZones.zonesProperty().addListener((observable, oldValue, newValue) -> {
+            datasetCache.keySet().removeIf(key -> key.data().isZones());
+            if (isSelected() && dataCB.getValue().isZones()) {
+                updateChartPane();
+            }
+        });
         setOnSelectionChanged(event -> {
             if (! StatisticsTab.this.isSelected()) {
                 return;
@@ -88,6 +179,48 @@ public class StatisticsTab extends Tab {
             typePC = new PieChart();
             typePC.setTitle("Activity Types");
         }
+        {
+            CategoryAxis xAxis = new CategoryAxis();
+            NumberAxis yAxis = new NumberAxis();
+            distributionBC = new BarChart<>(xAxis, yAxis);
+            yAxis.setLabel("Duration [min]");
+        }
+        {
+            CategoryAxis xAxis = new CategoryAxis();
+            NumberAxis yAxis = new NumberAxis();
+            zonesBC = new StackedBarChart<>(xAxis, yAxis);
+            yAxis.setLabel("Duration [min]");
+        }
+        {
+            NumberAxis xAxis = new NumberAxis(1, YearlyDistance.DAYS, 30.5);
+            {
+                xAxis.setLabel("Day of Year");
+                xAxis.setTickLabelFormatter(new StringConverter<>() {
+                    @Override
+                    public String toString(Number dayOfYear) {
+                        return LocalDate.ofYearDay(2000, dayOfYear.intValue()) // leap year
+                                .format(DateTimeFormatter.ofPattern("LLL"));
+                    }
+                    @Override
+                    public Number fromString(String string) {
+                        return null;
+                    }
+                });
+            }
+            NumberAxis yAxis = new NumberAxis();
+            yAxis.setLabel("Distance [km]");
+            yearsLC = new LineChart<>(xAxis, yAxis);
+            yearsLC.setTitle("Cumulative Distance by Year");
+            yearsLC.setCreateSymbols(false);
+            yearsLC.setAnimated(false);
+        }
+        {
+            rangeCC = new CanvasChart();
+            zonesCC = new CanvasChart();
+        }
+        {
+            chartPI = new ProgressIndicator();
+        }
     }
 
     private Node getChartSelection() {
@@ -130,197 +263,804 @@ public class StatisticsTab extends Tab {
             }
             hBox.getChildren().addAll(timeframeVB, dataVB);
         }
-        return hBox;
+        VBox vBox = new VBox(16);
+        {
+            vBox.getChildren().addAll(hBox, getRangeSelection());
+        }
+        return vBox;
+    }
+
+    /**
+     * Creates custom date range selection.
+     * - shown only for the custom timeframe
+     * @return  Date range selection
+     */
+    private Node getRangeSelection() {
+        rangeHB = new HBox(8);
+        {
+            rangeHB.setAlignment(Pos.CENTER);
+            rangeHB.visibleProperty().bind(timeframeCB.valueProperty().isEqualTo(Timeframe.CUSTOM));
+            rangeHB.managedProperty().bind(rangeHB.visibleProperty());
+        }
+        {
+            fromDP = new DatePicker();
+            toDP = new DatePicker();
+            {
+                fromDP.setPrefWidth(140);
+                toDP.setPrefWidth(140);
+                fromDP.setOnAction(event -> onRangeSelected());
+                toDP.setOnAction(event -> onRangeSelected());
+            }
+            Button panLeftBT = new Button("<");
+            {
+                panLeftBT.setOnAction(event -> panRange(-0.5));
+            }
+            Button panRightBT = new Button(">");
+            {
+                panRightBT.setOnAction(event -> panRange(0.5));
+            }
+            Button zoomInBT = new Button("+");
+            {
+                zoomInBT.setOnAction(event -> zoomRange(0.5));
+            }
+            Button zoomOutBT = new Button("-");
+            {
+                zoomOutBT.setOnAction(event -> zoomRange(2));
+            }
+            rangeHB.getChildren().addAll(
+                    new Label("From"), fromDP, new Label("To"), toDP,
+                    panLeftBT, zoomOutBT, zoomInBT, panRightBT
+            );
+        }
+        return rangeHB;
+    }
+
+    private void onRangeSelected() {
+        if (updatingRange || timeframeCB.getValue()!=Timeframe.CUSTOM) {
+            return;
+        }
+        if (fromDP.getValue()==null || toDP.getValue()==null || fromDP.getValue().isAfter(toDP.getValue())) {
+            return;
+        }
+        updateChartPane();
+    }
+
+    /**
+     * Sets the custom date range and updates the chart.
+     * @param from  From
+     * @param to    To
+     */
+    private void setRange(LocalDate from, LocalDate to) {
+        updatingRange = true;
+        fromDP.setValue(from);
+        toDP.setValue(to);
+        updatingRange = false;
+        updateChartPane();
+    }
+
+    /**
+     * Scales the custom date range around its center.
+     * - at most to the range limits
+     * @param factor    Scale, less than 1 zooms in
+     */
+    private void zoomRange(double factor) {
+        LocalDate[] limits = getRangeLimits();
+        long from = fromDP.getValue().toEpochDay();
+        long to = toDP.getValue().toEpochDay();
+        double center = (from+to)/2.0;
+        double half = Math.min(
+                Math.max((to-from)*factor/2, 3),
+                (limits[1].toEpochDay()-limits[0].toEpochDay())/2.0
+        );
+        LocalDate[] range = clampRange((long) (center-half), (long) (center+half));
+        setRange(range[0], range[1]);
+    }
+
+    /**
+     * Moves the custom date range.
+     * - at most to the range limits
+     * @param fraction  Moved part of the date range, negative moves to the past
+     */
+    private void panRange(double fraction) {
+        long from = fromDP.getValue().toEpochDay();
+        long to = toDP.getValue().toEpochDay();
+        long shift = (long) Math.signum(fraction) * Math.max(1, (long) Math.abs((to-from)*fraction));
+        LocalDate[] range = clampRange(from+shift, to+shift);
+        setRange(range[0], range[1]);
+    }
+
+    /**
+     * Moves the date range inside the range limits, shortens it if it is longer than the limits.
+     * @param from  Epoch day from
+     * @param to    Epoch day to
+     * @return      From and to within the limits
+     */
+    private LocalDate[] clampRange(long from, long to) {
+        LocalDate[] limits = getRangeLimits();
+        long min = limits[0].toEpochDay();
+        long max = limits[1].toEpochDay();
+        if (from<min) {
+            to += min-from;
+            from = min;
+        }
+        if (to>max) {
+            from = Math.max(from-(to-max), min);
+            to = max;
+        }
+        return new LocalDate[] {LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(Math.max(to, from))};
+    }
+
+    /**
+     * Returns the first and last day the custom date range may cover.
+     * - the span of the activities (up to today) padded by a bucket, so the range never has more than MAX_BUCKETS
+     *   values of the chosen bucket size and zooming out stops at the whole diary
+     * @return  First and last day
+     */
+    private LocalDate[] getRangeLimits() {
+        if (rangeLimits==null) {
+            LocalDate today = LocalDate.now();
+            LocalDate oldest = null;
+            LocalDate latest = today;
+            for (Run run : allRuns) {
+                if (oldest==null || run.getDate().isBefore(oldest)) {
+                    oldest = run.getDate();
+                }
+                if (run.getDate().isAfter(latest)) {
+                    latest = run.getDate();
+                }
+            }
+            if (oldest==null || oldest.isAfter(today)) {
+                oldest = (oldest==null) ? today.minusYears(1) : today;
+            }
+            Bucket bucket = Bucket.of(oldest, latest, MAX_BUCKETS-2);
+            rangeLimits = new LocalDate[] {
+                    bucket.plus(bucket.start(oldest), -1),
+                    bucket.plus(bucket.start(latest), 2).minusDays(1)
+            };
+        }
+        return rangeLimits;
     }
 
     /**
      * Sets correct chart to the chart pane.
+     * - cancels the chart computation in progress
+     * - computes the chart data in background, shows progress meanwhile
      */
     private void updateChartPane() {
-        chartPane.getChildren().clear();
-        chartPane.getChildren().add(getChart(timeframeCB.getValue(), dataCB.getValue()));
+        if (chartTask!=null) {
+            chartTask.cancel();
+        }
+        chartTask = null;
+        Timeframe timeframe = timeframeCB.getValue();
+        Data data = dataCB.getValue();
+        LocalDate today = LocalDate.now();
+        if (timeframe==Timeframe.CUSTOM && (fromDP.getValue()==null || toDP.getValue()==null)) {
+            LocalDate oldest = allRuns.stream().map(Run::getDate).min(LocalDate::compareTo)
+                                .orElse(today.minusYears(1));
+            updatingRange = true;
+            fromDP.setValue(oldest);
+            toDP.setValue(today);
+            updatingRange = false;
+        }
+        if (timeframe==Timeframe.CUSTOM) {
+            LocalDate[] range = clampRange(fromDP.getValue().toEpochDay(), toDP.getValue().toEpochDay());
+            updatingRange = true;
+            fromDP.setValue(range[0]);
+            toDP.setValue(range[1]);
+            updatingRange = false;
+        }
+        DatasetKey key = (timeframe==Timeframe.CUSTOM) ?
+                new DatasetKey(timeframe, data, fromDP.getValue(), toDP.getValue()) :
+                new DatasetKey(timeframe, data, null, today);
+        // the fixed timeframes of other days and the custom ranges other than the current one are dropped
+        datasetCache.keySet().removeIf(cachedKey -> (cachedKey.from()==null) ?
+                ! cachedKey.to().equals(today) :
+                ! cachedKey.from().equals(fromDP.getValue()) || ! cachedKey.to().equals(toDP.getValue())
+        );
+        ChartDataset cachedDataset = datasetCache.get(key);
+        if (cachedDataset!=null) {
+            chartPane.getChildren().setAll(getChart(data, cachedDataset));
+            return;
+        }
+        List<Run> runs = new ArrayList<>(allRuns);
+        long version = allRunsVersion;
+        Task<ChartDataset> task = new Task<>() {
+            @Override
+            protected ChartDataset call() {
+                long start = System.nanoTime();
+                DiaryEvents.ChartDatasetBuildEvent event = new DiaryEvents.ChartDatasetBuildEvent();
+                event.begin();
+                try {
+                    if (data==Data.LOAD) {
+                        return computeLoadDataset(
+                                trainingLoad,
+                                (timeframe==Timeframe.CUSTOM) ? key.from() : getBeginDate(timeframe, today),
+                                key.to()
+                        );
+                    }
+                    if (data==Data.YEARS) {
+                        return computeYearsDataset(yearlyDistance);
+                    }
+                    if (data.isZones()) {
+                        return computeZonesDataset(
+                                timeInZones,
+                                data==Data.HR_ZONES,
+                                (timeframe==Timeframe.CUSTOM) ? key.from() : getBeginDate(timeframe, today),
+                                key.to()
+                        );
+                    }
+                    if (data.getMetric()!=null) {
+                        return computeDistributionDataset(
+                                segmentDistributions,
+                                data.getMetric(),
+                                (timeframe==Timeframe.CUSTOM) ? key.from() : getBeginDate(timeframe, today),
+                                key.to()
+                        );
+                    }
+                    if (timeframe==Timeframe.CUSTOM) {
+                        return computeRangeDataset(runs, data, key.from(), key.to());
+                    }
+                    return computeDataset(runs, timeframe, data, today);
+                } finally {
+                    DATASET_TIMER.recordSince(start);
+                    event.data = data.toString();
+                    event.timeframe = timeframe.toString();
+                    event.commit();
+                }
+            }
+        };
+        task.setOnSucceeded(event -> {
+            if (task!=chartTask) {
+                return; // stale result
+            }
+            chartTask = null;
+            if (version==allRunsVersion) {
+                datasetCache.put(key, task.getValue());
+            }
+            chartPane.getChildren().setAll(getChart(data, task.getValue()));
+        });
+        task.setOnFailed(event -> {
+            if (task!=chartTask) {
+                return;
+            }
+            chartTask = null;
+            chartPane.getChildren().setAll(new Label("Chart could not be computed."));
+        });
+        chartTask = task;
+        chartPane.getChildren().setAll(chartPI);
+        CHART_EXECUTOR.execute(task);
     }
 
     /**
-     * Determines which chart should be used and returns it.
+     * Drops the cached chart data affected by the change of the activities.
+     * @param c Change of the activities
+     */
+    private void invalidateDatasets(ListChangeListener.Change<? extends Run> c) {
+        allRunsVersion++;
+        rangeLimits = null;
+        while (c.next()) {
+            for (Run run : c.getRemoved()) {
+                datasetCache.values().removeIf(dataset -> dataset.contains(run.getDate()));
+            }
+            for (Run run : c.getAddedSubList()) {
+                datasetCache.values().removeIf(dataset -> dataset.contains(run.getDate()));
+            }
+        }
+    }
+
+    /**
+     * Computes the chart data.
+     * - may be called outside the FX thread, runs must not be modified meanwhile
+     * @param runs      Runs to be considered
      * @param timeframe Timeframe
      * @param data      Data
+     * @param today     Last day of the timeframe
+     * @return          Chart data
+     * @throws CancellationException    If the computing thread has been interrupted
+     */
+    static ChartDataset computeDataset(List<Run> runs, Timeframe timeframe, Data data, LocalDate today) {
+        if (data==Data.TYPE) {
+            return computeTypeDataset(runs, timeframe, today);
+        }
+        ToDoubleFunction<Run> value = (data==Data.DISTANCE) ?
+                Run::getDistance : run -> run.getDuration().toSecondOfDay()/60.0;
+        String[] categories;
+        double[] values;
+        String xAxisLabel = "Days";
+        LocalDate from;
+        if (timeframe.getDays()<=7) {
+            LocalDate beginDate = today.minusDays(timeframe.getDays()-1);
+            categories = new String[timeframe.getDays()];
+            for (int i=0; i<categories.length; i++) {
+                categories[i] = beginDate.plusDays(i).format(DateTimeFormatter.ofPattern("EEEE"));
+            }
+            values = sumByBucket(runs, value, Bucket.DAY, beginDate, categories.length);
+            from = beginDate;
+        } else if (timeframe.getDays()<=30) {
+            LocalDate beginDate = today.minusDays(timeframe.getDays());
+            categories = new String[timeframe.getDays()+1];
+            for (int i=0; i<categories.length; i++) {
+                categories[i] = ""+(i-timeframe.getDays());
+            }
+            values = sumByBucket(runs, value, Bucket.DAY, beginDate, categories.length);
+            from = beginDate;
+        } else {
+            LocalDate beginDate = LocalDate.of(today.getYear()-1, (today.getMonthValue()%12)+1, 1);
+            categories = new String[12];
+            for (int i=0; i<categories.length; i++) {
+                categories[i] = beginDate.plusMonths(i).format(DateTimeFormatter.ofPattern("LLLL"));
+            }
+            values = sumByBucket(runs, value, Bucket.MONTH, beginDate, categories.length);
+            xAxisLabel = "Months";
+            from = beginDate;
+        }
+        return new ChartDataset(from, today, xAxisLabel, categories, values);
+    }
+
+    /**
+     * Computes the chart data of a custom date range.
+     * - the bucket size is chosen so that there are at most MAX_BUCKETS values
+     * - may be called outside the FX thread, runs must not be modified meanwhile
+     * @param runs  Runs to be considered
+     * @param data  Data
+     * @param from  From
+     * @param to    To
+     * @return      Chart data
+     * @throws CancellationException    If the computing thread has been interrupted
+     */
+    static ChartDataset computeRangeDataset(List<Run> runs, Data data, LocalDate from, LocalDate to) {
+        if (data==Data.TYPE) {
+            return computeTypeDataset(runs, from, to);
+        }
+        ToDoubleFunction<Run> value = (data==Data.DISTANCE) ?
+                Run::getDistance : run -> run.getDuration().toSecondOfDay()/60.0;
+        Bucket bucket = Bucket.of(from, to, MAX_BUCKETS);
+        LocalDate beginDate = bucket.start(from);
+        int count = (int) bucket.count(from, to);
+        String[] categories = new String[count];
+        double[] xValues = new double[count];
+        for (int i=0; i<count; i++) {
+            LocalDate start = bucket.plus(beginDate, i);
+            categories[i] = bucket.format(start);
+            xValues[i] = start.toEpochDay();
+        }
+        double[] values = sumByBucket(
+                runs.stream().filter(run -> run.getDate().compareTo(from)>=0 && run.getDate().compareTo(to)<=0).toList(),
+                value, bucket, beginDate, count
+        );
+        return new ChartDataset(from, to, bucket.toString(), categories, xValues, null, new double[][] {values});
+    }
+
+    /**
+     * Computes the training load chart data.
+     * - the load of a day depends on all the previous activities
+     * - the bucket size is chosen so that there are at most MAX_BUCKETS values, a bucket shows the load
+     *   at its last day
+     * @param trainingLoad  Training load
+     * @param from          From
+     * @param to            To
+     * @return              Chart data, acute load, chronic load and balance by bucket
+     */
+    static ChartDataset computeLoadDataset(TrainingLoad trainingLoad, LocalDate from, LocalDate to) {
+        double[][] series = trainingLoad.getSeries(from, to);
+        Bucket bucket = Bucket.of(from, to, MAX_BUCKETS);
+        LocalDate beginDate = bucket.start(from);
+        int count = (int) bucket.count(from, to);
+        String[] categories = new String[count];
+        double[] xValues = new double[count];
+        double[][] values = new double[3][count];
+        for (int i=0; i<count; i++) {
+            checkInterrupted(i);
+            LocalDate start = bucket.plus(beginDate, i);
+            LocalDate end = bucket.plus(beginDate, i+1).minusDays(1);
+            int day = (int) ((end.isAfter(to) ? to : end).toEpochDay()-from.toEpochDay());
+            categories[i] = bucket.format(start);
+            xValues[i] = start.toEpochDay();
+            for (int s=0; s<values.length; s++) {
+                values[s][i] = series[s+1][day];
+            }
+        }
+        return new ChartDataset(
+                LocalDate.MIN, to, bucket.toString(), categories, xValues,
+                new String[] {"Fatigue (Acute Load)", "Fitness (Chronic Load)", "Form (Balance)"},
+                values
+        );
+    }
+
+    /**
+     * Computes the time spent in the ranges of the segment metric.
+     * - merged from the per-day histograms, the segments are not touched
+     * @param segmentDistributions  Segment distributions
+     * @param metric                Segment metric
+     * @param from                  From
+     * @param to                    To
+     * @return                      Chart data, duration [min] by histogram bin
+     */
+    static ChartDataset computeDistributionDataset(SegmentDistributions segmentDistributions, SegmentDistributions.Metric metric, LocalDate from, LocalDate to) {
+        Histogram histogram = segmentDistributions.getDistribution(from, to).getHistogram(metric);
+        int first = 0;
+        int last = histogram.getBinsCount()-1;
+        while (first<last && histogram.getWeight(first)<=0) {
+            first++;
+        }
+        while (last>first && histogram.getWeight(last)<=0) {
+            last--;
+        }
+        String[] categories = new String[last-first+1];
+        double[] values = new double[categories.length];
+        for (int i=0; i<categories.length; i++) {
+            categories[i] = metric.format(histogram.getBinMin(first+i));
+            values[i] = Math.max(histogram.getWeight(first+i), 0);
+        }
+        return new ChartDataset(
+                from, to,
+                (metric==SegmentDistributions.Metric.PACE) ? "Pace [min/km]" : "HR [bpm]",
+                categories, values
+        );
+    }
+
+    /**
+     * Computes the cumulative distance curves of all years.
+     * - read from the maintained prefix sums, the activities are not touched
+     * @param yearlyDistance    Cumulative distance by year
+     * @return                  Chart data, distance [km] by year and day of year
+     */
+    static ChartDataset computeYearsDataset(YearlyDistance yearlyDistance) {
+        Map<Integer, double[]> curves = yearlyDistance.getCurves();
+        String[] categories = new String[YearlyDistance.DAYS];
+        double[] xValues = new double[YearlyDistance.DAYS];
+        for (int day=0; day<YearlyDistance.DAYS; day++) {
+            categories[day] = ""+(day+1);
+            xValues[day] = day+1;
+        }
+        String[] seriesNames = new String[curves.size()];
+        double[][] values = new double[curves.size()][];
+        int s = 0;
+        for (Map.Entry<Integer, double[]> curve : curves.entrySet()) {
+            seriesNames[s] = ""+curve.getKey();
+            values[s] = curve.getValue();
+            s++;
+        }
+        return new ChartDataset(
+                LocalDate.MIN, LocalDate.MAX, "Day of Year", categories, xValues, seriesNames, values
+        );
+    }
+
+    /**
+     * Computes the time spent in the training zones.
+     * - by weeks, by months if there are more than 16 weeks
+     * - read from the maintained totals, the activities are not touched
+     * @param timeInZones   Time in zones
+     * @param hr            True for HR zones, false for pace zones
+     * @param from          From
+     * @param to            To
+     * @return              Chart data, duration [min] by zone and bucket
+     */
+    static ChartDataset computeZonesDataset(TimeInZones timeInZones, boolean hr, LocalDate from, LocalDate to) {
+        Bucket bucket = (Bucket.WEEK.count(from, to)<=16) ? Bucket.WEEK : Bucket.MONTH;
+        LocalDate beginDate = bucket.start(from);
+        int count = (int) bucket.count(from, to);
+        String[] categories = new String[count];
+        for (int i=0; i<count; i++) {
+            categories[i] = bucket.format(bucket.plus(beginDate, i));
+        }
+        String[] seriesNames = new String[TrainingZones.ZONES];
+        for (int zone=0; zone<seriesNames.length; zone++) {
+            seriesNames[zone] = "Zone "+(zone+1);
+        }
+        return new ChartDataset(
+                beginDate, bucket.plus(beginDate, count).minusDays(1), bucket.toString(), categories, null,
+                seriesNames, timeInZones.getMinutes(hr, bucket, beginDate, count)
+        );
+    }
+
+    /**
+     * Returns the first day of the fixed timeframe.
+     * @param timeframe Fixed timeframe
+     * @param today     Last day of the timeframe
+     * @return          First day
+     */
+    private static LocalDate getBeginDate(Timeframe timeframe, LocalDate today) {
+        if (timeframe==Timeframe.MONTHS12) {
+            return LocalDate.of(today.getYear()-1, (today.getMonthValue()%12)+1, 1);
+        }
+        return today.minusDays((timeframe.getDays()<=7) ? timeframe.getDays()-1 : timeframe.getDays());
+    }
+
+    /**
+     * Sums the values of the runs by buckets in a single pass.
+     * @param runs      Runs
+     * @param value     Summed run value
+     * @param bucket    Bucket size
+     * @param beginDate First day of the first bucket
+     * @param count     Buckets count
+     * @return          Sums by bucket
+     */
+    static double[] sumByBucket(List<Run> runs, ToDoubleFunction<Run> value, Bucket bucket, LocalDate beginDate, int count) {
+        double[] values = new double[count];
+        for (int i=0; i<runs.size(); i++) {
+            checkInterrupted(i);
+            Run run = runs.get(i);
+            long index = bucket.index(beginDate, run.getDate());
+            if (index>=0 && index<count) {
+                values[(int) index] += value.applyAsDouble(run);
+            }
+        }
+        return values;
+    }
+
+    private static ChartDataset computeTypeDataset(List<Run> runs, Timeframe timeframe, LocalDate today) {
+        LocalDate beginDate = today.minusDays(timeframe.getDays());
+        if (timeframe==Timeframe.MONTHS12) {
+            beginDate = LocalDate.of(today.getYear()-1, (today.getMonthValue()%12)+1, 1);
+        }
+        return computeTypeDataset(runs, beginDate, today);
+    }
+
+    private static ChartDataset computeTypeDataset(List<Run> runs, LocalDate beginDate, LocalDate today) {
+        int[] counts = new int[Run.Type.values().length];
+        for (int i=0; i<runs.size(); i++) {
+            checkInterrupted(i);
+            Run run = runs.get(i);
+            if (run.getDate().compareTo(beginDate)>=0 && run.getDate().compareTo(today)<=0) {
+                counts[run.getType().ordinal()]++;
+            }
+        }
+        List<String> categories = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        for (Run.Type type : Run.Type.values()) {
+            if (counts[type.ordinal()]!=0) {
+                categories.add(type.toString());
+                values.add((double) counts[type.ordinal()]);
+            }
+        }
+        return new ChartDataset(
+                beginDate,
+                today,
+                null,
+                categories.toArray(new String[0]),
+                values.stream().mapToDouble(Double::doubleValue).toArray()
+        );
+    }
+
+    /**
+     * Checks every few iterations whether the computation has been cancelled.
+     * @param i Iteration
+     * @throws CancellationException    If the computing thread has been interrupted
+     */
+    private static void checkInterrupted(int i) {
+        if ((i&1023)==0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Determines which chart should be used, fills it with the data and returns it.
+     * - the chart build is timed
+     * @param data      Data
+     * @param dataset   Chart data
+     * @return          Chart
+     */
+    private Node getChart(Data data, ChartDataset dataset) {
+        long start = System.nanoTime();
+        DiaryEvents.ChartBuildEvent event = new DiaryEvents.ChartBuildEvent();
+        event.begin();
+        try {
+            return createChart(data, dataset);
+        } finally {
+            CHART_TIMER.recordSince(start);
+            event.data = data.toString();
+            event.categories = dataset.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Creates the chart of the data.
+     * @param data      Chart data type
+     * @param dataset   Chart data
      * @return          Chart
      */
-    private Node getChart(Timeframe timeframe, Data data) {
+    private Node createChart(Data data, ChartDataset dataset) {
+        if (data==Data.YEARS) {
+            return getYearsChart(dataset);
+        }
+        if (dataset.isContinuous()) {
+            return getRangeChart(data, dataset);
+        }
         if (data==Data.DISTANCE) {
-            return getDistanceChart(timeframe);
+            return getBarChart(distanceBC, "Distance", dataset, km -> String.format("%.2f", km));
         } else if (data==Data.DURATION) {
-            return getDurationChart(timeframe);
+            return getBarChart(
+                    durationBC, "Duration", dataset,
+                    min -> String.format("%d:%02d", (int) min, (int)((60*min)%60))
+            );
         } else if (data==Data.TYPE) {
-            return getTypeChart(timeframe);
+            return getTypeChart(dataset);
+        } else if (data.isZones()) {
+            return getZonesChart(data, dataset);
+        } else if (data.getMetric()!=null) {
+            distributionBC.setTitle(String.format("Time by %s", data.getMetric()));
+            return getBarChart(
+                    distributionBC, "Duration", dataset,
+                    min -> String.format("%d:%02d", (int) min, (int)((60*min)%60))
+            );
         }
         return null;
     }
 
-    private Chart getDistanceChart(Timeframe timeframe) {
-        distanceBC.getXAxis().setLabel("Days");
-        ObservableList<XYChart.Data<String, Number>> data = FXCollections.observableArrayList();
-        if (timeframe.getDays()<=7) {
-            for (int i=timeframe.getDays()-1; i>=0; i--) {
-                int minusDays = i;
-                data.add(
-                        new XYChart.Data<>(
-                                LocalDate.now().minusDays(i).format(DateTimeFormatter.ofPattern("EEEE")),
-                                allRuns.stream()
-                                        .filter(run -> run.getDate().equals(LocalDate.now().minusDays(minusDays)))
-                                        .mapToDouble(Run::getDistance)
-                                        .sum()
-                        )
-                );
+    /**
+     * Fills the custom date range chart with the data.
+     * - drawn on a canvas, the lines are downsampled so that there are no more points than pixels
+     * @param data      Data
+     * @param dataset   Chart data
+     * @return          Canvas chart
+     */
+    private Node getRangeChart(Data data, ChartDataset dataset) {
+        if (data==Data.LOAD) {
+            double ratio = trainingLoad.getAcuteChronicRatio(dataset.getTo());
+            rangeCC.setData(
+                    CanvasChart.Kind.LINE, dataset,
+                    (ratio!=-1) ? String.format("Training Load (Acute:Chronic %.2f)", ratio) : "Training Load",
+                    "Load [TRIMP]",
+                    load -> String.format("%.0f", load)
+            );
+        } else if (data==Data.DISTANCE) {
+            rangeCC.setData(
+                    CanvasChart.Kind.BAR, dataset, "Distance Ran", "Distance [km]",
+                    km -> String.format("%.2f", km)
+            );
+        } else {
+            rangeCC.setData(
+                    CanvasChart.Kind.BAR, dataset, "Time Ran", "Duration [min]",
+                    min -> String.format("%d:%02d", (int) min, (int)((60*min)%60))
+            );
+        }
+        return rangeCC;
+    }
+
+    /**
+     * Fills the line chart with the cumulative distance curves.
+     * - the curve of the current year ends today
+     * @param dataset   Chart data
+     * @return          Line chart
+     */
+    private Chart getYearsChart(ChartDataset dataset) {
+        LocalDate today = LocalDate.now();
+        List<XYChart.Series<Number, Number>> series = new ArrayList<>();
+        for (int s=0; s<dataset.getSeriesCount(); s++) {
+            int days = dataset.getSeriesName(s).equals(""+today.getYear()) ? YearlyDistance.getDayOfLeapYear(today)+1 : dataset.size();
+            ObservableList<XYChart.Data<Number, Number>> points = FXCollections.observableArrayList();
+            for (int i=0; i<days; i++) {
+                points.add(new XYChart.Data<>(dataset.getX(i), dataset.getValue(s, i)));
             }
-        } else if (timeframe.getDays()<=30) {
-            for (int i=-timeframe.getDays(); i<=0; i++) {
-                int plusDays = i;
-                data.add(
-                        new XYChart.Data<>(
-                                ""+plusDays,
-                                allRuns.stream()
-                                        .filter(run -> run.getDate().equals(LocalDate.now().plusDays(plusDays)))
-                                        .mapToDouble(Run::getDistance)
-                                        .sum()
-                        )
-                );
+            series.add(new XYChart.Series<>(dataset.getSeriesName(s), points));
+        }
+        yearsLC.getData().setAll(series);
+        return yearsLC;
+    }
+
+    /**
+     * Fills the stacked bar chart with the time in zones.
+     * - a heatmap if there are too many weeks/months for bars
+     * @param data      Data
+     * @param dataset   Chart data
+     * @return          Stacked bar chart or heatmap
+     */
+    private Node getZonesChart(Data data, ChartDataset dataset) {
+        String title = (data==Data.HR_ZONES) ? "Time in HR Zones" : "Time in Pace Zones";
+        if (dataset.size()>MAX_ZONES_BARS) {
+            zonesCC.setData(
+                    CanvasChart.Kind.HEATMAP, dataset, title, null,
+                    min -> String.format("%d:%02d", (int) min, (int)((60*min)%60))
+            );
+            return zonesCC;
+        }
+        zonesBC.setTitle(title);
+        zonesBC.getXAxis().setLabel(dataset.getXAxisLabel());
+        List<XYChart.Series<String, Number>> series = new ArrayList<>();
+        for (int s=0; s<dataset.getSeriesCount(); s++) {
+            ObservableList<XYChart.Data<String, Number>> bars = FXCollections.observableArrayList();
+            for (int i=0; i<dataset.size(); i++) {
+                bars.add(new XYChart.Data<>(dataset.getCategory(i), dataset.getValue(s, i)));
             }
-        } else {
-            LocalDate now = LocalDate.now();
-            LocalDate beginDate = LocalDate.of(now.getYear()-1, (now.getMonthValue()%12)+1, 1);
-            Map<Integer, Double> monthsDistances = allRuns.stream()
-                                                    .filter(run -> run.getDate().compareTo(beginDate) >= 0)
-                                                    .collect(
-                                                            Collectors.groupingBy(
-                                                                    run -> run.getDate().getMonthValue(),
-                                                                    Collectors.summingDouble(Run::getDistance)
-                                                            )
-                                                    );
-            int month = beginDate.getMonthValue();
-            do {
-                double monthDistance = monthsDistances.getOrDefault(month, 0.0);
-                data.add(new XYChart.Data<>(
-                        LocalDate.of(0, month, 1).format(DateTimeFormatter.ofPattern("LLLL")),
-                        monthDistance
-                ));
-                month = month%12+1;
-            } while (month!=LocalDate.now().getMonthValue()+1);
-            distanceBC.getXAxis().setLabel("Months");
-        }
-        distanceBC.getData().clear();
-        distanceBC.getData().add(new XYChart.Series<>("Distance", data));
-        distanceBC.getData().forEach(stringNumberSeries -> {
-            stringNumberSeries.getData().forEach(stringNumberData -> {
-                double km = stringNumberData.getYValue().doubleValue();
+            series.add(new XYChart.Series<>(dataset.getSeriesName(s), bars));
+        }
+        zonesBC.getData().setAll(series);
+        for (XYChart.Series<String, Number> zone : zonesBC.getData()) {
+            for (XYChart.Data<String, Number> bar : zone.getData()) {
+                double min = bar.getYValue().doubleValue();
                 Tooltip.install(
-                        stringNumberData.getNode(),
-                        new Tooltip(String.format(
-                                "%.2f",
-                                km
-                        ))
+                        bar.getNode(),
+                        new Tooltip(String.format("%s: %d:%02d", zone.getName(), (int) min, (int)((60*min)%60)))
                 );
-            });
-        });
-        return distanceBC;
+            }
+        }
+        return zonesBC;
     }
 
-    private Chart getDurationChart(Timeframe timeframe) {
-        durationBC.getXAxis().setLabel("Days");
-        ObservableList<XYChart.Data<String, Number>> data = FXCollections.observableArrayList();
-        if (timeframe.getDays()<=7) {
-            for (int i=timeframe.getDays()-1; i>=0; i--) {
-                int minusDays = i;
-                data.add(
-                        new XYChart.Data<>(
-                                LocalDate.now().minusDays(i).format(DateTimeFormatter.ofPattern("EEEE")),
-                                allRuns.stream()
-                                        .filter(run -> run.getDate().equals(LocalDate.now().minusDays(minusDays)))
-                                        .mapToDouble(run -> run.getDuration().toSecondOfDay()/60.0)
-                                        .sum()
-                        )
-                );
-            }
-        } else if (timeframe.getDays()<=30) {
-            for (int i=-timeframe.getDays(); i<=0; i++) {
-                int plusDays = i;
-                data.add(
-                        new XYChart.Data<>(
-                                ""+plusDays,
-                                allRuns.stream()
-                                        .filter(run -> run.getDate().equals(LocalDate.now().plusDays(plusDays)))
-                                        .mapToDouble(run -> run.getDuration().toSecondOfDay()/60.0)
-                                        .sum()
-                        )
-                );
+    /**
+     * Fills the bar chart with the data.
+     * - updates the bars in place if the chart shows the same categories
+     * @param barChart  Bar chart
+     * @param name      Series name
+     * @param dataset   Chart data
+     * @param tooltip   Formats the bar tooltip
+     * @return          Bar chart
+     */
+    private Chart getBarChart(BarChart<String, Number> barChart, String name, ChartDataset dataset, DoubleFunction<String> tooltip) {
+        barChart.getXAxis().setLabel(dataset.getXAxisLabel());
+        if (dataset.hasCategoriesOf((ChartDataset) barChart.getUserData())) {
+            ObservableList<XYChart.Data<String, Number>> data = barChart.getData().get(0).getData();
+            for (int i=0; i<dataset.size(); i++) {
+                data.get(i).setYValue(dataset.getValue(i));
+                ((Tooltip) data.get(i).getNode().getProperties().get(TOOLTIP_KEY))
+                        .setText(tooltip.apply(dataset.getValue(i)));
             }
-        } else {
-            LocalDate now = LocalDate.now();
-            LocalDate beginDate = LocalDate.of(now.getYear()-1, (now.getMonthValue()%12)+1, 1);
-            Map<Integer, Double> monthsDurations = allRuns.stream()
-                    .filter(run -> run.getDate().compareTo(beginDate) >= 0)
-                    .collect(
-                            Collectors.groupingBy(
-                                    run -> run.getDate().getMonthValue(),
-                                    Collectors.summingDouble(run -> run.getDuration().toSecondOfDay()/60.0)
-                            )
-                    );
-            int month = beginDate.getMonthValue();
-            do {
-                double monthDuration = monthsDurations.getOrDefault(month, 0.0);
-                data.add(new XYChart.Data<>(
-                        LocalDate.of(0, month, 1).format(DateTimeFormatter.ofPattern("LLLL")),
-                        monthDuration
-                ));
-                month = month%12+1;
-            } while (month!=LocalDate.now().getMonthValue()+1);
-            durationBC.getXAxis().setLabel("Months");
-        }
-        durationBC.getData().clear();
-        durationBC.getData().add(new XYChart.Series<>("Duration", data));
-        durationBC.getData().forEach(stringNumberSeries -> {
+            barChart.setUserData(dataset);
+            return barChart;
+        }
+        ObservableList<XYChart.Data<String, Number>> data = FXCollections.observableArrayList();
+        for (int i=0; i<dataset.size(); i++) {
+            data.add(new XYChart.Data<>(dataset.getCategory(i), dataset.getValue(i)));
+        }
+        barChart.getData().clear();
+        barChart.getData().add(new XYChart.Series<>(name, data));
+        barChart.getData().forEach(stringNumberSeries -> {
             stringNumberSeries.getData().forEach(stringNumberData -> {
-                double min = stringNumberData.getYValue().doubleValue();
-                Tooltip.install(
-                        stringNumberData.getNode(),
-                        new Tooltip(String.format(
-                                "%d:%02d",
-                                (int) min,
-                                (int)((60*min)%60)
-                        ))
-                );
+                Tooltip tip = new Tooltip(tooltip.apply(stringNumberData.getYValue().doubleValue()));
+                Tooltip.install(stringNumberData.getNode(), tip);
+                stringNumberData.getNode().getProperties().put(TOOLTIP_KEY, tip);
             });
         });
-        return durationBC;
+        barChart.setUserData(dataset);
+        return barChart;
     }
 
-    private Chart getTypeChart(Timeframe timeframe) {
+    /**
+     * Fills the pie chart with the data.
+     * - updates the slices in place if the chart shows the same categories
+     * @param dataset   Chart data
+     * @return          Pie chart
+     */
+    private Chart getTypeChart(ChartDataset dataset) {
+        if (dataset.hasCategoriesOf((ChartDataset) typePC.getUserData())) {
+            for (int i=0; i<dataset.size(); i++) {
+                PieChart.Data d = typePC.getData().get(i);
+                d.setPieValue(dataset.getValue(i));
+                ((Tooltip) d.getNode().getProperties().get(TOOLTIP_KEY)).setText(""+(int)dataset.getValue(i));
+            }
+            typePC.setUserData(dataset);
+            return typePC;
+        }
         ObservableList<PieChart.Data> data = FXCollections.observableArrayList();
-        LocalDate beginDate = LocalDate.now().minusDays(timeframe.getDays());
-        if (timeframe==Timeframe.MONTHS12) {
-            LocalDate now = LocalDate.now();
-            beginDate = LocalDate.of(now.getYear()-1, (now.getMonthValue()%12)+1, 1);
+        for (int i=0; i<dataset.size(); i++) {
+            data.add(new PieChart.Data(dataset.getCategory(i), dataset.getValue(i)));
         }
-        new RunsSet(allRuns, beginDate, LocalDate.now())
-                .getSet().stream()
-                .collect(Collectors.groupingBy(Run::getType, Collectors.counting()))
-                .forEach((type, count) -> data.add(new PieChart.Data(type.toString(), count)));
         typePC.setData(data);
         typePC.getData().forEach(d -> {
-            Tooltip.install(
-                    d.getNode(),
-                    new Tooltip(""+(int)d.getPieValue())
-            );
+            Tooltip tip = new Tooltip(""+(int)d.getPieValue());
+            Tooltip.install(d.getNode(), tip);
+            d.getNode().getProperties().put(TOOLTIP_KEY, tip);
         });
+        typePC.setUserData(dataset);
         return typePC;
     }
 
+    /**
+     * Identifies cached chart data.
+     * @param timeframe Timeframe
+     * @param data      Data
+     * @param from      Custom range from, null for the fixed timeframes
+     * @param to        Custom range to, today for the fixed timeframes
+     */
+    private static record DatasetKey(Timeframe timeframe, Data data, LocalDate from, LocalDate to) {}
+
     /**
      * Represents available timeframes.
      */
-    private static enum Timeframe {
-        DAYS7(7), DAYS30(30), MONTHS12(365);
+    static enum Timeframe {
+        DAYS7(7), DAYS30(30), MONTHS12(365), CUSTOM(-1);
 
         private final int days;
 
@@ -340,6 +1080,8 @@ public class StatisticsTab extends Tab {
                     return days+" Days";
                 case MONTHS12:
                     return "12 Months";
+                case CUSTOM:
+                    return "Custom Range";
             }
             return null;
         }
@@ -348,8 +1090,28 @@ public class StatisticsTab extends Tab {
     /**
      * Represents available data.
      */
-    private static enum Data {
-        DISTANCE, DURATION, TYPE;
+    static enum Data {
+        DISTANCE, DURATION, TYPE, LOAD, PACE_DISTRIBUTION, HR_DISTRIBUTION, HR_ZONES, PACE_ZONES, YEARS;
+
+        /**
+         * @return  True, if the data are time in training zones, else false
+         */
+        public boolean isZones() {
+            return this==HR_ZONES || this==PACE_ZONES;
+        }
+
+        /**
+         * @return  Distributed segment metric, null if the data are not a distribution
+         */
+        public SegmentDistributions.Metric getMetric() {
+            switch (this) {
+                case PACE_DISTRIBUTION:
+                    return SegmentDistributions.Metric.PACE;
+                case HR_DISTRIBUTION:
+                    return SegmentDistributions.Metric.HR;
+            }
+            return null;
+        }
 
         @Override
         public String toString() {
@@ -360,6 +1122,18 @@ public class StatisticsTab extends Tab {
                     return "Duration";
                 case TYPE:
                     return "Type";
+                case LOAD:
+                    return "Training Load";
+                case PACE_DISTRIBUTION:
+                    return "Pace Distribution";
+                case HR_DISTRIBUTION:
+                    return "HR Distribution";
+                case HR_ZONES:
+                    return "HR Zones";
+                case PACE_ZONES:
+                    return "Pace Zones";
+                case YEARS:
+                    return "Year over Year";
             }
             return null;
         }
@@ -1,5 +1,6 @@
 package kafara.uur.runningdiary;
 
+import javafx.beans.binding.ObjectBinding;
 import javafx.beans.binding.StringBinding;
 import javafx.beans.value.ObservableValue;
 import javafx.scene.Node;
@@ -22,11 +23,15 @@ import java.util.Map;
 public class SummaryPane extends BorderPane {
 
     /** Activities to be summarized */
-    private final RunsSet runsSet;
+    private final RunsSummary runsSet;
+    /** Segment distributions of all activities */
+    private final SegmentDistributions segmentDistributions;
 
-    public SummaryPane(RunsSet runsSet) {
+    public SummaryPane(RunsSummary runsSet, SegmentDistributions segmentDistributions) {
         this.runsSet = runsSet;
+        this.segmentDistributions = segmentDistributions;
         setLeft(getTotalPane());
+        setCenter(getDistributionPane());
         setRight(getAveragePane());
     }
 
@@ -96,6 +101,42 @@ public class SummaryPane extends BorderPane {
         return new SummaryContentPane("On Average", content);
     }
 
+    private Node getDistributionPane() {
+        Map<String, ObservableValue<String>> content = new HashMap<>();
+        ObjectBinding<SegmentDistributions.Distribution> distribution = new ObjectBinding<>() {
+            {
+                bind(
+                        runsSet.fromProperty(), runsSet.toProperty(),
+                        runsSet.runsCountProperty(), segmentDistributions.versionProperty()
+                );
+            }
+            @Override
+            protected SegmentDistributions.Distribution computeValue() {
+                return segmentDistributions.getDistribution(
+                        runsSet.fromProperty().getValue(), runsSet.toProperty().getValue()
+                );
+            }
+        };
+        String[] units = {"min/km", "bpm", "spm"};
+        for (SegmentDistributions.Metric metric : SegmentDistributions.Metric.values()) {
+            content.put(metric.toString(), new StringBinding() {
+                {
+                    bind(distribution);
+                }
+                @Override
+                protected String computeValue() {
+                    return String.format(
+                            "%s / %s %s",
+                            metric.format(distribution.get().getQuantile(metric, 0.5)),
+                            metric.format(distribution.get().getQuantile(metric, 0.9)),
+                            units[metric.ordinal()]
+                    );
+                }
+            });
+        }
+        return new SummaryContentPane("Median / P90", content);
+    }
+
     /**
      * Represents generic summary content.
      */
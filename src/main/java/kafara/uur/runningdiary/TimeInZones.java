@@ -0,0 +1,251 @@
+package kafara.uur.runningdiary;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Represents time spent in HR and pace zones.
+ * - time in zones is computed once per activity when it is added (saved, loaded)
+ * - weekly and monthly totals are kept in buckets, a list change only moves the minutes of its activities
+ * - new zone definitions are applied by a recomputation on the "time-in-zones" thread, the result is swapped in on the FX thread
+ * - the totals are guarded by the instance lock, the zone charts read them from their tasks
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class TimeInZones {
+
+    /** Values per activity - HR zones followed by pace zones */
+    private static final int VALUES = 2*TrainingZones.ZONES;
+
+    /** Recomputes the totals outside the FX thread */
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "time-in-zones");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** All recorded activities */
+    private final ObservableList<Run> allRuns;
+    /** Zone definitions of the totals - changes when the recomputed totals are applied */
+    private final ReadOnlyObjectWrapper<TrainingZones> zones;
+    /** Latest requested zone definitions, only their recomputation is applied, FX thread only */
+    private TrainingZones requestedZones;
+    /** Totals of the current zone definitions */
+    private Totals totals;
+    /** Incremented with every change of the activities */
+    private long changes = 0;
+
+    public TimeInZones(ObservableList<Run> allRuns, TrainingZones zones) {
+        this.allRuns = allRuns;
+        this.zones = new ReadOnlyObjectWrapper<>(zones);
+        this.requestedZones = zones;
+        this.totals = new Totals(allRuns, zones);
+        allRuns.addListener((ListChangeListener<Run>) c -> {
+            changes++;
+            synchronized (this) {
+                while (c.next()) {
+                    for (Run run : c.getRemoved()) {
+                        totals.remove(run);
+                    }
+                    for (Run run : c.getAddedSubList()) {
+                        totals.add(run, this.zones.get());
+                    }
+                }
+            }
+        });
+    }
+
+    public TrainingZones getZones() {
+        return zones.get();
+    }
+
+    /**
+     * @return  Zone definitions of the totals
+     */
+    public ReadOnlyObjectProperty<TrainingZones> zonesProperty() {
+        return zones.getReadOnlyProperty();
+    }
+
+    /**
+     * Changes the zone definitions.
+     * - the totals are recomputed in background and replace the current ones when done
+     * - recomputed again if the activities change meanwhile
+     * - a recomputation of zone definitions superseded by a later change is discarded
+     * @param zones Zone definitions
+     */
+    public void setZones(TrainingZones zones) {
+        if (zones.equals(requestedZones)) {
+            return;
+        }
+        requestedZones = zones;
+        if (zones.equals(getZones())) {
+            return;
+        }
+        recompute(zones);
+    }
+
+    /**
+     * Recomputes the totals of the zone definitions in background, applies them if still requested.
+     * @param zones Zone definitions
+     */
+    private void recompute(TrainingZones zones) {
+        List<Run> runs = new ArrayList<>(allRuns);
+        long changesAtStart = changes;
+        EXECUTOR.execute(() -> {
+            Totals recomputed = new Totals(runs, zones);
+            Platform.runLater(() -> {
+                if (zones!=requestedZones) {
+                    return;
+                }
+                if (changes!=changesAtStart) {
+                    recompute(zones);
+                    return;
+                }
+                synchronized (this) {
+                    this.totals = recomputed;
+                }
+                this.zones.set(zones);
+            });
+        });
+    }
+
+    /**
+     * Returns the time spent in the zones by buckets.
+     * @param hr        True for HR zones, false for pace zones
+     * @param bucket    Bucket size, weeks or months
+     * @param start     First day of the first bucket
+     * @param count     Buckets count
+     * @return          Time [min] by zone and bucket
+     */
+    public synchronized double[][] getMinutes(boolean hr, Bucket bucket, LocalDate start, int count) {
+        Series series = (bucket==Bucket.MONTH) ? totals.monthly : totals.weekly;
+        long first = getIndex(bucket, start);
+        double[][] minutes = new double[TrainingZones.ZONES][count];
+        for (int zone=0; zone<TrainingZones.ZONES; zone++) {
+            for (int i=0; i<count; i++) {
+                minutes[zone][i] = series.get(first+i, hr ? zone : TrainingZones.ZONES+zone)/60.0;
+            }
+        }
+        return minutes;
+    }
+
+    /**
+     * Returns the absolute index of the week (month) containing the date.
+     * @param bucket    Weeks or months
+     * @param date      Date
+     * @return          Index
+     */
+    private static long getIndex(Bucket bucket, LocalDate date) {
+        if (bucket==Bucket.MONTH) {
+            return 12L*date.getYear() + date.getMonthValue()-1;
+        }
+        return Math.floorDiv(date.toEpochDay()-4, 7); // 1970-01-05 is the first Monday
+    }
+
+    /**
+     * Computes time spent in the zones during the activity.
+     * @param run   Run activity
+     * @param zones Zone definitions
+     * @return      Time [s] by HR zone followed by pace zone
+     */
+    static int[] computeSeconds(Run run, TrainingZones zones) {
+        int[] seconds = new int[VALUES];
+        for (Run.Segment segment : run.getSegments()) {
+            int duration = segment.getDuration().toSecondOfDay();
+            int hrZone = zones.getHrZone(segment);
+            if (hrZone!=-1) {
+                seconds[hrZone] += duration;
+            }
+            int paceZone = zones.getPaceZone(segment);
+            if (paceZone!=-1) {
+                seconds[TrainingZones.ZONES+paceZone] += duration;
+            }
+        }
+        return seconds;
+    }
+
+    /**
+     * Represents time in zones of the activities of one zone definition.
+     */
+    private static class Totals {
+
+        /** Time in zones by activity */
+        private final Map<Run, int[]> runSeconds = new IdentityHashMap<>();
+        private final Series weekly = new Series();
+        private final Series monthly = new Series();
+
+        private Totals(List<Run> runs, TrainingZones zones) {
+            for (Run run : runs) {
+                add(run, zones);
+            }
+        }
+
+        private void add(Run run, TrainingZones zones) {
+            int[] seconds = computeSeconds(run, zones);
+            runSeconds.put(run, seconds);
+            weekly.add(getIndex(Bucket.WEEK, run.getDate()), seconds, 1);
+            monthly.add(getIndex(Bucket.MONTH, run.getDate()), seconds, 1);
+        }
+
+        private void remove(Run run) {
+            int[] seconds = runSeconds.remove(run);
+            if (seconds==null) {
+                return;
+            }
+            weekly.add(getIndex(Bucket.WEEK, run.getDate()), seconds, -1);
+            monthly.add(getIndex(Bucket.MONTH, run.getDate()), seconds, -1);
+        }
+    }
+
+    /**
+     * Represents totals by week (month) stored in a single primitive array.
+     */
+    private static class Series {
+
+        /** Index of the first week (month) */
+        private long first;
+        /** Totals, VALUES per week (month) */
+        private int[] values = new int[0];
+
+        private void add(long index, int[] seconds, int sign) {
+            if (values.length==0) {
+                first = index;
+            }
+            if (index<first) {
+                int shift = (int) (first-index);
+                int[] shifted = new int[values.length + shift*VALUES];
+                System.arraycopy(values, 0, shifted, shift*VALUES, values.length);
+                values = shifted;
+                first = index;
+            }
+            int offset = (int) (index-first)*VALUES;
+            if (offset>=values.length) {
+                values = Arrays.copyOf(values, Math.max(offset+VALUES, 2*values.length));
+            }
+            for (int i=0; i<VALUES; i++) {
+                values[offset+i] += sign*seconds[i];
+            }
+        }
+
+        private int get(long index, int value) {
+            long offset = (index-first)*VALUES;
+            if (index<first || offset>=values.length) {
+                return 0;
+            }
+            return values[(int) offset + value];
+        }
+    }
+
+}
@@ -0,0 +1,235 @@
+package kafara.uur.runningdiary;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Represents the training load of run activities.
+ * - daily load, acute load (fatigue), chronic load (fitness) and training stress balance (form)
+ * - acute and chronic loads are exponentially weighted averages of the daily load
+ * - a list change recomputes the averages only from its earliest changed day onwards
+ * - the arrays are changed and read under the instance lock, so the chart tasks can read a consistent series
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class TrainingLoad {
+
+    /** Time constant of the acute load [days] */
+    public static final int ACUTE_DAYS = 7;
+    /** Time constant of the chronic load [days] */
+    public static final int CHRONIC_DAYS = 42;
+
+    /** Resting HR [bpm] */
+    private static final int HR_REST = 60;
+    /** Maximal HR [bpm] */
+    private static final int HR_MAX = 190;
+
+    /** Daily decay of the acute load */
+    private static final double ACUTE_DECAY = 1 - Math.exp(-1.0/ACUTE_DAYS);
+    /** Daily decay of the chronic load */
+    private static final double CHRONIC_DECAY = 1 - Math.exp(-1.0/CHRONIC_DAYS);
+
+    /** Epoch day of the first day of the series */
+    private long firstDay;
+    /** Daily load */
+    private double[] daily = new double[0];
+    /** Acute load at the end of the day */
+    private double[] acute = new double[0];
+    /** Chronic load at the end of the day */
+    private double[] chronic = new double[0];
+    /** Count of days with valid acute and chronic load */
+    private int valid = 0;
+
+    /**
+     * Creates the training load of the run activities.
+     * @param allRuns   Run activities to be considered
+     */
+    public TrainingLoad(ObservableList<Run> allRuns) {
+        allRuns.addListener((ListChangeListener<Run>) c -> {
+            while (c.next()) {
+                for (Run run : c.getRemoved()) {
+                    addLoad(run.getDate(), -getLoad(run));
+                }
+                for (Run run : c.getAddedSubList()) {
+                    addLoad(run.getDate(), getLoad(run));
+                }
+            }
+        });
+        for (Run run : allRuns) {
+            addLoad(run.getDate(), getLoad(run));
+        }
+    }
+
+    /**
+     * Calculates the load of the run activity (TRIMP).
+     * - segments with HR: duration weighted by HR reserve
+     * - segments without HR: duration weighted by HR reserve typical for the activity type
+     * @param run   Run activity
+     * @return      Load
+     */
+    public static double getLoad(Run run) {
+        double load = 0;
+        for (Run.Segment segment : run.getSegments()) {
+            double minutes = segment.getDuration().toSecondOfDay()/60.0;
+            double hrReserve = (segment.getHr()!=-1) ?
+                    (double) (segment.getHr()-HR_REST) / (HR_MAX-HR_REST) : getTypicalHrReserve(run.getType());
+            hrReserve = Math.min(Math.max(hrReserve, 0), 1);
+            load += minutes * hrReserve * 0.64 * Math.exp(1.92*hrReserve);
+        }
+        return load;
+    }
+
+    /**
+     * Returns HR reserve typical for the activity type.
+     * @param type  Activity type
+     * @return      HR reserve (0-1)
+     */
+    private static double getTypicalHrReserve(Run.Type type) {
+        if (type==null) {
+            return 0.6;
+        }
+        switch (type) {
+            case EASY_RUN:
+                return 0.6;
+            case LONG_RUN:
+                return 0.65;
+            case STEADY_RUN:
+                return 0.75;
+            case FARTLEK:
+                return 0.78;
+            case HILLS:
+                return 0.8;
+            case INTERVAL_RUN:
+                return 0.85;
+            case RACE:
+                return 0.9;
+        }
+        return 0.6;
+    }
+
+    /**
+     * Adds the load to the day and invalidates the averages from the day on.
+     * @param date  Day
+     * @param load  Load, negative for removal
+     */
+    private synchronized void addLoad(LocalDate date, double load) {
+        int day = ensureDay(date.toEpochDay());
+        daily[day] = Math.max(daily[day]+load, 0);
+        valid = Math.min(valid, day);
+    }
+
+    /**
+     * Extends the series so that it contains the day.
+     * @param epochDay  Day
+     * @return          Index of the day in the series
+     */
+    private int ensureDay(long epochDay) {
+        if (daily.length==0) {
+            firstDay = epochDay;
+        }
+        if (epochDay<firstDay) {
+            int shift = (int) (firstDay-epochDay);
+            daily = shift(daily, shift);
+            acute = shift(acute, shift);
+            chronic = shift(chronic, shift);
+            firstDay = epochDay;
+            valid = 0;
+        }
+        int day = (int) (epochDay-firstDay);
+        if (day>=daily.length) {
+            int length = Math.max(day+1, 2*daily.length);
+            daily = Arrays.copyOf(daily, length);
+            acute = Arrays.copyOf(acute, length);
+            chronic = Arrays.copyOf(chronic, length);
+        }
+        return day;
+    }
+
+    private static double[] shift(double[] array, int shift) {
+        double[] shifted = new double[array.length+shift];
+        System.arraycopy(array, 0, shifted, shift, array.length);
+        return shifted;
+    }
+
+    /**
+     * Recomputes the averages from the first invalid day up to the day.
+     * @param day   Index of the day
+     */
+    private void validate(int day) {
+        for (int i=valid; i<=day; i++) {
+            double previousAcute = (i>0) ? acute[i-1] : 0;
+            double previousChronic = (i>0) ? chronic[i-1] : 0;
+            acute[i] = previousAcute + (daily[i]-previousAcute)*ACUTE_DECAY;
+            chronic[i] = previousChronic + (daily[i]-previousChronic)*CHRONIC_DECAY;
+        }
+        valid = Math.max(valid, day+1);
+    }
+
+    /**
+     * Returns the average load at the end of the day.
+     * - the averages must be valid up to the day (or the end of the series)
+     * - zero before the series, decayed from the last day of the series after it (no load)
+     * @param averages  Acute or chronic load
+     * @param decay     Daily decay of the average
+     * @param day       Index of the day
+     * @return          Average load
+     */
+    private double getAverage(double[] averages, double decay, long day) {
+        if (day<0) {
+            return 0;
+        }
+        if (day<averages.length) {
+            return averages[(int) day];
+        }
+        return averages[averages.length-1] * Math.pow(1-decay, day-(averages.length-1));
+    }
+
+    /**
+     * Returns the daily series of the date range from-to.
+     * - [0] daily load, [1] acute load, [2] chronic load, [3] training stress balance
+     * - the series is not extended, the days outside it have no load
+     * @param from  From
+     * @param to    To
+     * @return      Series, one value per day
+     */
+    public synchronized double[][] getSeries(LocalDate from, LocalDate to) {
+        int days = (int) (to.toEpochDay()-from.toEpochDay()+1);
+        double[][] series = new double[4][days];
+        if (daily.length==0) {
+            return series;
+        }
+        validate((int) Math.min(to.toEpochDay()-firstDay, daily.length-1));
+        long fromDay = from.toEpochDay()-firstDay;
+        for (int i=0; i<days; i++) {
+            long day = fromDay+i;
+            if (day<0) {
+                continue;
+            }
+            series[0][i] = (day<daily.length) ? daily[(int) day] : 0;
+            series[1][i] = getAverage(acute, ACUTE_DECAY, day);
+            series[2][i] = getAverage(chronic, CHRONIC_DECAY, day);
+            series[3][i] = getAverage(chronic, CHRONIC_DECAY, day-1) - getAverage(acute, ACUTE_DECAY, day-1);
+        }
+        return series;
+    }
+
+    /**
+     * Returns the acute:chronic load ratio at the end of the day.
+     * - the series is not extended
+     * @param date  Day
+     * @return      Ratio, -1 if there is no chronic load
+     */
+    public synchronized double getAcuteChronicRatio(LocalDate date) {
+        if (daily.length==0 || date.toEpochDay()<firstDay) {
+            return -1;
+        }
+        long day = date.toEpochDay()-firstDay;
+        validate((int) Math.min(day, daily.length-1));
+        double chronicLoad = getAverage(chronic, CHRONIC_DECAY, day);
+        return (chronicLoad>0) ? getAverage(acute, ACUTE_DECAY, day)/chronicLoad : -1;
+    }
+
+}
@@ -0,0 +1,103 @@
+package kafara.uur.runningdiary;
+
+import java.util.Arrays;
+
+/**
+ * Represents HR and pace training zone definitions.
+ * - immutable
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class TrainingZones {
+
+    /** Count of zones of each kind */
+    public static final int ZONES = 5;
+
+    /** Default zone definitions */
+    public static final TrainingZones DEFAULT = new TrainingZones(
+            new int[] {120, 140, 155, 170},
+            new int[] {360, 330, 300, 270}
+    );
+
+    /** Lower HR bounds of zones 2-5 [bpm], ascending */
+    private final int[] hrBounds;
+    /** Upper pace bounds of zones 2-5 [s/km], descending */
+    private final int[] paceBounds;
+
+    /**
+     * Creates the zone definitions.
+     * @param hrBounds      Lower HR bounds of zones 2-5 [bpm], ascending
+     * @param paceBounds    Upper pace bounds of zones 2-5 [s/km], descending
+     * @throws IllegalArgumentException If the bounds are not ordered or their count does not match
+     */
+    public TrainingZones(int[] hrBounds, int[] paceBounds) {
+        if (hrBounds.length!=ZONES-1 || paceBounds.length!=ZONES-1) {
+            throw new IllegalArgumentException(String.format("There must be %d zone bounds.", ZONES-1));
+        }
+        for (int i=1; i<ZONES-1; i++) {
+            if (hrBounds[i]<=hrBounds[i-1]) {
+                throw new IllegalArgumentException("HR zone bounds must be ascending.");
+            }
+            if (paceBounds[i]>=paceBounds[i-1]) {
+                throw new IllegalArgumentException("Pace zone bounds must be descending (getting faster).");
+            }
+        }
+        this.hrBounds = hrBounds.clone();
+        this.paceBounds = paceBounds.clone();
+    }
+
+    /**
+     * Returns the HR zone of the segment.
+     * @param segment   Segment
+     * @return          Zone (0-4), -1 if the segment does not contain HR
+     */
+    public int getHrZone(Run.Segment segment) {
+        if (segment.getHr()==-1) {
+            return -1;
+        }
+        int zone = 0;
+        while (zone<hrBounds.length && segment.getHr()>=hrBounds[zone]) {
+            zone++;
+        }
+        return zone;
+    }
+
+    /**
+     * Returns the pace zone of the segment.
+     * @param segment   Segment
+     * @return          Zone (0-4), -1 if the segment does not contain distance
+     */
+    public int getPaceZone(Run.Segment segment) {
+        if (segment.getDistance()<=0) {
+            return -1;
+        }
+        double pace = segment.getDuration().toSecondOfDay()/segment.getDistance();
+        int zone = 0;
+        while (zone<paceBounds.length && pace<=paceBounds[zone]) {
+            zone++;
+        }
+        return zone;
+    }
+
+    public int[] getHrBounds() {
+        return hrBounds.clone();
+    }
+
+    public int[] getPaceBounds() {
+        return paceBounds.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (! (o instanceof TrainingZones zones)) {
+            return false;
+        }
+        return Arrays.equals(hrBounds, zones.hrBounds) && Arrays.equals(paceBounds, zones.paceBounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31*Arrays.hashCode(hrBounds) + Arrays.hashCode(paceBounds);
+    }
+
+}
@@ -0,0 +1,157 @@
+package kafara.uur.runningdiary;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+
+/**
+ * Represents cumulative distance ran during each year.
+ * - a prefix sum of daily distance per year, indexed by the day of a leap year
+ * - subscribed to the diary changes and updated on the "yearly-distance" thread, a change updates only the rest of its year
+ * - the changes made while an update runs are coalesced and applied as one, editing never waits for the curves
+ * - the curves are guarded by the instance lock and copied out for the years chart
+ * @author  Stanislav Kafara
+ * @version 1 2026-10-18
+ */
+public class YearlyDistance {
+
+    /** Days of a (leap) year */
+    public static final int DAYS = 366;
+
+    /** Distance ran from the beginning of the year to the end of the day by year */
+    private final TreeMap<Integer, double[]> cumulative = new TreeMap<>();
+    /** Activities count by year */
+    private final Map<Integer, Integer> runsCounts = new HashMap<>();
+    /** Called on the update thread after a change is applied */
+    private final List<Runnable> updateListeners = new CopyOnWriteArrayList<>();
+
+    /** Applies the changes outside the FX thread */
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "yearly-distance");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param runs      Recorded activities
+     * @param changes   Changes of the recorded activities following the activities
+     */
+    public YearlyDistance(Collection<Run> runs, DiaryChangePublisher changes) {
+        for (Run run : runs) {
+            add(run, 1);
+        }
+        changes.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+            @Override
+            public void onNext(DiaryChange change) {
+                try {
+                    apply(change);
+                } catch (RuntimeException e) {
+                    report(e); // the curves are fixed by the next change of the year
+                }
+                subscription.request(1);
+            }
+            @Override
+            public void onError(Throwable throwable) {
+                report(throwable);
+            }
+            @Override
+            public void onComplete() {
+                // the diary is closed, the curves stay as they are
+            }
+        }, EXECUTOR);
+    }
+
+    /**
+     * @param listener  Called on the update thread after a change is applied
+     */
+    public void addUpdateListener(Runnable listener) {
+        updateListeners.add(listener);
+    }
+
+    /**
+     * Reports the failure of an update to the handler of the update thread.
+     * @param throwable Failure
+     */
+    private static void report(Throwable throwable) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, throwable);
+    }
+
+    /**
+     * Applies the change.
+     * @param change    Change of the activities
+     */
+    private void apply(DiaryChange change) {
+        synchronized (this) {
+            for (Run run : change.getRemoved()) {
+                add(run, -1);
+            }
+            for (Map.Entry<Run, Run> entry : change.getReplaced().entrySet()) {
+                add(entry.getKey(), -1);
+                add(entry.getValue(), 1);
+            }
+            for (Run run : change.getAdded()) {
+                add(run, 1);
+            }
+        }
+        updateListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Adds the activity distance to its day and to all the following days of the year.
+     * @param run   Run activity
+     * @param sign  1 to add, -1 to remove
+     */
+    private synchronized void add(Run run, int sign) {
+        int year = run.getDate().getYear();
+        int runsCount = runsCounts.getOrDefault(year, 0) + sign;
+        if (runsCount==0) {
+            runsCounts.remove(year);
+            cumulative.remove(year);
+            return;
+        }
+        runsCounts.put(year, runsCount);
+        double[] days = cumulative.computeIfAbsent(year, y -> new double[DAYS]);
+        double distance = sign*run.getDistance();
+        for (int day=getDayOfLeapYear(run.getDate()); day<DAYS; day++) {
+            days[day] += distance;
+        }
+    }
+
+    /**
+     * Returns the index of the day in a leap year, so the same date has the same index in every year.
+     * - 28 February and 1 March of a common year are indices 58 and 60, index 59 repeats the 28 February sum
+     * @param date  Date
+     * @return      Index of the day (0-365)
+     */
+    public static int getDayOfLeapYear(LocalDate date) {
+        return LocalDate.of(2000, date.getMonth(), date.getDayOfMonth()).getDayOfYear()-1;
+    }
+
+    /**
+     * Returns the cumulative distance curves.
+     * @return  Distance [km] by day of year by year, ascending by year
+     */
+    public synchronized Map<Integer, double[]> getCurves() {
+        Map<Integer, double[]> curves = new LinkedHashMap<>();
+        for (Map.Entry<Integer, double[]> entry : cumulative.entrySet()) {
+            curves.put(entry.getKey(), entry.getValue().clone());
+        }
+        return curves;
+    }
+
+}
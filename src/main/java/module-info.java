@@ -1,5 +1,7 @@
 module kafara.uur.runningdiary {
     requires javafx.controls;
+    requires java.management;
+    requires jdk.jfr;
 
     exports kafara.uur.runningdiary;
 }
\ No newline at end of file